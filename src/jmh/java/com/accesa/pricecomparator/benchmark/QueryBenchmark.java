@@ -0,0 +1,185 @@
+package com.accesa.pricecomparator.benchmark;
+
+import com.accesa.pricecomparator.dto.BasketComparisonRequest;
+import com.accesa.pricecomparator.dto.BasketRequest;
+import com.accesa.pricecomparator.model.PriceAlert;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
+import com.accesa.pricecomparator.repository.PriceAlertRepositoryInMemory;
+import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.repository.SourceFileRepositoryInMemory;
+import com.accesa.pricecomparator.repository.StorageLayout;
+import com.accesa.pricecomparator.service.BasketService;
+import com.accesa.pricecomparator.service.BudgetSolverService;
+import com.accesa.pricecomparator.service.DataLoaderService;
+import com.accesa.pricecomparator.service.EffectivePriceService;
+import com.accesa.pricecomparator.service.PriceAlertService;
+import com.accesa.pricecomparator.service.PriceComparatorService;
+import com.accesa.pricecomparator.service.PriceEventService;
+import com.accesa.pricecomparator.util.CsvDiscountLoader;
+import com.accesa.pricecomparator.util.CsvProductLoader;
+import com.accesa.pricecomparator.util.IngestionMetrics;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import com.accesa.pricecomparator.util.SyntheticDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the query hot paths over a {@link SyntheticDataGenerator} dataset (5 stores,
+ * 10 days, 15% of the products on weekly discounts), with the services wired by hand (no Spring
+ * context) and the data loaded through {@link DataLoaderService}. The effective price tables are
+ * warmed in the setup, so the numbers are for the steady state where every table is already cached.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}; the GC profiler is on by default and
+ * reports the allocation rate next to the throughput. Pass other JMH options through
+ * {@code -Djmh.args}, e.g. {@code -Djmh.args="QueryBenchmark.optimizeBasket -p rows=100000 -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QueryBenchmark {
+
+    private static final long SEED = 42;
+    private static final int STORES = 5;
+    private static final int DAYS = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"ROWS", "COLUMNAR"})
+    private StorageLayout layout;
+
+    // thread-uri pentru partitiile de magazin (0 = numarul de procesoare); -p queryParallelism=1 = secvential
+    @Param({"0"})
+    private int queryParallelism;
+
+    private Path dataDir;
+    private StorePartitionExecutor partitionExecutor;
+    private ProductRepositoryInMemory productRepo;
+    private EffectivePriceService priceService;
+    private PriceComparatorService comparatorService;
+    private BasketService basketService;
+    private PriceAlertService alertService;
+
+    private LocalDate date;
+    private List<String> basket;
+    private String productName;
+    private BasketRequest invoiceRequest;
+    private BasketComparisonRequest comparisonRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, URISyntaxException {
+        SyntheticDataGenerator.Settings settings = new SyntheticDataGenerator.Settings(
+                SEED, STORES, DAYS, rows / (STORES * DAYS), 0.15, 7, LocalDate.of(2025, 5, 1));
+        dataDir = Files.createTempDirectory("pricecomparator-bench");
+        new SyntheticDataGenerator(settings).writeTo(dataDir);
+
+        SymbolTable symbols = new SymbolTable();
+        partitionExecutor = new StorePartitionExecutor(queryParallelism, 0);
+        productRepo = new ProductRepositoryInMemory(layout, symbols);
+        DiscountRepositoryInMemory discountRepo = new DiscountRepositoryInMemory(symbols, partitionExecutor);
+        priceService = new EffectivePriceService(productRepo, discountRepo, symbols, partitionExecutor);
+        alertService = new PriceAlertService(new PriceAlertRepositoryInMemory(symbols), productRepo, priceService, symbols);
+        IngestionMetrics ingestionMetrics = new IngestionMetrics(new SimpleMeterRegistry());
+        new DataLoaderService(new CsvProductLoader(ingestionMetrics), new CsvDiscountLoader(ingestionMetrics),
+                productRepo, discountRepo, new SourceFileRepositoryInMemory(), priceService, alertService,
+                new PriceEventService(discountRepo, symbols, 256, 0),
+                0, dataDir.toString(), 0, "", 0).loadAllData();
+
+        comparatorService = new PriceComparatorService(productRepo, priceService, symbols, partitionExecutor);
+        basketService = new BasketService(priceService, new BudgetSolverService(2_000_000, 100));
+
+        Random random = new Random(SEED);
+        date = settings.startDate().plusDays(DAYS / 2);
+        List<String> names = productRepo.getByDate(date).stream().map(Product::getProductName).distinct().toList();
+
+        basket = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            basket.add(names.get(random.nextInt(names.size())));
+        }
+        productName = basket.get(0);
+
+        for (int i = 0; i < 1000; i++) {
+            alertService.saveAlert(new PriceAlert(names.get(random.nextInt(names.size())),
+                    100 + random.nextInt(3000), "user" + i + "@example.com"));
+        }
+
+        invoiceRequest = new BasketRequest();
+        invoiceRequest.setProductNames(basket);
+        invoiceRequest.setDate(date.toString());
+
+        comparisonRequest = new BasketComparisonRequest();
+        comparisonRequest.setProductNames(basket);
+        comparisonRequest.setDates(productRepo.getDates().stream().toList());
+
+        productRepo.getDates().forEach(priceService::getTable);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        partitionExecutor.shutdown();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // tabelul unei zile reconstruit de la zero: reducerile aplicate pe fiecare magazin, apoi unite
+    @Benchmark
+    public Object buildPriceTable() {
+        priceService.invalidate(date);
+        return priceService.getTable(date);
+    }
+
+    @Benchmark
+    public Object optimizeBasket() {
+        return comparatorService.optimizeBasket(basket, date);
+    }
+
+    @Benchmark
+    public Object findSubstitutes() {
+        return comparatorService.findSubstitutes(productName, date);
+    }
+
+    @Benchmark
+    public Object priceHistory() {
+        return comparatorService.getPriceHistoryForProduct(productName);
+    }
+
+    @Benchmark
+    public Object invoice() {
+        return basketService.getInvoice(invoiceRequest);
+    }
+
+    @Benchmark
+    public Object compareBasketAcrossDays() {
+        return basketService.compareBasketAcrossDays(comparisonRequest);
+    }
+
+    @Benchmark
+    public Object triggeredAlerts() {
+        return alertService.getTriggeredAlerts(date.toString());
+    }
+
+    @Benchmark
+    public Object searchByName() {
+        return productRepo.searchByName("lapte", 50);
+    }
+}
@@ -0,0 +1,70 @@
+package com.accesa.pricecomparator.config;
+
+import com.accesa.pricecomparator.controller.ResponseCacheFilter;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepository;
+import com.accesa.pricecomparator.repository.PriceAlertRepository;
+import com.accesa.pricecomparator.repository.ProductRepository;
+import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.service.EffectivePriceService;
+import com.accesa.pricecomparator.service.PriceEventService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics wiring: {@link TimedAspect} so the {@code @Timed} services report a timer (with a
+ * percentile histogram) per public method, and gauges for the sizes of the in-memory stores and
+ * indexes. Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder storeSizeMetrics(ProductRepository productRepo,
+                                        DiscountRepository discountRepo,
+                                        PriceAlertRepository alertRepo,
+                                        EffectivePriceService priceService,
+                                        PriceEventService eventService,
+                                        ResponseCacheFilter responseCache,
+                                        SymbolTable symbols) {
+        return registry -> {
+            Gauge.builder("pricecomparator.products.rows", productRepo, ProductRepository::getRowCount)
+                    .description("Product rows loaded").register(registry);
+            Gauge.builder("pricecomparator.products.dates", productRepo, r -> r.getDates().size())
+                    .description("Dates with product data").register(registry);
+            Gauge.builder("pricecomparator.products.names", productRepo, ProductRepository::getDistinctNameCount)
+                    .description("Distinct product names in the search index").register(registry);
+            if (productRepo instanceof ProductRepositoryInMemory memory) {
+                Gauge.builder("pricecomparator.products.name.trigrams", memory, ProductRepositoryInMemory::getNameTrigramCount)
+                        .description("Distinct trigrams in the search index").register(registry);
+            }
+            Gauge.builder("pricecomparator.symbols", symbols, SymbolTable::size)
+                    .description("Distinct names, stores, categories, brands and units interned").register(registry);
+            Gauge.builder("pricecomparator.discounts.rows", discountRepo, DiscountRepository::getCount)
+                    .description("Discounts loaded").register(registry);
+            Gauge.builder("pricecomparator.discounts.index.size", discountRepo, DiscountRepository::getIndexSize)
+                    .description("(product, store) pairs in the discount interval index").register(registry);
+            Gauge.builder("pricecomparator.alerts", alertRepo, PriceAlertRepository::size)
+                    .description("Saved price alerts").register(registry);
+            Gauge.builder("pricecomparator.alerts.products", alertRepo, PriceAlertRepository::getAlertedProductCount)
+                    .description("Distinct products with at least one alert").register(registry);
+            Gauge.builder("pricecomparator.price.tables", priceService, EffectivePriceService::getCachedTableCount)
+                    .description("Effective price tables currently cached").register(registry);
+            Gauge.builder("pricecomparator.events.subscribers", eventService, PriceEventService::getSubscriberCount)
+                    .description("Open alert stream subscriptions").register(registry);
+            Gauge.builder("pricecomparator.response.cache.bytes", responseCache, ResponseCacheFilter::getCachedBytes)
+                    .description("Bytes held by the response cache").register(registry);
+            Gauge.builder("pricecomparator.response.cache.entries", responseCache, ResponseCacheFilter::getCachedEntries)
+                    .description("Responses held by the response cache").register(registry);
+        };
+    }
+}
@@ -2,15 +2,19 @@ package com.accesa.pricecomparator.controller;
 
 import com.accesa.pricecomparator.dto.*;
 import com.accesa.pricecomparator.exception.ResourceNotFoundException;
+import com.accesa.pricecomparator.service.BasketBatchService;
 import com.accesa.pricecomparator.service.BasketService;
+import com.accesa.pricecomparator.service.BasketSolverService;
 import com.accesa.pricecomparator.service.PriceComparatorService;
 
 import com.accesa.pricecomparator.util.DateUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
@@ -31,11 +35,19 @@ public class BasketController {
 
     private final BasketService basketService;
 
+    private final BasketBatchService batchService;
+
+    private final BasketSolverService solverService;
+
 
     public BasketController(PriceComparatorService comparatorService,
-                            BasketService basketService) {
+                            BasketService basketService,
+                            BasketBatchService batchService,
+                            BasketSolverService solverService) {
         this.comparatorService = comparatorService;
         this.basketService = basketService;
+        this.batchService = batchService;
+        this.solverService = solverService;
     }
 
     @Operation(summary = "Optimize basket by selecting the cheapest products with discounts applied")
@@ -51,6 +63,47 @@ public class BasketController {
     }
 
 
+    @Operation(summary = "Cheapest basket using at most maxStores stores",
+            description = "Exact branch and bound over store subsets, with an optional fixed cost per visited store. "
+                    + "If the latency budget runs out, the best basket found so far is returned with optimal=false")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Basket optimized"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @PostMapping("/optimize-stores")
+    public StoreLimitedBasketResponse optimizeWithStoreLimit(@RequestBody StoreLimitedBasketRequest request) {
+        log.info("Optimize basket with store limit request: {}", request);
+        if (request.getProductNames() == null || request.getMaxStores() < 1 || request.getStoreVisitCost() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "productNames is required, maxStores must be at least 1 and storeVisitCost not negative");
+        }
+        LocalDate parsedDate = DateUtils.parse(request.getDate());
+        try {
+            return solverService.solve(request.getProductNames(), parsedDate, request.getMaxStores(), request.getStoreVisitCost());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+
+    @Operation(summary = "Optimize many baskets in one call",
+            description = "Evaluates the baskets in parallel and returns one result per basket, in request order, with its evaluation time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Baskets optimized; invalid baskets carry an error"),
+            @ApiResponse(responseCode = "400", description = "Missing or too many baskets")
+    })
+    @PostMapping("/optimize-batch")
+    public BasketBatchResponse optimizeBaskets(@RequestBody BasketBatchRequest request) {
+        List<BasketRequest> baskets = request.getBaskets();
+        if (baskets == null || baskets.isEmpty() || baskets.size() > batchService.getMaxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "baskets must contain between 1 and " + batchService.getMaxBatchSize() + " entries");
+        }
+        log.info("Optimize basket batch request: {} baskets", baskets.size());
+        return batchService.optimizeBaskets(baskets);
+    }
+
+
     @Operation(summary = "Get a detailed invoice for the selected products",
                description = "Returns original price, final price with discount, and total savings per product")
     @ApiResponses(value = {
@@ -1,13 +1,22 @@
 package com.accesa.pricecomparator.controller;
 
+import com.accesa.pricecomparator.dto.PageResponse;
 import com.accesa.pricecomparator.model.Discount;
 import com.accesa.pricecomparator.service.DiscountService;
+import com.accesa.pricecomparator.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.Iterator;
 import java.util.List;
 
 @Slf4j
@@ -16,11 +25,15 @@ import java.util.List;
 @RequestMapping("/api/discounts")
 public class DiscountController {
 
+    private static final int MAX_PAGE_SIZE = 10_000;
+
     private final DiscountService discountService;
+    private final ObjectMapper objectMapper;
 
-    public DiscountController(DiscountService discountService) {
+    public DiscountController(DiscountService discountService, ObjectMapper objectMapper) {
 
         this.discountService = discountService;
+        this.objectMapper = objectMapper;
     }
 
 
@@ -37,6 +50,26 @@ public class DiscountController {
         return discountService.getAll();
     }
 
+    @Operation(summary = "Page through all discounts with a keyset cursor (pass nextCursor back to get the next page)")
+    @GetMapping("/all/page")
+    public PageResponse<Discount> getAllDiscountsPage(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "500") int limit) {
+        log.info("Fetching a page of all discounts");
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return discountService.getPage(cursor, limit);
+    }
+
+    @Operation(summary = "Stream all discounts as newline-delimited JSON, one per line")
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllDiscounts() {
+        log.info("Streaming all discounts");
+        Iterator<Discount> rows = discountService.iterateAll();
+        StreamingResponseBody body = out -> NdjsonWriter.write(rows, out, objectMapper);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @Operation(summary = "Get all discounts available in a specific store")
     @GetMapping("/store/{store}")
     public List<Discount> getDiscountsByStore(@PathVariable String store) {
@@ -2,8 +2,13 @@ package com.accesa.pricecomparator.controller;
 
 import com.accesa.pricecomparator.model.PriceAlert;
 import com.accesa.pricecomparator.service.PriceAlertService;
+import com.accesa.pricecomparator.service.PriceEventService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,9 +22,11 @@ import java.util.List;
 public class PriceAlertController {
 
     private final PriceAlertService alertService;
+    private final PriceEventService eventService;
 
-    public PriceAlertController(PriceAlertService alertService) {
+    public PriceAlertController(PriceAlertService alertService, PriceEventService eventService) {
         this.alertService = alertService;
+        this.eventService = eventService;
     }
 
 
@@ -27,6 +34,10 @@ public class PriceAlertController {
     @PostMapping
     public String createAlert(@RequestBody PriceAlert alert) {
         log.info("Create a new price alert for a product");
+        // alertele sunt grupate dupa numele produsului; fara el nu ar avea ce urmari
+        if (alert.getProductName() == null || alert.getProductName().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "productName is required");
+        }
         alertService.saveAlert(alert);
         return "Alert saved for " + alert.getProductName();
     }
@@ -39,4 +50,13 @@ public class PriceAlertController {
         return alertService.getTriggeredAlerts(date);
     }
 
+
+    @Operation(summary = "Stream triggered alerts and new or expiring discounts as data is ingested (Server-Sent Events)")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(required = false) String userEmail,
+                                   @RequestParam(required = false) String productName) {
+        log.info("Subscribe to the alert and discount stream");
+        return eventService.subscribe(userEmail, productName);
+    }
+
 }
@@ -1,12 +1,20 @@
 package com.accesa.pricecomparator.controller;
 
 import com.accesa.pricecomparator.exception.ResourceNotFoundException;
+import com.accesa.pricecomparator.model.Money;
 import com.accesa.pricecomparator.model.Product;
 import com.accesa.pricecomparator.service.PriceComparatorService;
 import com.accesa.pricecomparator.service.ProductService;
 import com.accesa.pricecomparator.util.DateUtils;
+import com.accesa.pricecomparator.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.accesa.pricecomparator.dto.*;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,7 +22,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -25,13 +35,18 @@ import java.util.Set;
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 10_000;
+
     private final ProductService productService;
     private final PriceComparatorService comparatorService;
+    private final ObjectMapper objectMapper;
 
 
-    public ProductController(ProductService productService,PriceComparatorService comparatorService) {
+    public ProductController(ProductService productService,PriceComparatorService comparatorService,
+                             ObjectMapper objectMapper) {
         this.comparatorService = comparatorService;
         this.productService = productService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Load sample products from a CSV file")
@@ -50,7 +65,7 @@ public class ProductController {
                 "Zuzu",
                 1.0,
                 "l",
-                9.90,
+                990,
                 "RON",
                 LocalDate.of(2025, 5, 8),
                 "Lidl"
@@ -64,6 +79,26 @@ public class ProductController {
         return productService.getAll();
     }
 
+    @Operation(summary = "Page through all products with a keyset cursor (pass nextCursor back to get the next page)")
+    @GetMapping("/all/page")
+    public PageResponse<Product> getAllProductsPage(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "500") int limit) {
+        log.info("Fetching a page of all products");
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return productService.getPage(cursor, limit);
+    }
+
+    @Operation(summary = "Stream all products as newline-delimited JSON, one per line")
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        log.info("Streaming all products");
+        Iterator<Product> rows = productService.iterateAll();
+        StreamingResponseBody body = out -> NdjsonWriter.write(rows, out, objectMapper);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @Operation(summary = "Get all products from a specific store")
     @GetMapping("/store/{store}")
     public List<Product> getProductsByStore(@PathVariable String store) {
@@ -103,12 +138,16 @@ public class ProductController {
         return comparatorService.findSubstitutes(name, parsedDate);
     }
 
-    @Operation(summary = "Search products by name fragment")
+    @Operation(summary = "Search products by name fragment (one result per distinct name, latest price)")
     @ApiResponse(responseCode = "200", description = "List of matching products")
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String query) {
+    public List<Product> searchProducts(@RequestParam String query,
+                                        @RequestParam(defaultValue = "50") int limit) {
         log.info("Searching products with query: '{}'", query);
-        List<Product> results = productService.searchByName(query);
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        List<Product> results = productService.searchByName(query, limit);
         if (results.isEmpty()) {
             throw new ResourceNotFoundException("No products found for query: " + query);
         }
@@ -142,9 +181,9 @@ public class ProductController {
 
     @Operation(summary = "Get all products below a given price on a given day")
     @GetMapping("/under-price")
-    public List<Product> getUnderPrice(@RequestParam double max, @RequestParam String date) {
+    public List<Product> getUnderPrice(@RequestParam BigDecimal max, @RequestParam String date) {
         log.info("Fetching products below a given price on {}", date);
-        return productService.getUnderPrice(max, date);
+        return productService.getUnderPrice(Money.of(max), date);
     }
 
 
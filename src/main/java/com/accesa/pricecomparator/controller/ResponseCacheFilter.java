@@ -0,0 +1,182 @@
+package com.accesa.pricecomparator.controller;
+
+import com.accesa.pricecomparator.service.DataLoaderService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Result cache and ETags for the product and discount GET endpoints, which are pure functions of
+ * their parameters and the loaded data.
+ * <p>
+ * The key is the path plus the raw parameters sorted by name, and the ETag is
+ * {@link DataLoaderService#getDataFingerprint} plus a SHA-256 digest of that key, so a matching
+ * {@code If-None-Match} is answered with 304 before the endpoint runs, cached or not. The
+ * fingerprint names the loaded files, not a per-process counter, so a tag handed out before a
+ * restart or a snapshot restore only matches again when the same data is loaded. Successful responses up to
+ * {@code max-entry-bytes} are kept as bytes in an LRU bounded by {@code max-bytes}; entries of an
+ * older dataset are never served again and age out. The full {@code /all} dumps and the
+ * NDJSON streams only get the ETag, never buffered in memory.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final DataLoaderService dataLoader;
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final LruCache cache;
+
+    public ResponseCacheFilter(DataLoaderService dataLoader,
+                               @Value("${pricecomparator.cache.enabled:true}") boolean enabled,
+                               @Value("${pricecomparator.cache.max-bytes:67108864}") long maxBytes,
+                               @Value("${pricecomparator.cache.max-entry-bytes:1048576}") long maxEntryBytes) {
+        this.dataLoader = dataLoader;
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = new LruCache(maxBytes);
+    }
+
+    public long getCachedBytes() {
+        return cache.bytes();
+    }
+
+    public int getCachedEntries() {
+        return cache.size();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled || !"GET".equals(request.getMethod())
+                || !(path.startsWith("/api/products/") || path.startsWith("/api/discounts/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = key(path, request.getParameterMap());
+        // citita inainte de calcul: un rezultat calculat acum e cel putin la zi cu datele astea
+        long fingerprint = dataLoader.getDataFingerprint();
+        String etag = "\"" + Long.toHexString(fingerprint) + "-" + digest(key) + "\"";
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            return;
+        }
+
+        if (path.endsWith("/all") || path.endsWith("/all/stream")) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Entry cached = cache.get(key);
+        if (cached != null && cached.fingerprint() == fingerprint) {
+            write(response, cached, etag);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            wrapper.setHeader(HttpHeaders.ETAG, etag);
+            byte[] body = wrapper.getContentAsByteArray();
+            if (body.length <= maxEntryBytes) {
+                cache.put(key, new Entry(fingerprint, wrapper.getContentType(), body));
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void write(HttpServletResponse response, Entry entry, String etag) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (entry.contentType() != null) response.setContentType(entry.contentType());
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    private static String key(String path, Map<String, String[]> parameters) {
+        StringBuilder key = new StringBuilder(path);
+        for (Map.Entry<String, String[]> p : new TreeMap<>(parameters).entrySet()) {
+            for (String value : p.getValue()) {
+                // valoarea exacta primita de endpoint: parametrii nu sunt normalizati acolo
+                key.append('\u0000').append(p.getKey()).append('=').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    // SHA-256 peste cheie: doua chei diferite nu ajung practic la acelasi ETag
+    private static String digest(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            // "*" are sens doar pentru scrieri conditionate, nu pentru un GET
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private record Entry(long fingerprint, String contentType, byte[] body) {
+    }
+
+    // LRU limitat la numarul total de octeti din raspunsurile pastrate
+    private static final class LruCache {
+        private final long maxBytes;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        LruCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized Entry get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) bytes -= previous.body().length;
+            bytes += entry.body().length;
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.accesa.pricecomparator.controller;
 
+import com.accesa.pricecomparator.dto.StatsGranularity;
+import com.accesa.pricecomparator.model.PriceAggregate;
 import com.accesa.pricecomparator.service.StatsService;
+import com.accesa.pricecomparator.util.DateUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import java.time.LocalDate;
@@ -44,4 +51,25 @@ public class StatsController {
     }
 
 
+    @Operation(summary = "Price count, average, min and max per day, ISO week or month, for a store and/or category or across all of them")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Roll-up computed"),
+            @ApiResponse(responseCode = "400", description = "from is after to")
+    })
+    @GetMapping("/rollup")
+    public Map<String, PriceAggregate> getRollup(@RequestParam(required = false) String store,
+                                                 @RequestParam(required = false) String category,
+                                                 @RequestParam(defaultValue = "DAY") StatsGranularity granularity,
+                                                 @RequestParam(required = false) String from,
+                                                 @RequestParam(required = false) String to) {
+        log.info("Get {} price roll-up for store {} and category {}", granularity, store, category);
+        LocalDate fromDate = from == null ? null : DateUtils.parse(from);
+        LocalDate toDate = to == null ? null : DateUtils.parse(to);
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        return statsService.getRollup(store, category, granularity, fromDate, toDate);
+    }
+
+
 }
@@ -0,0 +1,10 @@
+package com.accesa.pricecomparator.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BasketBatchRequest {
+    private List<BasketRequest> baskets;
+}
@@ -0,0 +1,13 @@
+package com.accesa.pricecomparator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BasketBatchResponse {
+    private List<BasketBatchResult> results;
+    private long elapsedMillis;
+}
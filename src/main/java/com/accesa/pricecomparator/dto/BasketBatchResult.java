@@ -0,0 +1,14 @@
+package com.accesa.pricecomparator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BasketBatchResult {
+    private int index;
+    // null daca cererea nu a putut fi evaluata; motivul e in error
+    private BasketResponse basket;
+    private String error;
+    private long elapsedMicros;
+}
@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -8,7 +9,10 @@ import lombok.Data;
 public class BasketInvoiceItem {
     private String productName;
     private String store;
-    private double originalPrice;
-    private double finalPrice;
-    private double savings;
+    @Cents
+    private long originalPrice;
+    @Cents
+    private long finalPrice;
+    @Cents
+    private long savings;
 }
@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -9,6 +10,8 @@ import java.util.List;
 @AllArgsConstructor
 public class BasketInvoiceResponse {
     private List<BasketInvoiceItem> items;
-    private double total;
-    private double totalSavings;
+    @Cents
+    private long total;
+    @Cents
+    private long totalSavings;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -8,5 +9,6 @@ import lombok.Data;
 public class BasketItemResponse {
     private String productName;
     private String store;
-    private double finalPrice;
+    @Cents
+    private long finalPrice;
 }
@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -9,7 +10,8 @@ import java.util.List;
 @AllArgsConstructor
 public class BasketResponse {
     private List<BasketItemResponse> items;
-    private double totalPrice;
+    @Cents
+    private long totalPrice;
     private List<SuggestedSubstitution> suggestions;
 
 }
@@ -0,0 +1,11 @@
+package com.accesa.pricecomparator.dto;
+
+/**
+ * What a budget basket maximizes first; the other measure breaks ties, then the lower total.
+ */
+public enum BudgetObjective {
+    // cat mai multe produse
+    ITEM_COUNT,
+    // cat mai multe categorii din cerere acoperite
+    CATEGORY_COVERAGE
+}
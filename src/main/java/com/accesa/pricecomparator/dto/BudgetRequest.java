@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.Data;
 
 import java.time.LocalDate;
@@ -7,7 +8,10 @@ import java.util.List;
 
 @Data
 public class BudgetRequest {
-    private double maxBudget;
+    @Cents
+    private long maxBudget;
     private List<String> categories;
     private LocalDate date;
+    // implicit ITEM_COUNT
+    private BudgetObjective objective;
 }
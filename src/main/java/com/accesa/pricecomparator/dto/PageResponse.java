@@ -0,0 +1,14 @@
+package com.accesa.pricecomparator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items;
+    // cursorul paginii urmatoare; null pe ultima pagina
+    private String nextCursor;
+}
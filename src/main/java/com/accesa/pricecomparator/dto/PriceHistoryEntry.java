@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -10,6 +11,8 @@ import java.time.LocalDate;
 public class PriceHistoryEntry {
     private LocalDate date;
     private String store;
-    private double originalPrice;
-    private double finalPrice;
+    @Cents
+    private long originalPrice;
+    @Cents
+    private long finalPrice;
 }
@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -7,11 +8,13 @@ import lombok.Data;
 @AllArgsConstructor
 public class ProductComparisonResult {
     private String product1;
-    private double price1;
+    @Cents
+    private long price1;
     private double pricePerUnit1;
 
     private String product2;
-    private double price2;
+    @Cents
+    private long price2;
     private double pricePerUnit2;
 
     private String cheaper;
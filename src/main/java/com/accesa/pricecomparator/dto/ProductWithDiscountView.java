@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -8,6 +9,8 @@ import lombok.Data;
 public class ProductWithDiscountView {
     private String productName;
     private String store;
-    private double originalPrice;
-    private double finalPrice;
+    @Cents
+    private long originalPrice;
+    @Cents
+    private long finalPrice;
 }
@@ -0,0 +1,11 @@
+package com.accesa.pricecomparator.dto;
+
+/**
+ * Period a stats roll-up groups the daily aggregates by; the period keys are {@code 2025-05-08},
+ * {@code 2025-W19} (ISO week) and {@code 2025-05}.
+ */
+public enum StatsGranularity {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,16 @@
+package com.accesa.pricecomparator.dto;
+
+import com.accesa.pricecomparator.model.Cents;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StoreLimitedBasketRequest {
+    private List<String> productNames;
+    private String date;
+    private int maxStores;
+    // costul fix al unei vizite intr-un magazin (drum, timp), adunat la total pentru fiecare magazin ales
+    @Cents
+    private long storeVisitCost;
+}
@@ -0,0 +1,24 @@
+package com.accesa.pricecomparator.dto;
+
+import com.accesa.pricecomparator.model.Cents;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StoreLimitedBasketResponse {
+    private List<String> stores;
+    private List<BasketItemResponse> items;
+    @Cents
+    private long itemsTotal;
+    @Cents
+    private long visitCost;
+    @Cents
+    private long totalPrice;
+    // false daca bugetul de timp s-a terminat inainte de a demonstra ca solutia e optima
+    private boolean optimal;
+    private long exploredNodes;
+    private long elapsedMicros;
+}
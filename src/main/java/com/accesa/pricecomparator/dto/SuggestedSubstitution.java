@@ -1,5 +1,6 @@
 package com.accesa.pricecomparator.dto;
 
+import com.accesa.pricecomparator.model.Cents;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -11,7 +12,10 @@ public class SuggestedSubstitution {
     private String suggestedProductName;
     private String suggestedBrand;
     private String store;
-    private double originalFinalPrice;
-    private double suggestedFinalPrice;
-    private double savings;
+    @Cents
+    private long originalFinalPrice;
+    @Cents
+    private long suggestedFinalPrice;
+    @Cents
+    private long savings;
 }
@@ -0,0 +1,20 @@
+package com.accesa.pricecomparator.dto;
+
+import com.accesa.pricecomparator.model.Cents;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class TriggeredAlert {
+    private LocalDate date;
+    private String productName;
+    @Cents
+    private long targetPrice;
+    private String userEmail;
+    // pretul final minim al produsului in ziua respectiva, care a declansat alerta
+    @Cents
+    private long lowestPrice;
+}
@@ -0,0 +1,24 @@
+package com.accesa.pricecomparator.model;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code long} amount in cents that is a decimal number in currency units in JSON
+ * (see {@link Money}).
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = Money.JsonSerializer.class)
+@JsonDeserialize(using = Money.JsonDeserializer.class)
+@Schema(type = "number", format = "double")
+public @interface Cents {
+}
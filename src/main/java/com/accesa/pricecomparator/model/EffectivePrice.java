@@ -0,0 +1,35 @@
+package com.accesa.pricecomparator.model;
+
+import lombok.Value;
+
+/**
+ * One offer: a product row and its price on one date with the active discount applied. The
+ * ranking and filtering code works on these, which share the row instead of copying it; a
+ * {@link Product} carrying the final price is only built, by {@link #toDiscountedProduct}, for the
+ * rows that end up in a response.
+ */
+@Value
+public class EffectivePrice {
+    Product product;
+    // in bani, vezi Money
+    long basePrice;
+    int discountPercentage;
+    long finalPrice;
+
+    public double getFinalPricePerUnit() {
+        return Money.perUnit(finalPrice, product.getPackageQuantity());
+    }
+
+    public boolean isDiscounted() {
+        return discountPercentage > 0;
+    }
+
+    // copie a produsului cu pretul final, doar pentru randurile care ajung in raspuns
+    public Product toDiscountedProduct() {
+        return new Product(
+                product.getProductId(), product.getProductName(), product.getProductCategory(),
+                product.getBrand(), product.getPackageQuantity(), product.getPackageUnit(),
+                finalPrice, product.getCurrency(), product.getDate(), product.getStore()
+        );
+    }
+}
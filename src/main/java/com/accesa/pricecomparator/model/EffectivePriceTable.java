@@ -0,0 +1,186 @@
+package com.accesa.pricecomparator.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of every product row of one date with its active discount already applied.
+ * Rows are indexed by {@link Symbol}, so looking up a name that was ingested costs one identity hit
+ * in the {@link SymbolTable} and no case folding.
+ */
+public class EffectivePriceTable {
+    private final LocalDate date;
+    private final List<EffectivePrice> rows;
+    private final List<List<EffectivePrice>> storeRows;
+    private final SymbolTable symbols;
+    private final Map<Symbol, List<EffectivePrice>> byName;
+    private final Map<Symbol, EffectivePrice> cheapestByName;
+    // construit la prima cerere; doua thread-uri il pot calcula in paralel, dar rezultatul e acelasi
+    private volatile Map<CategoryUnit, Candidates> byCategoryAndUnit;
+
+    public EffectivePriceTable(LocalDate date, List<EffectivePrice> rows, SymbolTable symbols) {
+        this(date, List.of(StorePartition.of(rows, symbols)), symbols);
+    }
+
+    /**
+     * Merges the partitions of the stores, built independently, in the given order: the table
+     * rows are their concatenation, and on a tie for the cheapest offer the earlier partition wins,
+     * exactly as if the table had been built from the concatenated rows.
+     */
+    public EffectivePriceTable(LocalDate date, Collection<StorePartition> partitions, SymbolTable symbols) {
+        this.date = date;
+        this.symbols = symbols;
+
+        List<EffectivePrice> allRows = new ArrayList<>();
+        List<List<EffectivePrice>> storeRows = new ArrayList<>(partitions.size());
+        Map<Symbol, List<EffectivePrice>> names = new HashMap<>();
+        Map<Symbol, EffectivePrice> cheapest = new HashMap<>();
+        for (StorePartition partition : partitions) {
+            allRows.addAll(partition.rows());
+            storeRows.add(partition.rows());
+            partition.byName().forEach((name, offers) ->
+                    names.computeIfAbsent(name, n -> new ArrayList<>()).addAll(offers));
+            partition.cheapestByName().forEach((name, offer) -> cheapest.merge(name, offer,
+                    (current, candidate) -> candidate.getFinalPrice() < current.getFinalPrice() ? candidate : current));
+        }
+
+        this.rows = List.copyOf(allRows);
+        this.storeRows = List.copyOf(storeRows);
+        Map<Symbol, List<EffectivePrice>> byName = new HashMap<>();
+        names.forEach((name, offers) -> byName.put(name, List.copyOf(offers)));
+        this.byName = Map.copyOf(byName);
+        this.cheapestByName = Map.copyOf(cheapest);
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public List<EffectivePrice> getRows() {
+        return rows;
+    }
+
+    /**
+     * The rows again, one list per store partition, in table order.
+     */
+    public List<List<EffectivePrice>> getStoreRows() {
+        return storeRows;
+    }
+
+    /**
+     * Rows grouped by product name, one entry per distinct product.
+     */
+    public Map<Symbol, List<EffectivePrice>> getRowsByName() {
+        return byName;
+    }
+
+    public List<EffectivePrice> findByName(String productName) {
+        Symbol key = symbols.find(productName);
+        return key == null ? List.of() : byName.getOrDefault(key, List.of());
+    }
+
+    /**
+     * The offer with the lowest final price for a product name (the first one in table order on a
+     * tie), or {@code null} when the product has no offer on this date. Precomputed, so a lookup
+     * allocates nothing.
+     */
+    public EffectivePrice findCheapest(String productName) {
+        Symbol key = symbols.find(productName);
+        return key == null ? null : cheapestByName.get(key);
+    }
+
+    /**
+     * Rows of one category and package unit (both ignoring case), cheapest final price per unit
+     * first. Rows with the same price per unit keep their table order. This is the candidate list
+     * for substitutions, built once per table.
+     */
+    public List<EffectivePrice> findByCategoryAndUnit(String category, String packageUnit) {
+        return candidates(category, packageUnit).rows();
+    }
+
+    /**
+     * Rows of one category and package unit whose final price per unit is within
+     * {@code tolerance} (relative) of {@code pricePerUnit}, in table order. The matches are a
+     * contiguous run of {@link #findByCategoryAndUnit}, so only that run is put back in order.
+     */
+    public List<EffectivePrice> findByCategoryAndUnitNear(String category, String packageUnit,
+                                                          double pricePerUnit, double tolerance) {
+        Candidates candidates = candidates(category, packageUnit);
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < candidates.rows().size(); i++) {
+            double distance = (candidates.rows().get(i).getFinalPricePerUnit() - pricePerUnit) / pricePerUnit;
+            if (distance > tolerance) break;
+            if (distance >= -tolerance) positions.add(candidates.positions()[i]);
+        }
+        positions.sort(null);
+        return positions.stream().map(rows::get).toList();
+    }
+
+    private Candidates candidates(String category, String packageUnit) {
+        Map<CategoryUnit, Candidates> index = byCategoryAndUnit;
+        if (index == null) {
+            // pozitiile randurilor, sortate stabil dupa pretul per unitate
+            Integer[] order = new Integer[rows.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingDouble(i -> rows.get(i).getFinalPricePerUnit()));
+
+            Map<CategoryUnit, List<Integer>> groups = new HashMap<>();
+            for (int position : order) {
+                Product p = rows.get(position).getProduct();
+                groups.computeIfAbsent(new CategoryUnit(symbols.find(p.getProductCategory()), symbols.find(p.getPackageUnit())),
+                        k -> new ArrayList<>()).add(position);
+            }
+            Map<CategoryUnit, Candidates> built = new HashMap<>();
+            groups.forEach((key, positions) -> built.put(key, new Candidates(
+                    positions.stream().map(rows::get).toList(),
+                    positions.stream().mapToInt(Integer::intValue).toArray())));
+            index = Map.copyOf(built);
+            byCategoryAndUnit = index;
+        }
+        Symbol categoryKey = symbols.find(category);
+        Symbol unitKey = symbols.find(packageUnit);
+        if (categoryKey == null || unitKey == null) return Candidates.EMPTY;
+        return index.getOrDefault(new CategoryUnit(categoryKey, unitKey), Candidates.EMPTY);
+    }
+
+    private static EffectivePrice cheapestOf(List<EffectivePrice> offers) {
+        EffectivePrice cheapest = offers.get(0);
+        for (EffectivePrice offer : offers) {
+            if (offer.getFinalPrice() < cheapest.getFinalPrice()) cheapest = offer;
+        }
+        return cheapest;
+    }
+
+    /**
+     * The rows of one store with their per-name index and cheapest offer per name, built on its
+     * own so the stores of a date can be priced in parallel.
+     */
+    public record StorePartition(List<EffectivePrice> rows,
+                                 Map<Symbol, List<EffectivePrice>> byName,
+                                 Map<Symbol, EffectivePrice> cheapestByName) {
+
+        public static StorePartition of(List<EffectivePrice> rows, SymbolTable symbols) {
+            Map<Symbol, List<EffectivePrice>> byName = new HashMap<>();
+            for (EffectivePrice r : rows) {
+                byName.computeIfAbsent(symbols.find(r.getProduct().getProductName()), n -> new ArrayList<>()).add(r);
+            }
+            Map<Symbol, EffectivePrice> cheapest = new HashMap<>();
+            byName.forEach((name, offers) -> cheapest.put(name, cheapestOf(offers)));
+            return new StorePartition(rows, byName, cheapest);
+        }
+    }
+
+    private record CategoryUnit(Symbol category, Symbol packageUnit) {
+    }
+
+    // randurile unei categorii si unitati, sortate dupa pretul per unitate, cu pozitia fiecaruia in tabel
+    private record Candidates(List<EffectivePrice> rows, int[] positions) {
+        static final Candidates EMPTY = new Candidates(List.of(), new int[0]);
+    }
+}
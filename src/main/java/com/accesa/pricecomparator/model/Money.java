@@ -0,0 +1,116 @@
+package com.accesa.pricecomparator.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amounts are {@code long} counts of cents (bani) everywhere in the application, so sums and
+ * comparisons are exact integer arithmetic. This class converts to and from that representation
+ * and is the only place that rounds: amounts with more than two decimals and discounted prices
+ * are rounded half up to the cent.
+ * <p>
+ * In JSON an amount is still a plain decimal number ({@code 7.2}); fields opt in with {@link Cents}.
+ */
+public final class Money {
+
+    public static final long CENTS_PER_UNIT = 100;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private Money() {
+    }
+
+    /**
+     * The amount {@code unscaled * 10^-scale} in cents, e.g. {@code ofScaled(1299, 2) == 1299}
+     * and {@code ofScaled(72, 1) == 720}.
+     */
+    public static long ofScaled(long unscaled, int scale) {
+        if (scale > 2) {
+            return divideHalfUp(unscaled, POWERS_OF_TEN[scale - 2]);
+        }
+        if (2 - scale >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("Amount out of range");
+        }
+        return Math.multiplyExact(unscaled, POWERS_OF_TEN[2 - scale]);
+    }
+
+    public static long of(BigDecimal amount) {
+        // zecimalele de dupa a treia nu schimba rotunjirea la jumatate in sus (floor(floor(x) + n) = floor(x + n))
+        BigDecimal truncated = amount.scale() > 3 ? amount.setScale(3, RoundingMode.FLOOR) : amount;
+        return ofScaled(truncated.unscaledValue().longValueExact(), truncated.scale());
+    }
+
+    /**
+     * The price after taking {@code percentage}% off, rounded half up to the cent.
+     */
+    public static long discounted(long cents, int percentage) {
+        if (percentage == 0) return cents;
+        return divideHalfUp(cents * (100 - percentage), 100);
+    }
+
+    public static double toDouble(long cents) {
+        return (double) cents / CENTS_PER_UNIT;
+    }
+
+    /** Price per package unit, in currency units (not cents). */
+    public static double perUnit(long cents, double packageQuantity) {
+        return toDouble(cents) / packageQuantity;
+    }
+
+    // singurul loc in care se rotunjeste: la jumatate in sus
+    private static long divideHalfUp(long dividend, long divisor) {
+        return Math.floorDiv(dividend + divisor / 2, divisor);
+    }
+
+    /**
+     * Writes cents as a decimal number in currency units.
+     */
+    public static final class JsonSerializer extends StdScalarSerializer<Long> {
+        public JsonSerializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long cents, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(toDouble(cents));
+        }
+    }
+
+    /**
+     * Reads a decimal number (or numeric string) in currency units as cents.
+     */
+    public static final class JsonDeserializer extends StdScalarDeserializer<Long> {
+        public JsonDeserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_NUMBER_INT) || p.hasToken(JsonToken.VALUE_NUMBER_FLOAT)) {
+                return of(p.getDecimalValue());
+            }
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                String text = p.getText().trim();
+                try {
+                    return of(new BigDecimal(text));
+                } catch (NumberFormatException | ArithmeticException e) {
+                    return (Long) ctxt.handleWeirdStringValue(Long.class, text, "not a money amount");
+                }
+            }
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.accesa.pricecomparator.model;
+
+/**
+ * Immutable count, sum, min and max of a set of prices in cents. The sum is exact, so aggregates
+ * can be combined in any order and still give the same average.
+ */
+public final class PriceAggregate {
+
+    public static final PriceAggregate EMPTY = new PriceAggregate(0, 0, Long.MAX_VALUE, Long.MIN_VALUE);
+
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    private PriceAggregate(long count, long sum, long min, long max) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    // pentru agregatele calculate in afara (de exemplu in SQL)
+    public static PriceAggregate of(long count, long sum, long min, long max) {
+        return count == 0 ? EMPTY : new PriceAggregate(count, sum, min, max);
+    }
+
+    public PriceAggregate plus(long price) {
+        return new PriceAggregate(count + 1, sum + price, Math.min(min, price), Math.max(max, price));
+    }
+
+    public PriceAggregate plus(PriceAggregate other) {
+        if (other.count == 0) return this;
+        if (count == 0) return other;
+        return new PriceAggregate(count + other.count, sum + other.sum,
+                Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // media nu e o suma de bani, deci ramane cu zecimale
+    public double getAverage() {
+        return count == 0 ? 0 : (double) sum / count / Money.CENTS_PER_UNIT;
+    }
+
+    @Cents
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    @Cents
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class PriceAlert {
     private String productName;
-    private double targetPrice;
+    @Cents
+    private long targetPrice;
     private String userEmail;
 }
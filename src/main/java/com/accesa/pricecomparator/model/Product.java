@@ -16,7 +16,8 @@ public class Product {
     private String brand;
     private double packageQuantity;
     private String packageUnit;
-    private double price;
+    @Cents
+    private long price;
     private String currency;
     private LocalDate date;
     private String store;
@@ -0,0 +1,59 @@
+package com.accesa.pricecomparator.model;
+
+import com.accesa.pricecomparator.util.TextNormalizer;
+
+/**
+ * Canonical form of a product name, store, category, brand or unit: every spelling that
+ * normalizes to the same key ({@link TextNormalizer#normalize}) maps to the same instance in its
+ * {@link SymbolTable}. Symbols therefore compare by identity and hash by their dense id, and can be
+ * used as map keys without any case folding.
+ */
+public final class Symbol implements Comparable<Symbol> {
+    private final int id;
+    private final String key;
+    private final String folded;
+    private final int foldedId;
+
+    Symbol(int id, String key, String folded, int foldedId) {
+        this.id = id;
+        this.key = key;
+        this.folded = folded;
+        this.foldedId = foldedId;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    /** The normalized (lowercase) form. */
+    public String key() {
+        return key;
+    }
+
+    /** The normalized form without diacritics ({@link TextNormalizer#fold}). */
+    public String folded() {
+        return folded;
+    }
+
+    /** Shared by all symbols whose folded forms are equal, e.g. "brânză" and "branza". */
+    public int foldedId() {
+        return foldedId;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    // equals ramane cel din Object: o singura instanta pe cheie
+
+    @Override
+    public int compareTo(Symbol other) {
+        return key.compareTo(other.key);
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
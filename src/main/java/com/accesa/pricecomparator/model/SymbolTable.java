@@ -0,0 +1,99 @@
+package com.accesa.pricecomparator.model;
+
+import com.accesa.pricecomparator.util.TextNormalizer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the names, stores, categories, brands and units of the ingested rows into
+ * {@link Symbol}s with dense int ids, in the order they are first seen.
+ * <p>
+ * Every distinct spelling is remembered with its symbol, and rows are rewritten on the way into the
+ * repositories ({@link #canonicalize}) to use one String instance per spelling. Looking up a row's
+ * own field is then a hash lookup whose {@code equals} succeeds on identity, with no case folding;
+ * only a spelling never ingested (typically user input) is normalized, and it is not remembered.
+ * <p>
+ * The table only grows: every interned spelling is kept for the life of the application. So only
+ * ingestion interns ({@link #intern}, {@link #canonical}, {@link #canonicalize}, on the rows being
+ * loaded); request paths, and anything else that handles user supplied text such as alert or
+ * subscription names, resolve with {@link #find} and treat {@code null} as "not in the data".
+ */
+@Component
+public class SymbolTable {
+
+    private final Map<String, Spelling> spellings = new ConcurrentHashMap<>();
+    private final Map<String, Symbol> byKey = new ConcurrentHashMap<>();
+    // protejate de monitorul tabelei
+    private final Map<String, Integer> foldedIds = new HashMap<>();
+    private int size;
+
+    /**
+     * The symbol of a value, created if needed; {@code null} for {@code null}. For ingestion only.
+     */
+    public Symbol intern(String value) {
+        if (value == null) return null;
+        Spelling spelling = spellings.get(value);
+        return spelling != null ? spelling.symbol() : add(value).symbol();
+    }
+
+    /**
+     * The symbol of a value, or {@code null} if no spelling of it was ever interned.
+     */
+    public Symbol find(String value) {
+        if (value == null) return null;
+        Spelling spelling = spellings.get(value);
+        return spelling != null ? spelling.symbol() : byKey.get(TextNormalizer.normalize(value));
+    }
+
+    /**
+     * The shared instance of this exact spelling, interning it if needed. For ingestion only.
+     */
+    public String canonical(String value) {
+        if (value == null) return null;
+        Spelling spelling = spellings.get(value);
+        return spelling != null ? spelling.text() : add(value).text();
+    }
+
+    public void canonicalize(Product p) {
+        p.setProductName(canonical(p.getProductName()));
+        p.setProductCategory(canonical(p.getProductCategory()));
+        p.setBrand(canonical(p.getBrand()));
+        p.setPackageUnit(canonical(p.getPackageUnit()));
+        p.setStore(canonical(p.getStore()));
+    }
+
+    public void canonicalize(Discount d) {
+        d.setProductName(canonical(d.getProductName()));
+        d.setProductCategory(canonical(d.getProductCategory()));
+        d.setBrand(canonical(d.getBrand()));
+        d.setPackageUnit(canonical(d.getPackageUnit()));
+        d.setStore(canonical(d.getStore()));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized Spelling add(String value) {
+        Spelling existing = spellings.get(value);
+        if (existing != null) return existing;
+
+        String key = TextNormalizer.normalize(value);
+        Symbol symbol = byKey.get(key);
+        if (symbol == null) {
+            String folded = TextNormalizer.fold(key);
+            int foldedId = foldedIds.computeIfAbsent(folded, f -> foldedIds.size());
+            symbol = new Symbol(size++, key, folded, foldedId);
+            byKey.put(key, symbol);
+        }
+        Spelling spelling = new Spelling(value, symbol);
+        spellings.put(value, spelling);
+        return spelling;
+    }
+
+    private record Spelling(String text, Symbol symbol) {
+    }
+}
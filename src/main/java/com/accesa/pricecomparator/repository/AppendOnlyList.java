@@ -0,0 +1,65 @@
+package com.accesa.pricecomparator.repository;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list that grows at the end without copying: versions share one backing array and each
+ * sees it through its own length. {@link #append} writes past the end of the newest version and
+ * returns a longer one, so readers holding an older version never see the new elements; the array
+ * is only copied (to twice the size) when it is full, or when appending to a version that is no
+ * longer the newest.
+ * <p>
+ * Appends must not run concurrently. The new elements are visible to other threads once the new
+ * version is published through a volatile write, as the repository snapshots are.
+ */
+final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final AppendOnlyList<?> EMPTY = new AppendOnlyList<>(new Object[0], 0, new int[1]);
+
+    private final Object[] elements;
+    private final int size;
+    // written[0]: cate elemente din tablou au fost scrise de cea mai noua versiune
+    private final int[] written;
+
+    private AppendOnlyList(Object[] elements, int size, int[] written) {
+        this.elements = elements;
+        this.size = size;
+        this.written = written;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> AppendOnlyList<E> empty() {
+        return (AppendOnlyList<E>) EMPTY;
+    }
+
+    AppendOnlyList<E> append(Collection<? extends E> added) {
+        if (added.isEmpty()) return this;
+        int nextSize = size + added.size();
+
+        Object[] target = elements;
+        int[] nextWritten = written;
+        if (written[0] != size || nextSize > elements.length) {
+            target = new Object[Math.max(8, nextSize * 2)];
+            System.arraycopy(elements, 0, target, 0, size);
+            nextWritten = new int[1];
+        }
+        int i = size;
+        for (E e : added) target[i++] = e;
+        nextWritten[0] = nextSize;
+        return new AppendOnlyList<>(target, nextSize, nextWritten);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,285 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary image of the loaded products and discounts, so a restart does not have to
+ * parse every CSV again.
+ * <p>
+ * Layout (big endian): magic, format version, the string dictionary (every distinct string once,
+ * UTF-8 with a length prefix), the CSV files the image covers with their size and modification
+ * time, then the product and the discount rows as fixed-width columns of dictionary codes,
+ * quantities, prices in cents and epoch days. A CRC32C of everything before it closes the file.
+ * The file is memory-mapped when read, so it is limited to {@link #MAX_SIZE} bytes, and rejected as
+ * a whole if the magic, version or checksum do not match or a count does not fit the bytes left.
+ */
+public final class BinarySnapshot {
+
+    private static final int MAGIC = 0x50435342; // "PCSB"
+    private static final int VERSION = 2;
+    /** The largest snapshot that fits one mapped buffer. */
+    public static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    // octetii ocupati de un rand al fiecarei sectiuni, pentru validarea numerelor citite
+    private static final int FILE_BYTES = Integer.BYTES + 2 * Long.BYTES;
+    private static final int PRODUCT_BYTES = 7 * Integer.BYTES + Double.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int DISCOUNT_BYTES = 6 * Integer.BYTES + Double.BYTES + 3 * Integer.BYTES;
+
+    /** A CSV file whose rows are part of the snapshot. */
+    public record SourceFile(String name, long size, long lastModified) {
+    }
+
+    private final List<SourceFile> files;
+    private final List<Product> products;
+    private final List<Discount> discounts;
+
+    public BinarySnapshot(List<SourceFile> files, List<Product> products, List<Discount> discounts) {
+        this.files = files;
+        this.products = products;
+        this.discounts = discounts;
+    }
+
+    public List<SourceFile> getFiles() {
+        return files;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public List<Discount> getDiscounts() {
+        return discounts;
+    }
+
+    /**
+     * Writes the snapshot next to {@code target} and moves it into place, so a crash while writing
+     * never leaves a truncated snapshot behind.
+     *
+     * @throws IOException also when the snapshot would exceed {@link #MAX_SIZE}; {@code target} is then left as it was
+     */
+    public void write(Path target) throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        int[][] productCodes = new int[products.size()][];
+        for (int i = 0; i < products.size(); i++) {
+            Product p = products.get(i);
+            productCodes[i] = new int[]{
+                    dictionary.encode(p.getProductId()),
+                    dictionary.encode(p.getProductName()),
+                    dictionary.encode(p.getProductCategory()),
+                    dictionary.encode(p.getBrand()),
+                    dictionary.encode(p.getPackageUnit()),
+                    dictionary.encode(p.getCurrency()),
+                    dictionary.encode(p.getStore())
+            };
+        }
+        int[][] discountCodes = new int[discounts.size()][];
+        for (int i = 0; i < discounts.size(); i++) {
+            Discount d = discounts.get(i);
+            discountCodes[i] = new int[]{
+                    dictionary.encode(d.getProductId()),
+                    dictionary.encode(d.getProductName()),
+                    dictionary.encode(d.getBrand()),
+                    dictionary.encode(d.getPackageUnit()),
+                    dictionary.encode(d.getProductCategory()),
+                    dictionary.encode(d.getStore())
+            };
+        }
+        int[] fileNames = new int[files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            fileNames[i] = dictionary.encode(files.get(i).name());
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            CRC32C crc = new CRC32C();
+            try (OutputStream file = Files.newOutputStream(temp)) {
+                DataOutputStream out = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+
+                out.writeInt(dictionary.size());
+                for (int i = 0; i < dictionary.size(); i++) {
+                    byte[] bytes = dictionary.decode(i).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                out.writeInt(files.size());
+                for (int i = 0; i < files.size(); i++) {
+                    out.writeInt(fileNames[i]);
+                    out.writeLong(files.get(i).size());
+                    out.writeLong(files.get(i).lastModified());
+                }
+
+                out.writeInt(products.size());
+                for (int column = 0; column < 7; column++) {
+                    for (int[] codes : productCodes) out.writeInt(codes[column]);
+                }
+                for (Product p : products) out.writeDouble(p.getPackageQuantity());
+                for (Product p : products) out.writeLong(p.getPrice());
+                for (Product p : products) out.writeInt((int) p.getDate().toEpochDay());
+
+                out.writeInt(discounts.size());
+                for (int column = 0; column < 6; column++) {
+                    for (int[] codes : discountCodes) out.writeInt(codes[column]);
+                }
+                for (Discount d : discounts) out.writeDouble(d.getPackageQuantity());
+                for (Discount d : discounts) out.writeInt((int) d.getFromDate().toEpochDay());
+                for (Discount d : discounts) out.writeInt((int) d.getToDate().toEpochDay());
+                for (Discount d : discounts) out.writeInt(d.getPercentageOfDiscount());
+
+                // checksum-ul nu se include in el insusi
+                out.flush();
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            if (Files.size(temp) > MAX_SIZE) {
+                throw new IOException("Snapshot of " + Files.size(temp) + " bytes exceeds the " + MAX_SIZE + " byte limit");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps and decodes a snapshot.
+     *
+     * @throws IOException if the file cannot be read, is larger than {@link #MAX_SIZE} or is not a
+     *                     valid snapshot of this version
+     */
+    public static BinarySnapshot read(Path source) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_SIZE) {
+                throw new IOException("Snapshot of " + channel.size() + " bytes exceeds the " + MAX_SIZE + " byte limit: " + source);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int bodyLength = buffer.limit() - Long.BYTES;
+        if (bodyLength < 2 * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a snapshot file: " + source);
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(Integer.BYTES) + " in " + source);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, bodyLength));
+        if (crc.getValue() != buffer.getLong(bodyLength)) {
+            throw new IOException("Snapshot checksum mismatch: " + source);
+        }
+
+        try {
+            return decode(buffer.slice(2 * Integer.BYTES, bodyLength - 2 * Integer.BYTES));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot: " + source, e);
+        }
+    }
+
+    private static BinarySnapshot decode(ByteBuffer in) {
+        String[] strings = new String[count(in, Integer.BYTES)];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = count(in, 1);
+            if (length > scratch.length) scratch = new byte[length];
+            in.get(scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int fileCount = count(in, FILE_BYTES);
+        List<SourceFile> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            files.add(new SourceFile(string(strings, in.getInt()), in.getLong(), in.getLong()));
+        }
+
+        // coloanele au latime fixa, deci fiecare valoare se citeste direct de la offset-ul ei
+        int n = count(in, PRODUCT_BYTES);
+        int base = in.position();
+        int quantities = base + 7 * n * Integer.BYTES;
+        int prices = quantities + n * Double.BYTES;
+        int epochDays = prices + n * Long.BYTES;
+        List<Product> products = new ArrayList<>(n);
+        for (int row = 0; row < n; row++) {
+            products.add(new Product(
+                    code(strings, in, base, 0, n, row),
+                    code(strings, in, base, 1, n, row),
+                    code(strings, in, base, 2, n, row),
+                    code(strings, in, base, 3, n, row),
+                    in.getDouble(quantities + row * Double.BYTES),
+                    code(strings, in, base, 4, n, row),
+                    in.getLong(prices + row * Long.BYTES),
+                    code(strings, in, base, 5, n, row),
+                    LocalDate.ofEpochDay(in.getInt(epochDays + row * Integer.BYTES)),
+                    code(strings, in, base, 6, n, row)
+            ));
+        }
+        in.position(epochDays + n * Integer.BYTES);
+
+        int m = count(in, DISCOUNT_BYTES);
+        base = in.position();
+        quantities = base + 6 * m * Integer.BYTES;
+        int fromDays = quantities + m * Double.BYTES;
+        int toDays = fromDays + m * Integer.BYTES;
+        int percentages = toDays + m * Integer.BYTES;
+        List<Discount> discounts = new ArrayList<>(m);
+        for (int row = 0; row < m; row++) {
+            discounts.add(new Discount(
+                    code(strings, in, base, 0, m, row),
+                    code(strings, in, base, 1, m, row),
+                    code(strings, in, base, 2, m, row),
+                    in.getDouble(quantities + row * Double.BYTES),
+                    code(strings, in, base, 3, m, row),
+                    code(strings, in, base, 4, m, row),
+                    LocalDate.ofEpochDay(in.getInt(fromDays + row * Integer.BYTES)),
+                    LocalDate.ofEpochDay(in.getInt(toDays + row * Integer.BYTES)),
+                    in.getInt(percentages + row * Integer.BYTES),
+                    code(strings, in, base, 5, m, row)
+            ));
+        }
+        in.position(percentages + m * Integer.BYTES);
+        if (in.hasRemaining()) {
+            throw new IllegalStateException(in.remaining() + " trailing bytes");
+        }
+
+        return new BinarySnapshot(files, products, discounts);
+    }
+
+    // un numar de elemente care trebuie sa incapa in octetii ramasi; altfel alocarea sau offset-urile
+    // calculate din el ar depasi buffer-ul
+    private static int count(ByteBuffer in, int bytesPerItem) {
+        int count = in.getInt();
+        if (count < 0 || (long) count * bytesPerItem > in.remaining()) {
+            throw new IllegalStateException("count " + count + " does not fit the " + in.remaining() + " bytes left");
+        }
+        return count;
+    }
+
+    private static String code(String[] strings, ByteBuffer in, int base, int column, int rows, int row) {
+        return string(strings, in.getInt(base + (column * rows + row) * Integer.BYTES));
+    }
+
+    private static String string(String[] strings, int code) {
+        return code < 0 ? null : strings[code];
+    }
+}
@@ -0,0 +1,73 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Discount;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Discounts, appended one CSV file at a time, with a lookup of the discount active for a
+ * (product, store) pair on a date.
+ * <p>
+ * {@link DiscountRepositoryInMemory} is the default; {@link DiscountRepositoryJdbc} keeps the
+ * discounts in PostgreSQL under the {@code postgres} profile.
+ */
+public interface DiscountRepository {
+
+    /**
+     * Appends the discounts of one file. Called concurrently by the ingestion tasks, one file per
+     * call; {@code sourceFile} is used as in {@link ProductRepository#addProducts(String, List, String)}.
+     */
+    void addDiscounts(String store, List<Discount> discounts, String sourceFile);
+
+    default void addDiscounts(String store, List<Discount> discounts) {
+        addDiscounts(store, discounts, null);
+    }
+
+    List<Discount> getAll();
+
+    /**
+     * Reads up to {@code limit} discounts into {@code out}, in (store, load order) order, starting
+     * at {@code from}. Discounts are only ever appended to a store's list, so a position keeps
+     * pointing at the same discount as later files are loaded.
+     *
+     * @return the position of the next discount, or {@code null} when there are no more
+     */
+    RowPosition readPage(RowPosition from, int limit, List<Discount> out);
+
+    /**
+     * Every discount, lazily, in the same order as {@link #readPage}.
+     */
+    Iterator<Discount> iterator();
+
+    long getCount();
+
+    // perechi (produs, magazin) cu cel putin o reducere
+    int getIndexSize();
+
+    List<Discount> getByStore(String store);
+
+    /**
+     * Returns the discount active for the given product and store on the given date.
+     * If several discounts overlap on that date, the one that started most recently wins.
+     */
+    Optional<Discount> findActiveDiscount(String productName, String store, LocalDate date);
+
+    // intervalul [fromDate, toDate] contine data
+    List<Discount> getActiveOn(LocalDate date);
+
+    List<Discount> getActiveDiscounts();
+
+    List<Discount> getNewDiscounts(LocalDate date);
+
+    List<Discount> getExpiringOn(LocalDate date);
+
+    /**
+     * A discount of the (store, load order) sequence: the {@code offset}-th discount of that store.
+     */
+    record RowPosition(String store, int offset) {
+        public static final RowPosition START = new RowPosition("", 0);
+    }
+}
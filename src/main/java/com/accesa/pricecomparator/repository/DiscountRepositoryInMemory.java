@@ -1,39 +1,194 @@
 package com.accesa.pricecomparator.repository;
 
 import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.*;
 
+/**
+ * Discounts per store plus the (product, store) interval index. Both live in one immutable
+ * snapshot behind a volatile reference, so a newly ingested file becomes visible all at once.
+ * Discounts are canonicalized through the {@link SymbolTable} on the way in and both indexes are
+ * keyed by {@link Symbol}.
+ * <p>
+ * A file costs the same to publish however many discounts are already loaded: the store lists are
+ * {@link AppendOnlyList}s and the interval index a {@link PersistentHashMap}, so only the lists of
+ * the file's store and the timelines of the pairs it touches are copied.
+ */
 @Repository
-public class DiscountRepositoryInMemory {
-    private final Map<String, List<Discount>> storeDiscounts = new HashMap<>();
+@Profile("!postgres")
+public class DiscountRepositoryInMemory implements DiscountRepository {
 
-    public void addDiscounts(String store, List<Discount> discounts) {
-        storeDiscounts.computeIfAbsent(store, k -> new ArrayList<>()).addAll(discounts);
+    private final SymbolTable symbols;
+    // filtrele pe data ruleaza pe magazine in paralel
+    private final StorePartitionExecutor partitionExecutor;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), PersistentHashMap.empty());
+
+    public DiscountRepositoryInMemory(SymbolTable symbols, StorePartitionExecutor partitionExecutor) {
+        this.symbols = symbols;
+        this.partitionExecutor = partitionExecutor;
+    }
+
+    // apelat concurent de task-urile de incarcare, cate un fisier pe apel
+    @Override
+    public synchronized void addDiscounts(String store, List<Discount> discounts, String sourceFile) {
+        Snapshot current = snapshot;
+        discounts.forEach(symbols::canonicalize);
+
+        Symbol storeKey = symbols.intern(store);
+        // harta are cate o intrare pe magazin; lista magazinului creste fara copiere
+        Map<Symbol, AppendOnlyList<Discount>> storeDiscounts = new HashMap<>(current.storeDiscounts());
+        storeDiscounts.put(storeKey, storeDiscounts.getOrDefault(storeKey, AppendOnlyList.empty()).append(discounts));
+
+        // index (produs, magazin) -> reducerile perechii, sortate dupa fromDate
+        Map<ProductStore, List<Discount>> added = new HashMap<>();
+        for (Discount d : discounts) {
+            ProductStore key = new ProductStore(symbols.intern(d.getProductName()), symbols.intern(d.getStore()));
+            added.computeIfAbsent(key, k -> new ArrayList<>()).add(d);
+        }
+        PersistentHashMap<ProductStore, DiscountTimeline> productStoreIndex = current.productStoreIndex();
+        for (Map.Entry<ProductStore, List<Discount>> e : added.entrySet()) {
+            productStoreIndex = productStoreIndex.merge(e.getKey(), new DiscountTimeline(e.getValue()), DiscountTimeline::merge);
+        }
+
+        snapshot = new Snapshot(storeDiscounts, productStoreIndex);
     }
 
+    @Override
     public List<Discount> getAll() {
-        return storeDiscounts.values().stream().flatMap(List::stream).toList();
+        return snapshot.storeDiscounts().values().stream().flatMap(List::stream).toList();
+    }
+
+    @Override
+    public RowPosition readPage(RowPosition from, int limit, List<Discount> out) {
+        Map<Symbol, AppendOnlyList<Discount>> storeDiscounts = snapshot.storeDiscounts();
+        for (Symbol store : new TreeSet<>(storeDiscounts.keySet())) {
+            if (store.key().compareTo(from.store()) < 0) continue;
+
+            List<Discount> rows = storeDiscounts.get(store);
+            int start = store.key().equals(from.store()) ? from.offset() : 0;
+            for (int i = start; i < rows.size(); i++) {
+                if (out.size() == limit) return new RowPosition(store.key(), i);
+                out.add(rows.get(i));
+            }
+        }
+        return null;
+    }
+
+    // peste snapshot-ul curent la momentul apelului
+    @Override
+    public Iterator<Discount> iterator() {
+        return new TreeMap<>(snapshot.storeDiscounts()).values().stream()
+                .flatMap(List::stream)
+                .iterator();
+    }
+
+    @Override
+    public long getCount() {
+        return snapshot.storeDiscounts().values().stream().mapToLong(List::size).sum();
+    }
+
+    // perechi (produs, magazin) din indexul de intervale
+    @Override
+    public int getIndexSize() {
+        return snapshot.productStoreIndex().size();
     }
 
+    @Override
     public List<Discount> getByStore(String store) {
-        return storeDiscounts.getOrDefault(store, List.of());
+        Symbol key = symbols.find(store);
+        return key == null ? List.of() : snapshot.storeDiscounts().getOrDefault(key, AppendOnlyList.empty());
     }
 
+    @Override
+    public Optional<Discount> findActiveDiscount(String productName, String store, LocalDate date) {
+        Symbol product = symbols.find(productName);
+        Symbol storeKey = symbols.find(store);
+        if (product == null || storeKey == null) return Optional.empty();
+        DiscountTimeline timeline = snapshot.productStoreIndex().get(new ProductStore(product, storeKey));
+        return timeline == null ? Optional.empty() : timeline.activeOn(date);
+    }
+
+    @Override
+    public List<Discount> getActiveOn(LocalDate date) {
+        return partitionExecutor.filter(snapshot.storeDiscounts().values(),
+                d -> !date.isBefore(d.getFromDate()) && !date.isAfter(d.getToDate()));
+    }
+
+    @Override
     public List<Discount> getActiveDiscounts() {
         LocalDate today = LocalDate.of(2025, 5, 8); // LocalDate.now(); Hardcoded for testing!
-        return getAll().stream()
-                .filter(d -> (d.getFromDate().isEqual(today) || d.getFromDate().isBefore(today)) &&
-                        (d.getToDate().isEqual(today) || d.getToDate().isAfter(today)))
-                .toList();
+        return getActiveOn(today);
     }
 
+    @Override
     public List<Discount> getNewDiscounts(LocalDate date) {
-        return getAll().stream()
-                .filter(d -> d.getFromDate().isEqual(date))
-                .toList();
+        return partitionExecutor.filter(snapshot.storeDiscounts().values(), d -> d.getFromDate().isEqual(date));
+    }
+
+    @Override
+    public List<Discount> getExpiringOn(LocalDate date) {
+        return partitionExecutor.filter(snapshot.storeDiscounts().values(), d -> d.getToDate().isEqual(date));
+    }
+
+    private record Snapshot(Map<Symbol, AppendOnlyList<Discount>> storeDiscounts,
+                            PersistentHashMap<ProductStore, DiscountTimeline> productStoreIndex) {
+    }
+
+    private record ProductStore(Symbol product, Symbol store) {
+    }
+
+    /**
+     * Discounts of one (product, store) pair sorted by fromDate, with the running maximum of
+     * toDate so that a lookup is a binary search followed by a walk that stops as soon as no
+     * earlier interval can still cover the date.
+     */
+    private static final class DiscountTimeline {
+        private final Discount[] discounts;
+        private final LocalDate[] maxToDate;
+
+        DiscountTimeline(List<Discount> list) {
+            this.discounts = list.stream()
+                    .sorted(Comparator.comparing(Discount::getFromDate))
+                    .toArray(Discount[]::new);
+            this.maxToDate = new LocalDate[discounts.length];
+            for (int i = 0; i < discounts.length; i++) {
+                LocalDate to = discounts[i].getToDate();
+                maxToDate[i] = (i > 0 && maxToDate[i - 1].isAfter(to)) ? maxToDate[i - 1] : to;
+            }
+        }
+
+        DiscountTimeline merge(DiscountTimeline other) {
+            List<Discount> all = new ArrayList<>(Arrays.asList(discounts));
+            all.addAll(Arrays.asList(other.discounts));
+            return new DiscountTimeline(all);
+        }
+
+        Optional<Discount> activeOn(LocalDate date) {
+            // ultimul interval care a inceput pana la data ceruta
+            int lo = 0, hi = discounts.length - 1, idx = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (discounts[mid].getFromDate().isAfter(date)) {
+                    hi = mid - 1;
+                } else {
+                    idx = mid;
+                    lo = mid + 1;
+                }
+            }
+
+            for (int i = idx; i >= 0 && !maxToDate[i].isBefore(date); i--) {
+                if (!discounts[i].getToDate().isBefore(date)) {
+                    return Optional.of(discounts[i]);
+                }
+            }
+            return Optional.empty();
+        }
     }
 
 }
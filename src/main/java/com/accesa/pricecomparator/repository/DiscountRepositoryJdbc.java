@@ -0,0 +1,179 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Discounts in PostgreSQL (table {@code discount}, see {@code db/postgres/schema.sql}), used under
+ * the {@code postgres} profile. A file is written in one transaction with {@code COPY}; the active
+ * discount of a (product, store) pair is found through the (name_key, store_key, from_date) index
+ * and the discounts active on a date through a GiST index on their date range.
+ */
+@Repository
+@Profile("postgres")
+public class DiscountRepositoryJdbc implements DiscountRepository {
+
+    private static final String COLUMNS = "product_id, product_name, brand, package_quantity, package_unit, "
+            + "product_category, from_date, to_date, percentage_of_discount, store";
+    private static final String COPY_SQL = "COPY discount (" + COLUMNS
+            + ", name_key, store_key, seq, source_file) FROM STDIN (FORMAT csv)";
+    private static final String PAGE_ORDER = " ORDER BY store_key, seq";
+    private static final int ITERATOR_PAGE_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final SymbolTable symbols;
+    private final int copyBufferBytes;
+
+    public DiscountRepositoryJdbc(JdbcTemplate jdbc,
+                                  PlatformTransactionManager transactionManager,
+                                  SymbolTable symbols,
+                                  @Value("${pricecomparator.jdbc.copy-buffer-bytes:1048576}") int copyBufferBytes) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.symbols = symbols;
+        this.copyBufferBytes = copyBufferBytes;
+    }
+
+    // serializat: seq-ul urmator al magazinului e citit inainte de COPY
+    @Override
+    public synchronized void addDiscounts(String store, List<Discount> discounts, String sourceFile) {
+        if (discounts.isEmpty()) return;
+
+        discounts.forEach(symbols::canonicalize);
+        String storeKey = TextNormalizer.normalize(store);
+
+        tx.executeWithoutResult(status -> {
+            // reducerile ramase de la o incarcare a aceluiasi fisier intrerupta inainte sa fie inregistrat
+            if (sourceFile != null) {
+                jdbc.update("DELETE FROM discount WHERE source_file = ?", sourceFile);
+            }
+            int firstSeq = jdbc.queryForObject(
+                    "SELECT coalesce(max(seq) + 1, 0) FROM discount WHERE store_key = ?", Integer.class, storeKey);
+            jdbc.execute((ConnectionCallback<Long>) connection -> {
+                try (PgCopyWriter out = new PgCopyWriter(connection, COPY_SQL, copyBufferBytes)) {
+                    int seq = firstSeq;
+                    for (Discount d : discounts) {
+                        out.field(d.getProductId()).field(d.getProductName()).field(d.getBrand())
+                                .field(d.getPackageQuantity()).field(d.getPackageUnit()).field(d.getProductCategory())
+                                .field(d.getFromDate()).field(d.getToDate()).field(d.getPercentageOfDiscount())
+                                .field(d.getStore())
+                                .field(TextNormalizer.normalize(d.getProductName()))
+                                .field(storeKey)
+                                .field(seq++)
+                                .field(sourceFile);
+                        out.endRow();
+                    }
+                    return out.finish();
+                }
+            });
+        });
+    }
+
+    @Override
+    public List<Discount> getAll() {
+        return jdbc.query("SELECT " + COLUMNS + " FROM discount" + PAGE_ORDER, this::mapRow);
+    }
+
+    @Override
+    public RowPosition readPage(RowPosition from, int limit, List<Discount> out) {
+        // un rand in plus: pozitia lui e cursorul paginii urmatoare
+        return jdbc.query("SELECT " + COLUMNS + ", store_key, seq FROM discount"
+                        + " WHERE (store_key, seq) >= (?, ?)" + PAGE_ORDER + " LIMIT ?",
+                (ResultSetExtractor<RowPosition>) rs -> {
+                    while (rs.next()) {
+                        if (out.size() == limit) return new RowPosition(rs.getString("store_key"), rs.getInt("seq"));
+                        out.add(mapRow(rs, 0));
+                    }
+                    return null;
+                },
+                from.store(), from.offset(), limit - out.size() + 1);
+    }
+
+    @Override
+    public Iterator<Discount> iterator() {
+        return new PagedIterator<>(this::readPage, RowPosition.START, ITERATOR_PAGE_SIZE);
+    }
+
+    @Override
+    public long getCount() {
+        return jdbc.queryForObject("SELECT count(*) FROM discount", Long.class);
+    }
+
+    @Override
+    public int getIndexSize() {
+        return jdbc.queryForObject("SELECT count(*) FROM (SELECT DISTINCT name_key, store_key FROM discount) pairs",
+                Integer.class);
+    }
+
+    @Override
+    public List<Discount> getByStore(String store) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM discount WHERE store_key = ? ORDER BY seq",
+                this::mapRow, TextNormalizer.normalize(store));
+    }
+
+    @Override
+    public Optional<Discount> findActiveDiscount(String productName, String store, LocalDate date) {
+        // la aceeasi data de inceput castiga cea incarcata ultima, ca in DiscountRepositoryInMemory
+        return jdbc.query("SELECT " + COLUMNS + " FROM discount"
+                        + " WHERE name_key = ? AND store_key = ? AND from_date <= ? AND to_date >= ?"
+                        + " ORDER BY from_date DESC, id DESC LIMIT 1",
+                this::mapRow, TextNormalizer.normalize(productName), TextNormalizer.normalize(store), date, date)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<Discount> getActiveOn(LocalDate date) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM discount"
+                        + " WHERE daterange(from_date, to_date, '[]') @> CAST(? AS date)" + PAGE_ORDER,
+                this::mapRow, date);
+    }
+
+    @Override
+    public List<Discount> getActiveDiscounts() {
+        LocalDate today = LocalDate.of(2025, 5, 8); // LocalDate.now(); Hardcoded for testing!
+        return getActiveOn(today);
+    }
+
+    @Override
+    public List<Discount> getNewDiscounts(LocalDate date) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM discount WHERE from_date = ?" + PAGE_ORDER, this::mapRow, date);
+    }
+
+    @Override
+    public List<Discount> getExpiringOn(LocalDate date) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM discount WHERE to_date = ?" + PAGE_ORDER, this::mapRow, date);
+    }
+
+    private Discount mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Discount d = new Discount(
+                rs.getString("product_id"),
+                rs.getString("product_name"),
+                rs.getString("brand"),
+                rs.getDouble("package_quantity"),
+                rs.getString("package_unit"),
+                rs.getString("product_category"),
+                rs.getObject("from_date", LocalDate.class),
+                rs.getObject("to_date", LocalDate.class),
+                rs.getInt("percentage_of_discount"),
+                rs.getString("store"));
+        symbols.canonicalize(d);
+        return d;
+    }
+}
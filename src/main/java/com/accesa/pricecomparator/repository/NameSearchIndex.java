@@ -0,0 +1,182 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.util.TextNormalizer;
+
+import java.util.*;
+
+/**
+ * Trigram inverted index over the distinct product names, for substring search.
+ * <p>
+ * Every distinct name ({@link Symbol}) gets a dense id in the order it was first seen, and every
+ * trigram of its folded form ({@link Symbol#folded}) points to a sorted
+ * array of those ids. A query is answered by intersecting the posting lists of its own trigrams,
+ * shortest first, and checking each surviving candidate with a plain {@code contains}. Queries
+ * shorter than a trigram fall back to scanning the distinct names, never the product rows.
+ * <p>
+ * Immutable: {@link #with} returns a new index, or this same index when the rows bring no new name.
+ * Versions share their storage, so adding names costs the same however large the index is: the
+ * names and the posting lists only grow at the end, and the maps are {@link PersistentHashMap}s.
+ */
+final class NameSearchIndex {
+
+    static final NameSearchIndex EMPTY = new NameSearchIndex(AppendOnlyList.empty(), PersistentHashMap.empty(),
+            PersistentHashMap.empty());
+
+    private final AppendOnlyList<Symbol> keys;    // id -> nume (cheia din byName)
+    private final PersistentHashMap<Symbol, Integer> ids;
+    private final PersistentHashMap<Long, Postings> postings;
+
+    private NameSearchIndex(AppendOnlyList<Symbol> keys, PersistentHashMap<Symbol, Integer> ids,
+                            PersistentHashMap<Long, Postings> postings) {
+        this.keys = keys;
+        this.ids = ids;
+        this.postings = postings;
+    }
+
+    NameSearchIndex with(Collection<Product> rows, SymbolTable symbols) {
+        PersistentHashMap<Symbol, Integer> nextIds = ids;
+        List<Symbol> addedKeys = new ArrayList<>();
+
+        for (Product p : rows) {
+            Symbol key = symbols.intern(p.getProductName());
+            if (nextIds.get(key) != null) continue;
+            nextIds = nextIds.with(key, keys.size() + addedKeys.size());
+            addedKeys.add(key);
+        }
+        if (addedKeys.isEmpty()) return this;
+
+        Map<Long, IntList> added = new HashMap<>();
+        for (int i = 0; i < addedKeys.size(); i++) {
+            int id = keys.size() + i;
+            for (long trigram : trigrams(addedKeys.get(i).folded())) {
+                added.computeIfAbsent(trigram, t -> new IntList()).add(id);
+            }
+        }
+
+        // id-urile noi sunt mai mari decat toate cele existente, deci listele raman sortate
+        PersistentHashMap<Long, Postings> nextPostings = postings;
+        for (Map.Entry<Long, IntList> e : added.entrySet()) {
+            nextPostings = nextPostings.with(e.getKey(), postings.getOrDefault(e.getKey(), Postings.EMPTY).append(e.getValue()));
+        }
+
+        return new NameSearchIndex(keys.append(addedKeys), nextIds, nextPostings);
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    int trigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Names containing the query, ignoring case and diacritics, in the order they were first
+     * loaded, at most {@code limit} of them.
+     */
+    List<Symbol> search(String query, int limit) {
+        String q = TextNormalizer.fold(query);
+        List<Symbol> result = new ArrayList<>();
+
+        long[] queryTrigrams = trigrams(q);
+        if (queryTrigrams.length == 0) {
+            for (int id = 0; id < keys.size() && result.size() < limit; id++) {
+                if (keys.get(id).folded().contains(q)) result.add(keys.get(id));
+            }
+            return result;
+        }
+
+        Postings[] lists = new Postings[queryTrigrams.length];
+        for (int i = 0; i < queryTrigrams.length; i++) {
+            lists[i] = postings.get(queryTrigrams[i]);
+            if (lists[i] == null) return result;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        int[] candidates = lists[0].ids;
+        int count = lists[0].size;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            candidates = intersect(candidates, count, lists[i].ids, lists[i].size);
+            count = candidates.length;
+        }
+
+        // trigramele comune nu garanteaza ca apar consecutiv, deci fiecare candidat se verifica
+        for (int i = 0; i < count && result.size() < limit; i++) {
+            Symbol key = keys.get(candidates[i]);
+            if (key.folded().contains(q)) result.add(key);
+        }
+        return result;
+    }
+
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) return new long[0];
+        long[] result = new long[text.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+        }
+        return Arrays.stream(result).distinct().toArray();
+    }
+
+    // primele aLength elemente din a cu primele bLength din b
+    private static int[] intersect(int[] a, int aLength, int[] b, int bLength) {
+        int[] out = new int[Math.min(aLength, bLength)];
+        int i = 0, j = 0, n = 0;
+        while (i < aLength && j < bLength) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Sorted ids of the names containing one trigram. Like {@link AppendOnlyList}, versions share
+     * the array and each reads its first {@code size} ids; appending past the newest version
+     * copies only when the array is full.
+     */
+    private static final class Postings {
+        static final Postings EMPTY = new Postings(new int[0], 0, new int[1]);
+
+        final int[] ids;
+        final int size;
+        // written[0]: cate id-uri au fost scrise de cea mai noua versiune
+        private final int[] written;
+
+        private Postings(int[] ids, int size, int[] written) {
+            this.ids = ids;
+            this.size = size;
+            this.written = written;
+        }
+
+        Postings append(IntList added) {
+            int nextSize = size + added.size;
+            int[] target = ids;
+            int[] nextWritten = written;
+            if (written[0] != size || nextSize > ids.length) {
+                target = new int[Math.max(4, nextSize * 2)];
+                System.arraycopy(ids, 0, target, 0, size);
+                nextWritten = new int[1];
+            }
+            System.arraycopy(added.values, 0, target, size, added.size);
+            nextWritten[0] = nextSize;
+            return new Postings(target, nextSize, nextWritten);
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.accesa.pricecomparator.repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates a {@code readPage} style source one page at a time, so only one page is held in memory.
+ * Rows appended while iterating after the current position are included.
+ */
+final class PagedIterator<T, P> implements Iterator<T> {
+
+    @FunctionalInterface
+    interface PageReader<T, P> {
+        // intoarce pozitia urmatoare sau null la final
+        P read(P from, int limit, List<T> out);
+    }
+
+    private final PageReader<T, P> reader;
+    private final int pageSize;
+    private final List<T> page;
+    private int index;
+    private P next;
+
+    PagedIterator(PageReader<T, P> reader, P start, int pageSize) {
+        this.reader = reader;
+        this.pageSize = pageSize;
+        this.page = new ArrayList<>(pageSize);
+        this.next = start;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (index == page.size()) {
+            if (next == null) return false;
+            page.clear();
+            index = 0;
+            next = reader.read(next, pageSize, page);
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return page.get(index++);
+    }
+}
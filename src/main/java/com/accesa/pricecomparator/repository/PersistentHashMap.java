@@ -0,0 +1,147 @@
+package com.accesa.pricecomparator.repository;
+
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+
+/**
+ * Immutable hash map with structural sharing (a hash array mapped trie). {@link #with} copies only
+ * the nodes on the path to the changed key, at most seven arrays of up to 32 slots, so an update
+ * costs the same however large the map is, and a lookup follows at most that many references.
+ * Keys are never removed. Used for the indexes every ingested file extends, where copying a
+ * {@link java.util.HashMap} would make each publish cost grow with the archive.
+ */
+final class PersistentHashMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(new Node(0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        int hash = hash(key);
+        Object node = root;
+        for (int shift = 0; ; shift += BITS) {
+            if (node instanceof Collision c) {
+                for (Entry e : c.entries()) {
+                    if (e.key().equals(key)) return (V) e.value();
+                }
+                return null;
+            }
+            Node n = (Node) node;
+            int bit = 1 << (hash >>> shift & 31);
+            if ((n.bitmap() & bit) == 0) return null;
+            Object slot = n.slots()[n.index(bit)];
+            if (slot instanceof Entry e) {
+                return e.hash() == hash && e.key().equals(key) ? (V) e.value() : null;
+            }
+            node = slot;
+        }
+    }
+
+    V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    PersistentHashMap<K, V> with(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node next = (Node) insert(root, 0, new Entry(key, hash(key), value), added);
+        return new PersistentHashMap<>(next, added[0] ? size + 1 : size);
+    }
+
+    // ca Map.merge: valoarea noua, sau combinatia ei cu cea existenta
+    PersistentHashMap<K, V> merge(K key, V value, BinaryOperator<V> combine) {
+        V existing = get(key);
+        return with(key, existing == null ? value : combine.apply(existing, value));
+    }
+
+    private static Object insert(Object node, int shift, Entry entry, boolean[] added) {
+        if (node instanceof Collision c) {
+            Entry[] entries = c.entries();
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key().equals(entry.key())) {
+                    Entry[] replaced = entries.clone();
+                    replaced[i] = entry;
+                    return new Collision(replaced);
+                }
+            }
+            added[0] = true;
+            Entry[] grown = Arrays.copyOf(entries, entries.length + 1);
+            grown[entries.length] = entry;
+            return new Collision(grown);
+        }
+
+        Node n = (Node) node;
+        int bit = 1 << (entry.hash() >>> shift & 31);
+        int index = n.index(bit);
+        if ((n.bitmap() & bit) == 0) {
+            added[0] = true;
+            Object[] slots = new Object[n.slots().length + 1];
+            System.arraycopy(n.slots(), 0, slots, 0, index);
+            slots[index] = entry;
+            System.arraycopy(n.slots(), index, slots, index + 1, n.slots().length - index);
+            return new Node(n.bitmap() | bit, slots);
+        }
+
+        Object slot = n.slots()[index];
+        Object replacement;
+        if (slot instanceof Entry e) {
+            if (e.hash() == entry.hash() && e.key().equals(entry.key())) {
+                replacement = entry;
+            } else {
+                added[0] = true;
+                replacement = pair(e, entry, shift + BITS);
+            }
+        } else {
+            replacement = insert(slot, shift + BITS, entry, added);
+        }
+        Object[] slots = n.slots().clone();
+        slots[index] = replacement;
+        return new Node(n.bitmap(), slots);
+    }
+
+    // nodul care separa doua chei aflate pe aceeasi pozitie pana la nivelul shift
+    private static Object pair(Entry a, Entry b, int shift) {
+        // toti cei 32 de biti sunt egali: hash-uri identice
+        if (shift >= 32) return new Collision(new Entry[]{a, b});
+        int fragmentA = a.hash() >>> shift & 31;
+        int fragmentB = b.hash() >>> shift & 31;
+        if (fragmentA == fragmentB) return new Node(1 << fragmentA, new Object[]{pair(a, b, shift + BITS)});
+        return new Node(1 << fragmentA | 1 << fragmentB, fragmentA < fragmentB ? new Object[]{a, b} : new Object[]{b, a});
+    }
+
+    // ca HashMap: bitii superiori amestecati in cei inferiori, folositi de primele niveluri
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private record Entry(Object key, int hash, Object value) {
+    }
+
+    private record Collision(Entry[] entries) {
+    }
+
+    // slots[i] e un Entry, un Node sau un Collision, in ordinea bitilor din bitmap
+    private record Node(int bitmap, Object[] slots) {
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+}
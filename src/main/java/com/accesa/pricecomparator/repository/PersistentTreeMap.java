@@ -0,0 +1,335 @@
+package com.accesa.pricecomparator.repository;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Immutable sorted map with structural sharing: a treap whose priorities are derived from the key
+ * hashes, so its expected depth is logarithmic in any insertion order. {@link #with} copies only
+ * the nodes on the path to the key, and the key set is a read-only {@link NavigableSet} view.
+ * Keys are never removed.
+ */
+final class PersistentTreeMap<K extends Comparable<? super K>, V> {
+
+    private static final PersistentTreeMap<?, ?> EMPTY = new PersistentTreeMap<>(null, 0);
+
+    private final Node<K, V> root;
+    private final int size;
+
+    private PersistentTreeMap(Node<K, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> empty() {
+        return (PersistentTreeMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    V get(K key) {
+        Node<K, V> n = root;
+        while (n != null) {
+            int cmp = key.compareTo(n.key());
+            if (cmp == 0) return n.value();
+            n = cmp < 0 ? n.left() : n.right();
+        }
+        return null;
+    }
+
+    V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    PersistentTreeMap<K, V> with(K key, V value) {
+        boolean added = get(key) == null;
+        return new PersistentTreeMap<>(insert(root, key, value), added ? size + 1 : size);
+    }
+
+    NavigableSet<K> keySet() {
+        return new KeyView(null, false, null, false);
+    }
+
+    // valorile in ordinea cheilor
+    Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                Iterator<K> keys = keySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return get(keys.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> insert(Node<K, V> n, K key, V value) {
+        if (n == null) return new Node<>(key, value, priority(key), null, null);
+        int cmp = key.compareTo(n.key());
+        if (cmp == 0) return new Node<>(key, value, n.priority(), n.left(), n.right());
+        if (cmp < 0) {
+            Node<K, V> left = insert(n.left(), key, value);
+            if (left.priority() > n.priority()) {
+                // rotatie la dreapta: fiul stang urca deasupra nodului
+                return new Node<>(left.key(), left.value(), left.priority(), left.left(),
+                        new Node<>(n.key(), n.value(), n.priority(), left.right(), n.right()));
+            }
+            return new Node<>(n.key(), n.value(), n.priority(), left, n.right());
+        }
+        Node<K, V> right = insert(n.right(), key, value);
+        if (right.priority() > n.priority()) {
+            return new Node<>(right.key(), right.value(), right.priority(),
+                    new Node<>(n.key(), n.value(), n.priority(), n.left(), right.left()), right.right());
+        }
+        return new Node<>(n.key(), n.value(), n.priority(), n.left(), right);
+    }
+
+    // finalizatorul murmur3: chei consecutive dau prioritati fara legatura intre ele
+    private static int priority(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ h >>> 16;
+    }
+
+    // cea mai mica cheie mai mare decat key (sau egala, daca inclusive); null = prima cheie
+    private K ceilingKey(K key, boolean inclusive) {
+        K best = null;
+        for (Node<K, V> n = root; n != null; ) {
+            int cmp = key == null ? -1 : key.compareTo(n.key());
+            if (cmp < 0 || (cmp == 0 && inclusive)) {
+                best = n.key();
+                if (cmp == 0) break;
+                n = n.left();
+            } else {
+                n = n.right();
+            }
+        }
+        return best;
+    }
+
+    // cea mai mare cheie mai mica decat key (sau egala, daca inclusive); null = ultima cheie
+    private K floorKey(K key, boolean inclusive) {
+        K best = null;
+        for (Node<K, V> n = root; n != null; ) {
+            int cmp = key == null ? 1 : key.compareTo(n.key());
+            if (cmp > 0 || (cmp == 0 && inclusive)) {
+                best = n.key();
+                if (cmp == 0) break;
+                n = n.right();
+            } else {
+                n = n.left();
+            }
+        }
+        return best;
+    }
+
+    private record Node<K, V>(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+    }
+
+    /**
+     * The keys between two optional bounds. Each step of an iteration is a search from the root,
+     * which is cheap for the few thousand dates this map holds.
+     */
+    private final class KeyView extends AbstractSet<K> implements NavigableSet<K> {
+        private final K lo;
+        private final boolean loInclusive;
+        private final K hi;
+        private final boolean hiInclusive;
+
+        KeyView(K lo, boolean loInclusive, K hi, boolean hiInclusive) {
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+        }
+
+        private boolean tooLow(K key) {
+            if (lo == null) return false;
+            int cmp = key.compareTo(lo);
+            return cmp < 0 || (cmp == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            if (hi == null) return false;
+            int cmp = key.compareTo(hi);
+            return cmp > 0 || (cmp == 0 && !hiInclusive);
+        }
+
+        private K inRange(K key) {
+            return key == null || tooLow(key) || tooHigh(key) ? null : key;
+        }
+
+        private K lowest() {
+            return inRange(lo == null ? ceilingKey(null, true) : ceilingKey(lo, loInclusive));
+        }
+
+        private K highest() {
+            return inRange(hi == null ? floorKey(null, true) : floorKey(hi, hiInclusive));
+        }
+
+        @Override
+        public int size() {
+            if (lo == null && hi == null) return size;
+            int count = 0;
+            for (K ignored : this) count++;
+            return count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            K key = (K) o;
+            return !tooLow(key) && !tooHigh(key) && get(key) != null;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator(lowest(), true);
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return new KeyIterator(highest(), false);
+        }
+
+        @Override
+        public K lower(K key) {
+            return inRange(tooHigh(key) ? highest() : floorKey(key, false));
+        }
+
+        @Override
+        public K floor(K key) {
+            return inRange(tooHigh(key) ? highest() : floorKey(key, true));
+        }
+
+        @Override
+        public K ceiling(K key) {
+            return inRange(tooLow(key) ? lowest() : ceilingKey(key, true));
+        }
+
+        @Override
+        public K higher(K key) {
+            return inRange(tooLow(key) ? lowest() : ceilingKey(key, false));
+        }
+
+        @Override
+        public K first() {
+            K key = lowest();
+            if (key == null) throw new NoSuchElementException();
+            return key;
+        }
+
+        @Override
+        public K last() {
+            K key = highest();
+            if (key == null) throw new NoSuchElementException();
+            return key;
+        }
+
+        @Override
+        public K pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public K pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return null;
+        }
+
+        // harta nu se schimba niciodata, deci o copie se comporta exact ca o vedere
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return Collections.unmodifiableNavigableSet(new TreeSet<>(this)).descendingSet();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (fromKey.compareTo(toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+            if (tooLow(fromKey) || tooHigh(toKey)) throw new IllegalArgumentException("key out of range");
+            return new KeyView(fromKey, fromInclusive, toKey, toInclusive);
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toKey, boolean inclusive) {
+            if (tooLow(toKey) || tooHigh(toKey)) throw new IllegalArgumentException("key out of range");
+            return new KeyView(lo, loInclusive, toKey, inclusive);
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromKey, boolean inclusive) {
+            if (tooLow(fromKey) || tooHigh(fromKey)) throw new IllegalArgumentException("key out of range");
+            return new KeyView(fromKey, inclusive, hi, hiInclusive);
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromKey, K toKey) {
+            return subSet(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toKey) {
+            return headSet(toKey, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromKey) {
+            return tailSet(fromKey, true);
+        }
+
+        private final class KeyIterator implements Iterator<K> {
+            private K next;
+            private final boolean ascending;
+
+            KeyIterator(K first, boolean ascending) {
+                this.next = first;
+                this.ascending = ascending;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public K next() {
+                if (next == null) throw new NoSuchElementException();
+                K current = next;
+                next = inRange(ascending ? ceilingKey(current, false) : floorKey(current, false));
+                return current;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.accesa.pricecomparator.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Streams rows into a {@code COPY ... FROM STDIN (FORMAT csv)}: fields are appended to a buffer
+ * that is sent to the server whenever it grows past the configured size. Strings are always
+ * quoted, so an empty string stays distinct from {@code null} (an empty unquoted field).
+ * <p>
+ * {@link #finish} ends the copy and returns the number of rows the server accepted; closing a
+ * writer that was not finished cancels the copy, so a failed file leaves no rows behind.
+ */
+final class PgCopyWriter implements AutoCloseable {
+
+    private final CopyIn copy;
+    private final int bufferChars;
+    private final StringBuilder buffer;
+    private boolean firstField = true;
+
+    PgCopyWriter(Connection connection, String copySql, int bufferBytes) throws SQLException {
+        this.copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+        // caracterele au 1-2 octeti in UTF-8 pentru datele noastre, deci bufferul ramane aproape de limita
+        this.bufferChars = Math.max(bufferBytes / 2, 1024);
+        this.buffer = new StringBuilder(bufferChars + 256);
+    }
+
+    PgCopyWriter field(String value) {
+        separator();
+        if (value != null) {
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') buffer.append('"');
+                buffer.append(c);
+            }
+            buffer.append('"');
+        }
+        return this;
+    }
+
+    PgCopyWriter field(long value) {
+        separator();
+        buffer.append(value);
+        return this;
+    }
+
+    PgCopyWriter field(double value) {
+        separator();
+        buffer.append(value);
+        return this;
+    }
+
+    PgCopyWriter field(LocalDate value) {
+        separator();
+        if (value != null) buffer.append(value);
+        return this;
+    }
+
+    void endRow() throws SQLException {
+        buffer.append('\n');
+        firstField = true;
+        if (buffer.length() >= bufferChars) flush();
+    }
+
+    long finish() throws SQLException {
+        flush();
+        return copy.endCopy();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (copy.isActive()) copy.cancelCopy();
+    }
+
+    private void separator() {
+        if (!firstField) buffer.append(',');
+        firstField = false;
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.isEmpty()) return;
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
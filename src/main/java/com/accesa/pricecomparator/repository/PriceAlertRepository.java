@@ -0,0 +1,45 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.PriceAlert;
+import com.accesa.pricecomparator.model.Symbol;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Price alerts, next to the lowest final price of every alerted product on every loaded date. An
+ * alert is triggered on a date when that lowest price is at or below its target.
+ * <p>
+ * The lowest prices are kept up to date by the caller through {@link #updateLowestPrice}; the
+ * repository does not look at products or discounts itself.
+ * <p>
+ * {@link PriceAlertRepositoryInMemory} is the default; {@link PriceAlertRepositoryJdbc} keeps the
+ * alerts in PostgreSQL under the {@code postgres} profile.
+ */
+public interface PriceAlertRepository {
+
+    void addAlert(PriceAlert alert);
+
+    List<PriceAlert> getAll();
+
+    int size();
+
+    int getAlertedProductCount();
+
+    boolean hasAlerts(Symbol productName);
+
+    /**
+     * Records the lowest final price (in cents) of a product on a date, or that it has no offer there when
+     * {@code lowestPrice} is {@code null}. Ignored for products nobody has an alert on.
+     *
+     * @return the alerts that were not triggered on that date before and are now, in the order
+     * they were added
+     */
+    List<PriceAlert> updateLowestPrice(Symbol productName, LocalDate date, Long lowestPrice);
+
+    /**
+     * The alerts whose product has a final price at or below their target on the given date, in
+     * the order they were added.
+     */
+    List<PriceAlert> findTriggered(LocalDate date);
+}
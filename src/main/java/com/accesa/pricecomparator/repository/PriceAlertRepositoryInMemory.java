@@ -1,20 +1,118 @@
 package com.accesa.pricecomparator.repository;
 
 import com.accesa.pricecomparator.model.PriceAlert;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.util.TextNormalizer;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.*;
 
+/**
+ * Alerts indexed by normalized product name ({@link Symbol#key()}), each name keeping
+ * its alerts sorted by target price, next to the lowest final price of every alerted name on every
+ * loaded date. An alert is triggered on a date when that lowest price is at or below its target, so
+ * the triggered alerts of a name are a suffix of its sorted list.
+ * <p>
+ * The lowest prices are kept up to date by the caller through {@link #updateLowestPrice}; the
+ * repository does not look at products or discounts itself. An alert may name a product that was
+ * never ingested, so names are looked up with {@link SymbolTable#find} and never interned.
+ */
 @Repository
-public class PriceAlertRepositoryInMemory {
+@Profile("!postgres")
+public class PriceAlertRepositoryInMemory implements PriceAlertRepository {
+
+    private final SymbolTable symbols;
     private final List<PriceAlert> alerts = new ArrayList<>();
+    private final Map<String, List<Entry>> byName = new HashMap<>();
+    private final Map<LocalDate, Map<String, Long>> lowestPrices = new HashMap<>();
+
+    public PriceAlertRepositoryInMemory(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
 
-    public void addAlert(PriceAlert alert) {
+    @Override
+    public synchronized void addAlert(PriceAlert alert) {
+        Entry entry = new Entry(alerts.size(), alert);
         alerts.add(alert);
+
+        List<Entry> entries = byName.computeIfAbsent(keyOf(alert.getProductName()), k -> new ArrayList<>());
+        // dupa toate alertele cu acelasi prag, ca ordinea de inserare sa se pastreze
+        entries.add(firstAtOrAbove(entries, alert.getTargetPrice() + 1), entry);
+    }
+
+    @Override
+    public synchronized List<PriceAlert> getAll() {
+        return List.copyOf(alerts);
+    }
+
+    @Override
+    public synchronized int size() {
+        return alerts.size();
+    }
+
+    @Override
+    public synchronized int getAlertedProductCount() {
+        return byName.size();
+    }
+
+    @Override
+    public synchronized boolean hasAlerts(Symbol productName) {
+        return productName != null && byName.containsKey(productName.key());
+    }
+
+    @Override
+    public synchronized List<PriceAlert> updateLowestPrice(Symbol productName, LocalDate date, Long lowestPrice) {
+        String key = productName.key();
+        List<Entry> entries = byName.get(key);
+        if (entries == null) return List.of();
+
+        Map<String, Long> prices = lowestPrices.computeIfAbsent(date, d -> new HashMap<>());
+        Long previous = lowestPrice == null ? prices.remove(key) : prices.put(key, lowestPrice);
+        if (lowestPrice == null || (previous != null && previous <= lowestPrice)) return List.of();
+
+        // praguri in [pret nou, pret vechi): nu erau declansate, acum sunt
+        int from = firstAtOrAbove(entries, lowestPrice);
+        int to = previous == null ? entries.size() : firstAtOrAbove(entries, previous);
+        return inAddOrder(entries.subList(from, to));
+    }
+
+    @Override
+    public synchronized List<PriceAlert> findTriggered(LocalDate date) {
+        List<Entry> triggered = new ArrayList<>();
+        lowestPrices.getOrDefault(date, Map.of()).forEach((key, price) -> {
+            List<Entry> entries = byName.get(key);
+            triggered.addAll(entries.subList(firstAtOrAbove(entries, price), entries.size()));
+        });
+        return inAddOrder(triggered);
+    }
+
+    // cheia unui nume: instanta din simbol daca numele a fost incarcat, altfel textul normalizat
+    private String keyOf(String productName) {
+        Symbol symbol = symbols.find(productName);
+        return symbol != null ? symbol.key() : TextNormalizer.normalize(productName);
+    }
+
+    // primul index cu pragul >= price
+    private static int firstAtOrAbove(List<Entry> entries, long price) {
+        int lo = 0, hi = entries.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries.get(mid).alert().getTargetPrice() < price) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static List<PriceAlert> inAddOrder(List<Entry> entries) {
+        return entries.stream()
+                .sorted(Comparator.comparingInt(Entry::seq))
+                .map(Entry::alert)
+                .toList();
     }
 
-    public List<PriceAlert> getAll() {
-        return alerts;
+    private record Entry(int seq, PriceAlert alert) {
     }
 }
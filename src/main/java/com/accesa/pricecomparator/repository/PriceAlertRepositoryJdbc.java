@@ -0,0 +1,101 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.PriceAlert;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.util.TextNormalizer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Alerts in PostgreSQL (tables {@code price_alert} and {@code alert_lowest_price}, see
+ * {@code db/postgres/schema.sql}), used under the {@code postgres} profile. The alerts of a
+ * product are read through the (name_key, target_price) index, so the ones a new lowest price
+ * triggers are a range scan.
+ */
+@Repository
+@Profile("postgres")
+public class PriceAlertRepositoryJdbc implements PriceAlertRepository {
+
+    private static final String COLUMNS = "product_name, target_price, user_email";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    public PriceAlertRepositoryJdbc(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void addAlert(PriceAlert alert) {
+        jdbc.update("INSERT INTO price_alert (product_name, name_key, target_price, user_email) VALUES (?, ?, ?, ?)",
+                alert.getProductName(), TextNormalizer.normalize(alert.getProductName()),
+                alert.getTargetPrice(), alert.getUserEmail());
+    }
+
+    @Override
+    public List<PriceAlert> getAll() {
+        return jdbc.query("SELECT " + COLUMNS + " FROM price_alert ORDER BY id", PriceAlertRepositoryJdbc::mapRow);
+    }
+
+    @Override
+    public int size() {
+        return jdbc.queryForObject("SELECT count(*) FROM price_alert", Integer.class);
+    }
+
+    @Override
+    public int getAlertedProductCount() {
+        return jdbc.queryForObject("SELECT count(DISTINCT name_key) FROM price_alert", Integer.class);
+    }
+
+    @Override
+    public boolean hasAlerts(Symbol productName) {
+        return jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM price_alert WHERE name_key = ?)",
+                Boolean.class, productName.key());
+    }
+
+    // serializat, ca pretul anterior citit sa fie cel inlocuit
+    @Override
+    public synchronized List<PriceAlert> updateLowestPrice(Symbol productName, LocalDate date, Long lowestPrice) {
+        if (!hasAlerts(productName)) return List.of();
+        String key = productName.key();
+
+        return tx.execute(status -> {
+            Long previous = jdbc.query("SELECT price FROM alert_lowest_price WHERE date = ? AND name_key = ?",
+                    (rs, rowNum) -> rs.getLong(1), date, key).stream().findFirst().orElse(null);
+
+            if (lowestPrice == null) {
+                jdbc.update("DELETE FROM alert_lowest_price WHERE date = ? AND name_key = ?", date, key);
+                return List.of();
+            }
+            jdbc.update("INSERT INTO alert_lowest_price (date, name_key, price) VALUES (?, ?, ?)"
+                    + " ON CONFLICT (date, name_key) DO UPDATE SET price = excluded.price", date, key, lowestPrice);
+            if (previous != null && previous <= lowestPrice) return List.of();
+
+            // praguri in [pret nou, pret vechi): nu erau declansate, acum sunt
+            return jdbc.query("SELECT " + COLUMNS + " FROM price_alert"
+                            + " WHERE name_key = ? AND target_price >= ? AND target_price < ? ORDER BY id",
+                    PriceAlertRepositoryJdbc::mapRow, key, lowestPrice, previous == null ? Long.MAX_VALUE : previous);
+        });
+    }
+
+    @Override
+    public List<PriceAlert> findTriggered(LocalDate date) {
+        return jdbc.query("SELECT a.product_name, a.target_price, a.user_email FROM price_alert a"
+                        + " JOIN alert_lowest_price l ON l.name_key = a.name_key"
+                        + " WHERE l.date = ? AND a.target_price >= l.price ORDER BY a.id",
+                PriceAlertRepositoryJdbc::mapRow, date);
+    }
+
+    private static PriceAlert mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new PriceAlert(rs.getString("product_name"), rs.getLong("target_price"), rs.getString("user_email"));
+    }
+}
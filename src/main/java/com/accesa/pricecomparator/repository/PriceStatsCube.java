@@ -0,0 +1,79 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.PriceAggregate;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Price aggregates per (store, category, date), plus the same per (store, date), (category, date)
+ * and date across every store and category. Stores and categories are matched by their
+ * {@link Symbol}.
+ * <p>
+ * Immutable: {@link #with} returns a new cube, which {@link ProductRepositoryInMemory} publishes in
+ * the same snapshot as the rows it was built from, so a reader sees a file either in every cell or
+ * in none. The cells are a {@link PersistentHashMap} and each series a {@link PersistentTreeMap},
+ * so a file only copies the days of the cells it touches.
+ */
+public final class PriceStatsCube {
+
+    static final PriceStatsCube EMPTY = new PriceStatsCube(PersistentHashMap.empty());
+
+    private final PersistentHashMap<Cell, PersistentTreeMap<LocalDate, PriceAggregate>> cells;
+
+    private PriceStatsCube(PersistentHashMap<Cell, PersistentTreeMap<LocalDate, PriceAggregate>> cells) {
+        this.cells = cells;
+    }
+
+    PriceStatsCube with(Collection<Product> rows, SymbolTable symbols) {
+        if (rows.isEmpty()) return this;
+
+        // cele patru celule ale unei perechi (magazin, categorie) se construiesc o singura data;
+        // randurile sunt canonicalizate, deci perechea se gaseste dupa sirurile lor
+        Map<Cell, Map<LocalDate, PriceAggregate>> added = new HashMap<>();
+        Map<String, Map<String, List<Map<LocalDate, PriceAggregate>>>> pairs = new HashMap<>();
+        for (Product p : rows) {
+            List<Map<LocalDate, PriceAggregate>> targets = pairs
+                    .computeIfAbsent(p.getStore(), s -> new HashMap<>())
+                    .computeIfAbsent(p.getProductCategory(), c -> {
+                        Symbol store = symbols.intern(p.getStore());
+                        Symbol category = symbols.intern(c);
+                        return List.of(new Cell(store, category), new Cell(store, null),
+                                        new Cell(null, category), new Cell(null, null)).stream()
+                                .map(cell -> added.computeIfAbsent(cell, k -> new HashMap<>()))
+                                .toList();
+                    });
+            for (Map<LocalDate, PriceAggregate> byDate : targets) {
+                byDate.put(p.getDate(), byDate.getOrDefault(p.getDate(), PriceAggregate.EMPTY).plus(p.getPrice()));
+            }
+        }
+
+        PersistentHashMap<Cell, PersistentTreeMap<LocalDate, PriceAggregate>> next = cells;
+        for (Map.Entry<Cell, Map<LocalDate, PriceAggregate>> e : added.entrySet()) {
+            PersistentTreeMap<LocalDate, PriceAggregate> series = next.getOrDefault(e.getKey(), PersistentTreeMap.empty());
+            for (Map.Entry<LocalDate, PriceAggregate> day : e.getValue().entrySet()) {
+                series = series.with(day.getKey(), series.getOrDefault(day.getKey(), PriceAggregate.EMPTY).plus(day.getValue()));
+            }
+            next = next.with(e.getKey(), series);
+        }
+        return new PriceStatsCube(next);
+    }
+
+    /**
+     * Daily aggregates for one store and category; {@code null} for either means all of them.
+     */
+    NavigableMap<LocalDate, PriceAggregate> daily(Symbol store, Symbol category) {
+        PersistentTreeMap<LocalDate, PriceAggregate> series = cells.get(new Cell(store, category));
+        if (series == null) return Collections.emptyNavigableMap();
+        NavigableMap<LocalDate, PriceAggregate> result = new TreeMap<>();
+        for (LocalDate date : series.keySet()) result.put(date, series.get(date));
+        return Collections.unmodifiableNavigableMap(result);
+    }
+
+    // null = toate magazinele / categoriile
+    private record Cell(Symbol store, Symbol category) {
+    }
+}
@@ -0,0 +1,279 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Product;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Column-oriented storage for product rows. Categorical columns hold dictionary codes, quantity is
+ * a primitive double column, price a long column of cents and the date is kept as an epoch day.
+ * Callers never see the columns: they get {@link RowList}s of row ids whose elements are flyweight {@link Product} views
+ * created on access and reading straight from the columns.
+ */
+public class ProductColumnStore {
+    private final StringDictionary dictionary = new StringDictionary();
+
+    private int size;
+    // republicat (volatile) dupa fiecare adaugare, ca cititorii concurenti sa vada randurile complete
+    private volatile Columns columns = new Columns(0);
+
+    /**
+     * Appends the rows to the columns and returns them as views backed by this store.
+     * Callers must not append concurrently; reads may run concurrently with an append.
+     */
+    public RowList appendAll(Collection<Product> products) {
+        Columns c = columns;
+        if (size + products.size() > c.prices.length) {
+            c = c.grow(Math.max(size + products.size(), Math.max(1024, c.prices.length + (c.prices.length >> 1))));
+        }
+
+        RowList appended = newRowList();
+        for (Product p : products) {
+            int row = size++;
+            c.productIds[row] = dictionary.encode(p.getProductId());
+            c.names[row] = dictionary.encode(p.getProductName());
+            c.categories[row] = dictionary.encode(p.getProductCategory());
+            c.brands[row] = dictionary.encode(p.getBrand());
+            c.units[row] = dictionary.encode(p.getPackageUnit());
+            c.currencies[row] = dictionary.encode(p.getCurrency());
+            c.stores[row] = dictionary.encode(p.getStore());
+            c.quantities[row] = p.getPackageQuantity();
+            c.prices[row] = p.getPrice();
+            c.epochDays[row] = (int) p.getDate().toEpochDay();
+            appended.addRow(row);
+        }
+        columns = c;
+        return appended;
+    }
+
+    public RowList newRowList() {
+        return new RowList();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    private static final class Columns {
+        final int[] productIds;
+        final int[] names;
+        final int[] categories;
+        final int[] brands;
+        final int[] units;
+        final int[] currencies;
+        final int[] stores;
+        final double[] quantities;
+        final long[] prices;
+        final int[] epochDays;
+
+        Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new int[capacity], new int[capacity], new int[capacity],
+                    new int[capacity], new int[capacity], new double[capacity], new long[capacity], new int[capacity]);
+        }
+
+        private Columns(int[] productIds, int[] names, int[] categories, int[] brands, int[] units,
+                        int[] currencies, int[] stores, double[] quantities, long[] prices, int[] epochDays) {
+            this.productIds = productIds;
+            this.names = names;
+            this.categories = categories;
+            this.brands = brands;
+            this.units = units;
+            this.currencies = currencies;
+            this.stores = stores;
+            this.quantities = quantities;
+            this.prices = prices;
+            this.epochDays = epochDays;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(
+                    Arrays.copyOf(productIds, capacity), Arrays.copyOf(names, capacity),
+                    Arrays.copyOf(categories, capacity), Arrays.copyOf(brands, capacity),
+                    Arrays.copyOf(units, capacity), Arrays.copyOf(currencies, capacity),
+                    Arrays.copyOf(stores, capacity), Arrays.copyOf(quantities, capacity),
+                    Arrays.copyOf(prices, capacity), Arrays.copyOf(epochDays, capacity));
+        }
+    }
+
+    /**
+     * Growable list of row ids; only accepts views that belong to the same store.
+     */
+    public final class RowList extends AbstractList<Product> {
+        private int[] rows = new int[8];
+        private int count;
+
+        @Override
+        public Product get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+            return new RowView(rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public boolean add(Product product) {
+            if (!(product instanceof RowView view) || view.owner() != ProductColumnStore.this) {
+                throw new IllegalArgumentException("Only rows of this column store can be added");
+            }
+            addRow(view.row);
+            return true;
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends Product> products) {
+            if (products instanceof RowList other && other.owner() == ProductColumnStore.this) {
+                ensureRowCapacity(count + other.count);
+                System.arraycopy(other.rows, 0, rows, count, other.count);
+                count += other.count;
+                return other.count > 0;
+            }
+            return super.addAll(products);
+        }
+
+        private void addRow(int row) {
+            ensureRowCapacity(count + 1);
+            rows[count++] = row;
+        }
+
+        private void ensureRowCapacity(int capacity) {
+            if (capacity > rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(capacity, rows.length * 2));
+            }
+        }
+
+        private ProductColumnStore owner() {
+            return ProductColumnStore.this;
+        }
+    }
+
+    /**
+     * Read-only product view over one row of the columns.
+     */
+    private final class RowView extends Product {
+        private final int row;
+
+        RowView(int row) {
+            this.row = row;
+        }
+
+        private ProductColumnStore owner() {
+            return ProductColumnStore.this;
+        }
+
+        @Override
+        public String getProductId() {
+            return dictionary.decode(columns.productIds[row]);
+        }
+
+        @Override
+        public String getProductName() {
+            return dictionary.decode(columns.names[row]);
+        }
+
+        @Override
+        public String getProductCategory() {
+            return dictionary.decode(columns.categories[row]);
+        }
+
+        @Override
+        public String getBrand() {
+            return dictionary.decode(columns.brands[row]);
+        }
+
+        @Override
+        public double getPackageQuantity() {
+            return columns.quantities[row];
+        }
+
+        @Override
+        public String getPackageUnit() {
+            return dictionary.decode(columns.units[row]);
+        }
+
+        @Override
+        public long getPrice() {
+            return columns.prices[row];
+        }
+
+        @Override
+        public String getCurrency() {
+            return dictionary.decode(columns.currencies[row]);
+        }
+
+        @Override
+        public LocalDate getDate() {
+            return LocalDate.ofEpochDay(columns.epochDays[row]);
+        }
+
+        @Override
+        public String getStore() {
+            return dictionary.decode(columns.stores[row]);
+        }
+
+        @Override
+        public void setProductId(String productId) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setProductName(String productName) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setProductCategory(String productCategory) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setBrand(String brand) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setPackageQuantity(double packageQuantity) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setPackageUnit(String packageUnit) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setPrice(long price) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setCurrency(String currency) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setDate(LocalDate date) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setStore(String store) {
+            throw readOnly();
+        }
+
+        private UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Column store rows are read-only");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.PriceAggregate;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.Symbol;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+
+/**
+ * Product rows, appended one CSV file at a time. Names and stores are matched ignoring case, as
+ * in the {@link com.accesa.pricecomparator.model.SymbolTable}.
+ * <p>
+ * {@link ProductRepositoryInMemory} is the default; {@link ProductRepositoryJdbc} keeps the rows
+ * in PostgreSQL under the {@code postgres} profile.
+ */
+public interface ProductRepository {
+
+    /**
+     * Appends the rows of one file, all of the given store. Called concurrently by the ingestion
+     * tasks; the rows of one call become visible together.
+     * <p>
+     * A persistent implementation tags the rows with {@code sourceFile} and first drops the rows an
+     * earlier, interrupted load of the same file left behind, so loading a file again after a crash
+     * does not duplicate it. {@code null} means the rows come from no single file (a snapshot).
+     */
+    void addProducts(String store, List<Product> products, String sourceFile);
+
+    default void addProducts(String store, List<Product> products) {
+        addProducts(store, products, null);
+    }
+
+    List<Product> getAll();
+
+    /**
+     * Reads up to {@code limit} rows into {@code out}, in (date, store, load order) order, starting
+     * at {@code from}. Rows only ever get appended to a (date, store) list, so a position keeps
+     * pointing at the same row as later files are loaded.
+     *
+     * @return the position of the next row, or {@code null} when there are no more rows
+     */
+    RowPosition readPage(RowPosition from, int limit, List<Product> out);
+
+    /**
+     * Every row, lazily, in the same order as {@link #readPage}.
+     */
+    Iterator<Product> iterator();
+
+    long getRowCount();
+
+    int getDistinctNameCount();
+
+    List<Product> getByStore(String store);
+
+    NavigableSet<LocalDate> getDates();
+
+    List<Product> getByDate(LocalDate date);
+
+    /**
+     * The rows of {@link #getByDate}, one list per store, in the same order.
+     */
+    Collection<List<Product>> getStorePartitions(LocalDate date);
+
+    List<Product> findByNameAndDate(String productName, LocalDate date);
+
+    List<Product> findByNameAndDate(Symbol productName, LocalDate date);
+
+    List<Product> findByName(String productName);
+
+    /**
+     * One product per distinct name containing the query (ignoring case and diacritics), at most
+     * {@code limit} of them, in the order the names were first loaded. Each name is represented by
+     * its row from the latest date it appears on.
+     */
+    List<Product> searchByName(String query, int limit);
+
+    Set<String> getAllBrands();
+
+    /**
+     * Daily price aggregates for one store and category; {@code null} for either means all of them.
+     */
+    NavigableMap<LocalDate, PriceAggregate> getDailyStats(String store, String category);
+
+    /**
+     * A row of the (date, store, load order) sequence: the {@code offset}-th row of that store on
+     * that date.
+     */
+    record RowPosition(LocalDate date, String store, int offset) {
+        public static final RowPosition START = new RowPosition(LocalDate.MIN, "", 0);
+    }
+}
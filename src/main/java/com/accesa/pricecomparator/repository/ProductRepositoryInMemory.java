@@ -1,33 +1,203 @@
 package com.accesa.pricecomparator.repository;
 
+import com.accesa.pricecomparator.model.PriceAggregate;
 import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Product rows partitioned by date, plus a trigram index over the distinct names. The whole state
+ * is an immutable snapshot behind a volatile reference: a reader takes the current snapshot once and
+ * never sees a file half-applied, while an append copies only the partitions of the dates it touches
+ * and then swaps the reference. The dates are a {@link PersistentTreeMap} and the name index shares
+ * its storage between versions, so publishing a file costs the same however long the archive is.
+ * <p>
+ * Rows are canonicalized through the {@link SymbolTable} on the way in, and every index is keyed
+ * by {@link Symbol}, so lookups never fold case.
+ * <p>
+ * The price aggregates of {@link PriceStatsCube} are part of the snapshot, so they change in the
+ * same swap as the rows.
+ */
 @Repository
-public class ProductRepositoryInMemory {
-    private final Map<String, List<Product>> storeProducts = new HashMap<>();
+@Profile("!postgres")
+public class ProductRepositoryInMemory implements ProductRepository {
 
-    public void addProducts(String store, List<Product> products) {
-        storeProducts.computeIfAbsent(store, k -> new ArrayList<>()).addAll(products);
+    private volatile Snapshot snapshot = new Snapshot(PersistentTreeMap.empty(), NameSearchIndex.EMPTY,
+            PriceStatsCube.EMPTY);
+
+    // null pentru layout-ul ROWS
+    private final ProductColumnStore columnStore;
+    private final SymbolTable symbols;
+
+    public ProductRepositoryInMemory(@Value("${pricecomparator.storage.layout:ROWS}") StorageLayout layout,
+                                     SymbolTable symbols) {
+        this.columnStore = layout == StorageLayout.COLUMNAR ? new ProductColumnStore() : null;
+        this.symbols = symbols;
+    }
+
+    // apelat concurent de task-urile de incarcare, cate un fisier pe apel; nimic nu supravietuieste unui restart,
+    // deci fisierul sursa nu e retinut
+    @Override
+    public synchronized void addProducts(String store, List<Product> products, String sourceFile) {
+        if (products.isEmpty()) return;
+
+        products.forEach(symbols::canonicalize);
+        List<Product> rows = columnStore != null ? columnStore.appendAll(products) : products;
+
+        Map<LocalDate, List<Product>> rowsByDate = new HashMap<>();
+        for (Product p : rows) {
+            rowsByDate.computeIfAbsent(p.getDate(), d -> new ArrayList<>()).add(p);
+        }
+
+        Snapshot current = snapshot;
+        PersistentTreeMap<LocalDate, DayPartition> next = current.days();
+        Symbol storeSymbol = symbols.intern(store);
+        for (Map.Entry<LocalDate, List<Product>> e : rowsByDate.entrySet()) {
+            next = next.with(e.getKey(),
+                    next.getOrDefault(e.getKey(), DayPartition.EMPTY).with(storeSymbol, e.getValue(), symbols, this::newList));
+        }
+
+        snapshot = new Snapshot(next, current.names().with(rows, symbols), current.stats().with(rows, symbols));
+    }
+
+    @Override
+    public NavigableMap<LocalDate, PriceAggregate> getDailyStats(String store, String category) {
+        Symbol storeKey = symbols.find(store);
+        Symbol categoryKey = symbols.find(category);
+        if ((store != null && storeKey == null) || (category != null && categoryKey == null)) {
+            return Collections.emptyNavigableMap();
+        }
+        return snapshot.stats().daily(storeKey, categoryKey);
     }
 
+    @Override
     public List<Product> getAll() {
-        return storeProducts.values().stream().flatMap(List::stream).toList();
+        return snapshot.days().values().stream()
+                .flatMap(day -> day.byStore().values().stream())
+                .flatMap(List::stream)
+                .toList();
     }
 
+    @Override
+    public RowPosition readPage(RowPosition from, int limit, List<Product> out) {
+        PersistentTreeMap<LocalDate, DayPartition> days = snapshot.days();
+        for (LocalDate date : days.keySet().tailSet(from.date(), true)) {
+            DayPartition day = days.get(date);
+            boolean firstDay = date.equals(from.date());
+            for (Symbol store : new TreeSet<>(day.byStore().keySet())) {
+                if (firstDay && store.key().compareTo(from.store()) < 0) continue;
+
+                List<Product> rows = day.byStore().get(store);
+                int start = firstDay && store.key().equals(from.store()) ? from.offset() : 0;
+                for (int i = start; i < rows.size(); i++) {
+                    if (out.size() == limit) return new RowPosition(date, store.key(), i);
+                    out.add(rows.get(i));
+                }
+            }
+        }
+        return null;
+    }
+
+    // peste snapshot-ul curent la momentul apelului
+    @Override
+    public Iterator<Product> iterator() {
+        return snapshot.days().values().stream()
+                .flatMap(day -> new TreeMap<>(day.byStore()).values().stream())
+                .flatMap(List::stream)
+                .iterator();
+    }
+
+    @Override
+    public long getRowCount() {
+        return snapshot.days().values().stream()
+                .flatMap(day -> day.byStore().values().stream())
+                .mapToLong(List::size)
+                .sum();
+    }
+
+    // dimensiunile indexului de nume: nume distincte si trigrame distincte
+    @Override
+    public int getDistinctNameCount() {
+        return snapshot.names().size();
+    }
+
+    public int getNameTrigramCount() {
+        return snapshot.names().trigramCount();
+    }
+
+    @Override
     public List<Product> getByStore(String store) {
-        return storeProducts.getOrDefault(store, List.of());
+        Symbol key = symbols.find(store);
+        if (key == null) return List.of();
+        return snapshot.days().values().stream()
+                .map(day -> day.byStore().getOrDefault(key, List.of()))
+                .flatMap(List::stream)
+                .toList();
     }
 
-    public List<Product> searchByName(String query) {
-        return getAll().stream()
-                .filter(p -> p.getProductName().toLowerCase().contains(query.toLowerCase()))
+    @Override
+    public NavigableSet<LocalDate> getDates() {
+        return snapshot.days().keySet();
+    }
+
+    @Override
+    public List<Product> getByDate(LocalDate date) {
+        return getStorePartitions(date).stream().flatMap(List::stream).toList();
+    }
+
+    @Override
+    public Collection<List<Product>> getStorePartitions(LocalDate date) {
+        DayPartition day = snapshot.days().get(date);
+        return day == null ? List.of() : day.byStore().values();
+    }
+
+    @Override
+    public List<Product> findByNameAndDate(String productName, LocalDate date) {
+        return findByNameAndDate(symbols.find(productName), date);
+    }
+
+    @Override
+    public List<Product> findByNameAndDate(Symbol productName, LocalDate date) {
+        DayPartition day = snapshot.days().get(date);
+        if (day == null || productName == null) return List.of();
+        return day.byName().getOrDefault(productName, List.of());
+    }
+
+    @Override
+    public List<Product> findByName(String productName) {
+        Symbol key = symbols.find(productName);
+        if (key == null) return List.of();
+        return snapshot.days().values().stream()
+                .map(day -> day.byName().getOrDefault(key, List.of()))
+                .flatMap(List::stream)
                 .toList();
     }
 
+    @Override
+    public List<Product> searchByName(String query, int limit) {
+        Snapshot current = snapshot;
+        List<Product> result = new ArrayList<>();
+        for (Symbol key : current.names().search(query, limit)) {
+            for (Iterator<LocalDate> dates = current.days().keySet().descendingIterator(); dates.hasNext(); ) {
+                List<Product> rows = current.days().get(dates.next()).byName().get(key);
+                if (rows != null) {
+                    result.add(rows.get(0));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
     public Set<String> getAllBrands() {
         return getAll().stream()
                 .map(Product::getBrand)
@@ -35,5 +205,42 @@ public class ProductRepositoryInMemory {
                 .collect(Collectors.toCollection(TreeSet::new)); // sortat alfabetic
     }
 
+    private List<Product> newList() {
+        return columnStore != null ? columnStore.newRowList() : new ArrayList<>();
+    }
+
+    // datele sortate crescator, fiecare cu produsele ei pe magazin si pe nume
+    private record Snapshot(PersistentTreeMap<LocalDate, DayPartition> days, NameSearchIndex names,
+                            PriceStatsCube stats) {
+    }
+
+    /**
+     * Products of one date. Never modified once published; {@link #with} returns a copy that
+     * shares every list the new rows do not touch.
+     */
+    private record DayPartition(Map<Symbol, List<Product>> byStore, Map<Symbol, List<Product>> byName) {
+        static final DayPartition EMPTY = new DayPartition(Map.of(), Map.of());
+
+        DayPartition with(Symbol store, List<Product> rows, SymbolTable symbols, Supplier<List<Product>> newList) {
+            Map<Symbol, List<Product>> stores = new HashMap<>(byStore);
+            stores.put(store, concat(byStore.get(store), rows, newList));
+
+            Map<Symbol, List<Product>> addedByName = new HashMap<>();
+            for (Product p : rows) {
+                addedByName.computeIfAbsent(symbols.intern(p.getProductName()), n -> new ArrayList<>()).add(p);
+            }
+            Map<Symbol, List<Product>> names = new HashMap<>(byName);
+            addedByName.forEach((name, added) -> names.put(name, concat(byName.get(name), added, newList)));
+
+            return new DayPartition(stores, names);
+        }
+
+        private static List<Product> concat(List<Product> existing, List<Product> added, Supplier<List<Product>> newList) {
+            List<Product> list = newList.get();
+            if (existing != null) list.addAll(existing);
+            list.addAll(added);
+            return list;
+        }
+    }
 
 }
@@ -0,0 +1,258 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.PriceAggregate;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Product rows in PostgreSQL (table {@code product}, see {@code db/postgres/schema.sql}), used under
+ * the {@code postgres} profile.
+ * <p>
+ * A file is written in one transaction with {@code COPY ... FROM STDIN}, and every query is pushed
+ * down to an index: (name_key, date), (store_key, date), (category_key, date) and the unique
+ * (date, store_key, seq) page order, where {@code seq} is the position of a row among the rows of
+ * its store on its date. The keys are computed with {@link TextNormalizer}, as in the
+ * {@link SymbolTable}, and the rows read back are canonicalized through the table so the services
+ * can keep comparing symbols.
+ * <p>
+ * Substring search is a {@code LIKE} over the folded names, which scans the table; see
+ * {@link ProductRepositoryInMemory} for the trigram index.
+ */
+@Repository
+@Profile("postgres")
+public class ProductRepositoryJdbc implements ProductRepository {
+
+    private static final String COLUMNS =
+            "product_id, product_name, product_category, brand, package_quantity, package_unit, price, currency, date, store";
+    private static final String COPY_SQL = "COPY product (" + COLUMNS
+            + ", name_key, name_folded, category_key, store_key, seq, source_file) FROM STDIN (FORMAT csv)";
+    private static final String PAGE_ORDER = " ORDER BY date, store_key, seq";
+    private static final int ITERATOR_PAGE_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final SymbolTable symbols;
+    private final int copyBufferBytes;
+    // citite la primul apel si actualizate dupa fiecare fisier; doar acest repository scrie in tabel
+    private volatile NavigableSet<LocalDate> dates;
+
+    public ProductRepositoryJdbc(JdbcTemplate jdbc,
+                                 PlatformTransactionManager transactionManager,
+                                 SymbolTable symbols,
+                                 @Value("${pricecomparator.jdbc.copy-buffer-bytes:1048576}") int copyBufferBytes) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.symbols = symbols;
+        this.copyBufferBytes = copyBufferBytes;
+    }
+
+    // serializat: seq-ul urmator al fiecarui (data, magazin) e citit inainte de COPY
+    @Override
+    public synchronized void addProducts(String store, List<Product> products, String sourceFile) {
+        if (products.isEmpty()) return;
+
+        products.forEach(symbols::canonicalize);
+        String storeKey = TextNormalizer.normalize(store);
+        Map<LocalDate, Integer> nextSeq = new HashMap<>();
+
+        tx.executeWithoutResult(status -> {
+            // randurile ramase de la o incarcare a aceluiasi fisier intrerupta inainte sa fie inregistrat
+            if (sourceFile != null) {
+                jdbc.update("DELETE FROM product WHERE source_file = ?", sourceFile);
+            }
+            for (Product p : products) {
+                nextSeq.computeIfAbsent(p.getDate(), date -> jdbc.queryForObject(
+                        "SELECT coalesce(max(seq) + 1, 0) FROM product WHERE date = ? AND store_key = ?",
+                        Integer.class, date, storeKey));
+            }
+            jdbc.execute((ConnectionCallback<Long>) connection -> {
+                try (PgCopyWriter out = new PgCopyWriter(connection, COPY_SQL, copyBufferBytes)) {
+                    for (Product p : products) {
+                        out.field(p.getProductId()).field(p.getProductName()).field(p.getProductCategory())
+                                .field(p.getBrand()).field(p.getPackageQuantity()).field(p.getPackageUnit())
+                                .field(p.getPrice()).field(p.getCurrency()).field(p.getDate()).field(p.getStore())
+                                .field(TextNormalizer.normalize(p.getProductName()))
+                                .field(TextNormalizer.fold(p.getProductName()))
+                                .field(p.getProductCategory() == null ? null : TextNormalizer.normalize(p.getProductCategory()))
+                                .field(storeKey)
+                                .field(nextSeq.merge(p.getDate(), 1, Integer::sum) - 1)
+                                .field(sourceFile);
+                        out.endRow();
+                    }
+                    return out.finish();
+                }
+            });
+        });
+
+        NavigableSet<LocalDate> next = new TreeSet<>(getDates());
+        next.addAll(nextSeq.keySet());
+        dates = Collections.unmodifiableNavigableSet(next);
+    }
+
+    @Override
+    public List<Product> getAll() {
+        return jdbc.query("SELECT " + COLUMNS + " FROM product" + PAGE_ORDER, this::mapRow);
+    }
+
+    @Override
+    public RowPosition readPage(RowPosition from, int limit, List<Product> out) {
+        // un rand in plus: pozitia lui e cursorul paginii urmatoare
+        return jdbc.query("SELECT " + COLUMNS + ", store_key, seq FROM product"
+                        + " WHERE (date, store_key, seq) >= (?, ?, ?)" + PAGE_ORDER + " LIMIT ?",
+                (ResultSetExtractor<RowPosition>) rs -> {
+                    while (rs.next()) {
+                        if (out.size() == limit) {
+                            return new RowPosition(rs.getObject("date", LocalDate.class), rs.getString("store_key"), rs.getInt("seq"));
+                        }
+                        out.add(mapRow(rs, 0));
+                    }
+                    return null;
+                },
+                from.date(), from.store(), from.offset(), limit - out.size() + 1);
+    }
+
+    @Override
+    public Iterator<Product> iterator() {
+        return new PagedIterator<>(this::readPage, RowPosition.START, ITERATOR_PAGE_SIZE);
+    }
+
+    @Override
+    public long getRowCount() {
+        return jdbc.queryForObject("SELECT count(*) FROM product", Long.class);
+    }
+
+    @Override
+    public int getDistinctNameCount() {
+        return jdbc.queryForObject("SELECT count(DISTINCT name_key) FROM product", Integer.class);
+    }
+
+    @Override
+    public List<Product> getByStore(String store) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM product WHERE store_key = ? ORDER BY date, seq",
+                this::mapRow, TextNormalizer.normalize(store));
+    }
+
+    @Override
+    public NavigableSet<LocalDate> getDates() {
+        NavigableSet<LocalDate> current = dates;
+        if (current == null) {
+            current = Collections.unmodifiableNavigableSet(new TreeSet<>(jdbc.queryForList(
+                    "SELECT DISTINCT date FROM product", LocalDate.class)));
+            dates = current;
+        }
+        return current;
+    }
+
+    @Override
+    public List<Product> getByDate(LocalDate date) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM product WHERE date = ? ORDER BY store_key, seq",
+                this::mapRow, date);
+    }
+
+    // grupate dupa store_key, in ordinea din getByDate
+    @Override
+    public Collection<List<Product>> getStorePartitions(LocalDate date) {
+        Map<String, List<Product>> byStore = new LinkedHashMap<>();
+        jdbc.query("SELECT " + COLUMNS + ", store_key FROM product WHERE date = ? ORDER BY store_key, seq",
+                rs -> {
+                    byStore.computeIfAbsent(rs.getString("store_key"), k -> new ArrayList<>()).add(mapRow(rs, 0));
+                }, date);
+        return byStore.values();
+    }
+
+    @Override
+    public List<Product> findByNameAndDate(String productName, LocalDate date) {
+        return findByNameKeyAndDate(TextNormalizer.normalize(productName), date);
+    }
+
+    @Override
+    public List<Product> findByNameAndDate(Symbol productName, LocalDate date) {
+        return productName == null ? List.of() : findByNameKeyAndDate(productName.key(), date);
+    }
+
+    @Override
+    public List<Product> findByName(String productName) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM product WHERE name_key = ? ORDER BY date, id",
+                this::mapRow, TextNormalizer.normalize(productName));
+    }
+
+    @Override
+    public List<Product> searchByName(String query, int limit) {
+        // cel mai recent rand al fiecarui nume, numele in ordinea in care au aparut prima oara
+        return jdbc.query("SELECT " + COLUMNS + " FROM ("
+                        + "SELECT DISTINCT ON (name_key) *, min(id) OVER (PARTITION BY name_key) AS first_id"
+                        + " FROM product WHERE name_folded LIKE ? ESCAPE '\\'"
+                        + " ORDER BY name_key, date DESC, id) latest"
+                        + " ORDER BY first_id LIMIT ?",
+                this::mapRow, "%" + escapeLike(TextNormalizer.fold(query)) + "%", limit);
+    }
+
+    @Override
+    public Set<String> getAllBrands() {
+        return new TreeSet<>(jdbc.queryForList(
+                "SELECT DISTINCT brand FROM product WHERE brand IS NOT NULL", String.class)); // sortat alfabetic
+    }
+
+    @Override
+    public NavigableMap<LocalDate, PriceAggregate> getDailyStats(String store, String category) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT date, count(*), sum(price), min(price), max(price) FROM product WHERE true");
+        List<Object> args = new ArrayList<>();
+        if (store != null) {
+            sql.append(" AND store_key = ?");
+            args.add(TextNormalizer.normalize(store));
+        }
+        if (category != null) {
+            sql.append(" AND category_key = ?");
+            args.add(TextNormalizer.normalize(category));
+        }
+        sql.append(" GROUP BY date");
+
+        NavigableMap<LocalDate, PriceAggregate> result = new TreeMap<>();
+        jdbc.query(sql.toString(), rs -> {
+            result.put(rs.getObject(1, LocalDate.class),
+                    PriceAggregate.of(rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)));
+        }, args.toArray());
+        return Collections.unmodifiableNavigableMap(result);
+    }
+
+    private List<Product> findByNameKeyAndDate(String nameKey, LocalDate date) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM product WHERE name_key = ? AND date = ? ORDER BY id",
+                this::mapRow, nameKey, date);
+    }
+
+    private Product mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Product p = new Product(
+                rs.getString("product_id"),
+                rs.getString("product_name"),
+                rs.getString("product_category"),
+                rs.getString("brand"),
+                rs.getDouble("package_quantity"),
+                rs.getString("package_unit"),
+                rs.getLong("price"),
+                rs.getString("currency"),
+                rs.getObject("date", LocalDate.class),
+                rs.getString("store"));
+        symbols.canonicalize(p);
+        return p;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
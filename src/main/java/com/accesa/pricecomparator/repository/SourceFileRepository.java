@@ -0,0 +1,20 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.repository.BinarySnapshot.SourceFile;
+
+import java.util.Collection;
+
+/**
+ * The CSV files whose rows are already published, by file name. Lives next to the rows, so a
+ * persistent store remembers across restarts which files it no longer needs to load.
+ */
+public interface SourceFileRepository {
+
+    boolean contains(String name);
+
+    void save(SourceFile file);
+
+    Collection<SourceFile> findAll();
+
+    int size();
+}
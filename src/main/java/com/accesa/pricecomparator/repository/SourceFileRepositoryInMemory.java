@@ -0,0 +1,37 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.repository.BinarySnapshot.SourceFile;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@Profile("!postgres")
+public class SourceFileRepositoryInMemory implements SourceFileRepository {
+
+    private final Map<String, SourceFile> files = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean contains(String name) {
+        return files.containsKey(name);
+    }
+
+    @Override
+    public void save(SourceFile file) {
+        files.put(file.name(), file);
+    }
+
+    @Override
+    public Collection<SourceFile> findAll() {
+        return List.copyOf(files.values());
+    }
+
+    @Override
+    public int size() {
+        return files.size();
+    }
+}
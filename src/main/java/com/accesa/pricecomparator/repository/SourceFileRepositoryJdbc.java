@@ -0,0 +1,46 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.repository.BinarySnapshot.SourceFile;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Loaded CSV files in PostgreSQL (table {@code source_file}), used under the {@code postgres}
+ * profile, so a restart against the same database skips the files it already holds.
+ */
+@Repository
+@Profile("postgres")
+public class SourceFileRepositoryJdbc implements SourceFileRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public SourceFileRepositoryJdbc(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM source_file WHERE name = ?)", Boolean.class, name);
+    }
+
+    @Override
+    public void save(SourceFile file) {
+        jdbc.update("INSERT INTO source_file (name, size, last_modified) VALUES (?, ?, ?)"
+                        + " ON CONFLICT (name) DO UPDATE SET size = excluded.size, last_modified = excluded.last_modified",
+                file.name(), file.size(), file.lastModified());
+    }
+
+    @Override
+    public Collection<SourceFile> findAll() {
+        return jdbc.query("SELECT name, size, last_modified FROM source_file ORDER BY name",
+                (rs, rowNum) -> new SourceFile(rs.getString(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    @Override
+    public int size() {
+        return jdbc.queryForObject("SELECT count(*) FROM source_file", Integer.class);
+    }
+}
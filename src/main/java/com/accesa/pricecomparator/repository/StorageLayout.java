@@ -0,0 +1,8 @@
+package com.accesa.pricecomparator.repository;
+
+public enum StorageLayout {
+    // un obiect Product per rand
+    ROWS,
+    // coloane primitive + dictionar de string-uri, vezi ProductColumnStore
+    COLUMNAR
+}
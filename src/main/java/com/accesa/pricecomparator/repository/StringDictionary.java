@@ -0,0 +1,39 @@
+package com.accesa.pricecomparator.repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps repeating strings (store, category, brand, unit...) to dense int codes so that column
+ * stores keep one copy of every distinct value. Code -1 stands for null.
+ */
+public class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    // volatile: decode poate rula concurent cu encode
+    private volatile String[] values = new String[256];
+    private int size;
+
+    public int encode(String value) {
+        if (value == null) return -1;
+        Integer code = codes.get(value);
+        if (code != null) return code;
+
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+
+    public String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    public int size() {
+        return size;
+    }
+}
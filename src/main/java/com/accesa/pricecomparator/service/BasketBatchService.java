@@ -0,0 +1,99 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.dto.BasketBatchResponse;
+import com.accesa.pricecomparator.dto.BasketBatchResult;
+import com.accesa.pricecomparator.dto.BasketRequest;
+import com.accesa.pricecomparator.util.DateUtils;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates many basket optimizations in one call, in parallel on a dedicated bounded pool so a
+ * large batch cannot starve the common pool or the web threads.
+ */
+@Service
+public class BasketBatchService {
+
+    private final PriceComparatorService comparatorService;
+    private final EffectivePriceService priceService;
+    private final ForkJoinPool pool;
+    private final int maxBatchSize;
+
+    public BasketBatchService(PriceComparatorService comparatorService,
+                              EffectivePriceService priceService,
+                              @Value("${pricecomparator.basket.batch-parallelism:0}") int parallelism,
+                              @Value("${pricecomparator.basket.max-batch-size:10000}") int maxBatchSize) {
+        this.comparatorService = comparatorService;
+        this.priceService = priceService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Optimizes every basket and returns the results in request order. A basket with an invalid
+     * date gets an error entry instead of failing the whole batch.
+     */
+    public BasketBatchResponse optimizeBaskets(List<BasketRequest> baskets) {
+        long start = System.nanoTime();
+
+        // tabelul de preturi (si indexul de substitutii) al fiecarei date incarcate se construieste o singura
+        // data, inainte de a imparti cosurile pe thread-uri; numarul lor e limitat de datele incarcate, nu de
+        // cerere. Celelalte date nu au randuri, iar tabelul lor gol nu ramane in cache.
+        baskets.stream()
+                .map(BasketRequest::getDate)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(date -> {
+                    try {
+                        LocalDate parsed = LocalDate.parse(date);
+                        if (priceService.isLoaded(parsed)) priceService.getTable(parsed);
+                    } catch (RuntimeException ignored) {
+                        // data invalida, raportata pe cosul respectiv
+                    }
+                });
+
+        List<BasketBatchResult> results;
+        try {
+            results = pool.submit(() -> IntStream.range(0, baskets.size())
+                    .parallel()
+                    .mapToObj(i -> optimize(i, baskets.get(i)))
+                    .toList()).get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to optimize basket batch", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while optimizing basket batch", e);
+        }
+
+        return new BasketBatchResponse(results, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private BasketBatchResult optimize(int index, BasketRequest request) {
+        long start = System.nanoTime();
+        try {
+            LocalDate date = DateUtils.parse(request.getDate());
+            List<String> names = request.getProductNames() != null ? request.getProductNames() : List.of();
+            return new BasketBatchResult(index, comparatorService.optimizeBasket(names, date), null,
+                    (System.nanoTime() - start) / 1_000);
+        } catch (RuntimeException e) {
+            return new BasketBatchResult(index, null, e.getMessage(), (System.nanoTime() - start) / 1_000);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
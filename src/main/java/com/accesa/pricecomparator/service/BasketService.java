@@ -1,11 +1,11 @@
 package com.accesa.pricecomparator.service;
 
 import com.accesa.pricecomparator.dto.*;
-import com.accesa.pricecomparator.model.Discount;
-import com.accesa.pricecomparator.model.Product;
-import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
-import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.model.EffectivePrice;
+import com.accesa.pricecomparator.model.EffectivePriceTable;
+import com.accesa.pricecomparator.model.Money;
 import com.accesa.pricecomparator.util.DateUtils;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -13,48 +13,38 @@ import java.util.*;
 
 
 @Service
+@Timed(value = "pricecomparator.service", histogram = true)
 public class BasketService {
 
-    private final ProductRepositoryInMemory productRepo;
-    private final DiscountRepositoryInMemory discountRepo;
+    private final EffectivePriceService priceService;
+    private final BudgetSolverService budgetSolver;
 
-    public BasketService(ProductRepositoryInMemory productRepo,
-                         DiscountRepositoryInMemory discountRepo) {
-        this.productRepo = productRepo;
-        this.discountRepo = discountRepo;
+    public BasketService(EffectivePriceService priceService,
+                         BudgetSolverService budgetSolver) {
+        this.priceService = priceService;
+        this.budgetSolver = budgetSolver;
     }
 
     public BasketInvoiceResponse getInvoice(BasketRequest request) {
         LocalDate date = DateUtils.parse(request.getDate());
-
-        List<Product> all = productRepo.getAll();
-        List<Discount> discounts = discountRepo.getAll();
+        EffectivePriceTable table = priceService.getTable(date);
 
         List<BasketInvoiceItem> items = new ArrayList<>();
-        double total = 0;
-        double saved = 0;
+        long total = 0;
+        long saved = 0;
 
         for (String name : request.getProductNames()) {
-            Optional<Product> cheapest = all.stream()
-                    .filter(p -> p.getProductName().equalsIgnoreCase(name) && p.getDate().isEqual(date))
-                    .map(p -> applyDiscount(p, discounts, date))
-                    .min(Comparator.comparingDouble(Product::getPrice));
-
-            if (cheapest.isPresent()) {
-                Product p = cheapest.get();
-                double orig = all.stream()
-                        .filter(prod -> prod.getProductName().equalsIgnoreCase(name)
-                                && prod.getStore().equalsIgnoreCase(p.getStore())
-                                && prod.getDate().isEqual(date))
-                        .mapToDouble(Product::getPrice)
-                        .findFirst()
-                        .orElse(p.getPrice());
-
-                double diff = orig - p.getPrice();
-                total += p.getPrice();
+            EffectivePrice p = table.findCheapest(name);
+
+            if (p != null) {
+                long orig = p.getBasePrice();
+
+                long diff = orig - p.getFinalPrice();
+                total += p.getFinalPrice();
                 saved += diff;
 
-                items.add(new BasketInvoiceItem(p.getProductName(), p.getStore(), orig, p.getPrice(), diff));
+                items.add(new BasketInvoiceItem(p.getProduct().getProductName(), p.getProduct().getStore(),
+                        orig, p.getFinalPrice(), diff));
             }
         }
 
@@ -62,74 +52,35 @@ public class BasketService {
     }
 
     public BasketResponse getWithinBudget(BudgetRequest request) {
-        LocalDate date = request.getDate();
-        double budget = request.getMaxBudget();
-
-        List<Product> available = productRepo.getAll().stream()
-                .filter(p -> p.getDate().isEqual(date))
-                .filter(p -> request.getCategories().contains(p.getProductCategory()))
-                .sorted(Comparator.comparingDouble(Product::getPrice))
-                .toList();
-
-        List<Product> selected = new ArrayList<>();
-        double total = 0;
-
-        for (Product p : available) {
-            if (total + p.getPrice() <= budget) {
-                selected.add(p);
-                total += p.getPrice();
-            }
+        List<String> categories = request.getCategories() != null ? request.getCategories() : List.of();
+
+        // ofertele fiecarui produs din categoriile cerute
+        List<List<EffectivePrice>> offers = new ArrayList<>();
+        for (List<EffectivePrice> rows : priceService.getTable(request.getDate()).getRowsByName().values()) {
+            List<EffectivePrice> matching = rows.stream()
+                    .filter(r -> categories.contains(r.getProduct().getProductCategory()))
+                    .toList();
+            if (!matching.isEmpty()) offers.add(matching);
         }
 
-        List<BasketItemResponse> items = selected.stream()
-                .map(p -> new BasketItemResponse(p.getProductName(), p.getStore(), p.getPrice()))
-                .toList();
-
-        return new BasketResponse(items, total, List.of());
+        return budgetSolver.solve(offers, request.getMaxBudget(), request.getObjective());
     }
 
     public Map<LocalDate, Double> compareBasketAcrossDays(BasketComparisonRequest req) {
-        List<Product> all = productRepo.getAll();
-        List<Discount> discounts = discountRepo.getAll();
-
         Map<LocalDate, Double> result = new TreeMap<>();
 
         for (LocalDate date : req.getDates()) {
-            double total = 0;
+            EffectivePriceTable table = priceService.getTable(date);
+            long total = 0;
 
             for (String name : req.getProductNames()) {
-                Optional<Product> cheapest = all.stream()
-                        .filter(p -> p.getProductName().equalsIgnoreCase(name) && p.getDate().isEqual(date))
-                        .map(p -> applyDiscount(p, discounts, date))
-                        .min(Comparator.comparingDouble(Product::getPrice));
-
-                total += cheapest.map(Product::getPrice).orElse(0.0);
+                EffectivePrice cheapest = table.findCheapest(name);
+                if (cheapest != null) total += cheapest.getFinalPrice();
             }
 
-            result.put(date, total);
+            result.put(date, Money.toDouble(total));
         }
 
         return result;
     }
-
-    private Product applyDiscount(Product p, List<Discount> discounts, LocalDate date) {
-        double price = p.getPrice();
-
-        Discount d = discounts.stream()
-                .filter(dis -> dis.getProductName().equalsIgnoreCase(p.getProductName())
-                        && dis.getStore().equalsIgnoreCase(p.getStore())
-                        && !date.isBefore(dis.getFromDate()) && !date.isAfter(dis.getToDate()))
-                .findFirst()
-                .orElse(null);
-
-        if (d != null) {
-            price -= price * d.getPercentageOfDiscount() / 100.0;
-        }
-
-        return new Product(
-                p.getProductId(), p.getProductName(), p.getProductCategory(), p.getBrand(),
-                p.getPackageQuantity(), p.getPackageUnit(), price,
-                p.getCurrency(), p.getDate(), p.getStore()
-        );
-    }
 }
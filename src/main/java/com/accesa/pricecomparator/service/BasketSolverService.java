@@ -0,0 +1,250 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.dto.BasketItemResponse;
+import com.accesa.pricecomparator.dto.StoreLimitedBasketResponse;
+import com.accesa.pricecomparator.model.EffectivePrice;
+import com.accesa.pricecomparator.model.EffectivePriceTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Cheapest basket when the shopper visits at most {@code k} stores, optionally paying a fixed cost
+ * per visited store.
+ * <p>
+ * Depth-first branch and bound over the stores (take the store, then skip it), seeded with a greedy
+ * solution. At every node the chosen stores give each item its current best price; the bound adds,
+ * per item, the cheaper of that price and the cheapest price among the stores still undecided.
+ * Stores are tried in the order of how many items they are cheapest for, which finds good
+ * solutions early and makes the bound bite. When the latency budget runs out the search stops and
+ * the best solution found so far is returned, marked as not proven optimal.
+ * <p>
+ * If no {@code k} stores carry every item, the solution covers as many items as possible first and
+ * is cheapest second; the items left out are reported as not found.
+ * <p>
+ * All costs, penalties included, are exact longs; inputs whose worst case would overflow are
+ * rejected with an {@link IllegalArgumentException}.
+ */
+@Service
+public class BasketSolverService {
+
+    private static final long UNAVAILABLE = Long.MAX_VALUE;
+    // verificam ceasul doar o data la atatea noduri
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    private final EffectivePriceService priceService;
+    private final long budgetNanos;
+
+    public BasketSolverService(EffectivePriceService priceService,
+                               @Value("${pricecomparator.basket.solver-budget-ms:50}") long budgetMillis) {
+        this.priceService = priceService;
+        this.budgetNanos = budgetMillis * 1_000_000;
+    }
+
+    public StoreLimitedBasketResponse solve(List<String> productNames, LocalDate date, int maxStores, long storeVisitCost) {
+        long start = System.nanoTime();
+        EffectivePriceTable table = priceService.getTable(date);
+
+        // pretul final minim al fiecarui produs in fiecare magazin, in ordinea cererii (gol daca nu
+        // exista); doar produsele gasite devin coloane in cautare
+        List<Map<String, EffectivePrice>> requested = new ArrayList<>();
+        List<Map<String, EffectivePrice>> offers = new ArrayList<>();
+        SortedSet<String> storeSet = new TreeSet<>();
+        for (String name : productNames) {
+            Map<String, EffectivePrice> byStore = new HashMap<>();
+            for (EffectivePrice r : table.findByName(name)) {
+                byStore.merge(r.getProduct().getStore(), r,
+                        (a, b) -> b.getFinalPrice() < a.getFinalPrice() ? b : a);
+            }
+            requested.add(byStore);
+            if (byStore.isEmpty()) continue;
+            offers.add(byStore);
+            storeSet.addAll(byStore.keySet());
+        }
+
+        List<String> stores = new ArrayList<>(storeSet);
+        long[][] prices = new long[stores.size()][offers.size()];
+        for (int s = 0; s < stores.size(); s++) {
+            for (int i = 0; i < offers.size(); i++) {
+                EffectivePrice offer = offers.get(i).get(stores.get(s));
+                prices[s][i] = offer == null ? UNAVAILABLE : offer.getFinalPrice();
+            }
+        }
+
+        Search search = new Search(prices, Math.min(maxStores, stores.size()), storeVisitCost, start + budgetNanos);
+        search.run();
+
+        List<String> chosenStores = new ArrayList<>();
+        for (int s : search.best) chosenStores.add(stores.get(s));
+        Collections.sort(chosenStores);
+
+        List<BasketItemResponse> items = new ArrayList<>();
+        long itemsTotal = 0;
+        for (int i = 0; i < productNames.size(); i++) {
+            EffectivePrice pick = null;
+            for (String store : chosenStores) {
+                EffectivePrice offer = requested.get(i).get(store);
+                if (offer != null && (pick == null || offer.getFinalPrice() < pick.getFinalPrice())) pick = offer;
+            }
+            if (pick == null) {
+                items.add(new BasketItemResponse(productNames.get(i), "Not found", 0));
+            } else {
+                items.add(new BasketItemResponse(pick.getProduct().getProductName(), pick.getProduct().getStore(), pick.getFinalPrice()));
+                itemsTotal += pick.getFinalPrice();
+            }
+        }
+
+        long visitCost = storeVisitCost * chosenStores.size();
+        return new StoreLimitedBasketResponse(chosenStores, items, itemsTotal, visitCost, itemsTotal + visitCost,
+                search.optimal, search.nodes, (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+     * Branch and bound over store subsets. Objective: item prices + visit costs, plus a penalty
+     * larger than any possible cost for every item the chosen stores do not carry.
+     */
+    private static final class Search {
+        private final long[][] prices;     // [magazin in ordinea cautarii][produs]
+        private final int[] storeIds;      // pozitia in ordinea cautarii -> indexul original al magazinului
+        private final long[][] suffixMin;  // [j][produs] = pretul minim in magazinele j.. din ordine
+        private final int maxStores;
+        private final long visitCost;
+        private final long penalty;
+        private final long deadline;
+        private final long[][] current;    // [adancime][produs], pretul curent cu magazinele alese
+
+        private final int[] chosen;
+        private int[] best = new int[0];
+        private long bestCost = Long.MAX_VALUE;
+        private long nodes;
+        private boolean optimal = true;
+
+        Search(long[][] prices, int maxStores, long visitCost, long deadline) {
+            int storeCount = prices.length;
+            int items = storeCount == 0 ? 0 : prices[0].length;
+
+            // magazinele care sunt cele mai ieftine pentru mai multe produse sunt incercate primele
+            int[] wins = new int[storeCount];
+            for (int i = 0; i < items; i++) {
+                int cheapest = -1;
+                for (int s = 0; s < storeCount; s++) {
+                    if (prices[s][i] < UNAVAILABLE && (cheapest < 0 || prices[s][i] < prices[cheapest][i])) cheapest = s;
+                }
+                if (cheapest >= 0) wins[cheapest]++;
+            }
+            Integer[] order = new Integer[storeCount];
+            for (int s = 0; s < storeCount; s++) order[s] = s;
+            Arrays.sort(order, (a, b) -> wins[b] != wins[a] ? Integer.compare(wins[b], wins[a]) : Integer.compare(a, b));
+
+            this.storeIds = new int[storeCount];
+            this.prices = new long[storeCount][];
+            long maxPrice = 0;
+            for (int j = 0; j < storeCount; j++) {
+                storeIds[j] = order[j];
+                this.prices[j] = prices[order[j]];
+                for (long p : this.prices[j]) if (p < UNAVAILABLE) maxPrice = Math.max(maxPrice, p);
+            }
+
+            this.suffixMin = new long[storeCount + 1][items];
+            Arrays.fill(suffixMin[storeCount], UNAVAILABLE);
+            for (int j = storeCount - 1; j >= 0; j--) {
+                for (int i = 0; i < items; i++) suffixMin[j][i] = Math.min(suffixMin[j + 1][i], this.prices[j][i]);
+            }
+
+            this.maxStores = Math.max(0, maxStores);
+            this.visitCost = Math.max(0, visitCost);
+            // orice cost, inclusiv limita cu un magazin in plus, e cel mult items * penalty + visitCost * (storeCount + 1)
+            try {
+                this.penalty = Math.multiplyExact(Math.addExact(Math.addExact(Math.multiplyExact(maxPrice, items),
+                        Math.multiplyExact(this.visitCost, storeCount)), 1), 2);
+                Math.addExact(Math.multiplyExact(penalty, items), Math.multiplyExact(this.visitCost, storeCount + 1));
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Prices and storeVisitCost are too large to compare baskets");
+            }
+            this.deadline = deadline;
+            this.current = new long[this.maxStores + 1][items];
+            Arrays.fill(current[0], UNAVAILABLE);
+            this.chosen = new int[this.maxStores];
+        }
+
+        void run() {
+            greedy();
+            if (maxStores > 0) search(0, 0);
+        }
+
+        // solutie initiala: adaugam magazinul care scade cel mai mult costul, cat timp scade
+        private void greedy() {
+            long[] cur = current[0].clone();
+            List<Integer> picked = new ArrayList<>();
+            long cost = evaluate(cur, 0);
+            while (picked.size() < maxStores) {
+                int bestStore = -1;
+                long bestNext = cost;
+                for (int j = 0; j < prices.length; j++) {
+                    if (picked.contains(j)) continue;
+                    long next = 0;
+                    for (int i = 0; i < cur.length; i++) next += cost(Math.min(cur[i], prices[j][i]));
+                    next += visitCost * (picked.size() + 1);
+                    if (next < bestNext) {
+                        bestNext = next;
+                        bestStore = j;
+                    }
+                }
+                if (bestStore < 0) break;
+                picked.add(bestStore);
+                for (int i = 0; i < cur.length; i++) cur[i] = Math.min(cur[i], prices[bestStore][i]);
+                cost = bestNext;
+            }
+            record(picked.stream().mapToInt(Integer::intValue).toArray(), picked.size(), cost);
+        }
+
+        private void search(int next, int depth) {
+            if (++nodes % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                optimal = false;
+            }
+            if (!optimal) return;
+
+            long[] cur = current[depth];
+            long cost = evaluate(cur, depth);
+            if (cost < bestCost) record(chosen, depth, cost);
+            if (depth == maxStores || next == prices.length) return;
+
+            // limita inferioara pentru orice extindere cu magazinele next..
+            long bound = visitCost * depth;
+            boolean needsAnotherStore = false;
+            for (int i = 0; i < cur.length; i++) {
+                long reachable = Math.min(cur[i], suffixMin[next][i]);
+                bound += cost(reachable);
+                if (cur[i] == UNAVAILABLE && reachable < UNAVAILABLE) needsAnotherStore = true;
+            }
+            if (needsAnotherStore) bound += visitCost;
+            if (bound >= bestCost) return;
+
+            for (int j = next; j < prices.length; j++) {
+                long[] child = current[depth + 1];
+                for (int i = 0; i < cur.length; i++) child[i] = Math.min(cur[i], prices[j][i]);
+                chosen[depth] = j;
+                search(j + 1, depth + 1);
+                if (!optimal) return;
+            }
+        }
+
+        private long evaluate(long[] cur, int storeCount) {
+            long cost = visitCost * storeCount;
+            for (long p : cur) cost += cost(p);
+            return cost;
+        }
+
+        private long cost(long price) {
+            return price == UNAVAILABLE ? penalty : price;
+        }
+
+        private void record(int[] stores, int count, long cost) {
+            bestCost = cost;
+            best = new int[count];
+            for (int k = 0; k < count; k++) best[k] = storeIds[stores[k]];
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.dto.BasketItemResponse;
+import com.accesa.pricecomparator.dto.BasketResponse;
+import com.accesa.pricecomparator.dto.BudgetObjective;
+import com.accesa.pricecomparator.model.EffectivePrice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Best basket within a budget, over integer cents and discounted prices, with at most one offer
+ * (the cheapest) per product.
+ * <p>
+ * Only the number of items taken from each category matters to both objectives, and the cheapest
+ * items of a category are always the best ones to take. That turns the problem into a grouped
+ * knapsack: per category choose how many of its cheapest items to buy, with the value
+ * {@code count * (categories + 1) + covered} for {@link BudgetObjective#ITEM_COUNT} or
+ * {@code covered * (items + 1) + count} for {@link BudgetObjective#CATEGORY_COVERAGE}. A DP over
+ * the exact spent amount then gives the optimum, and the lowest total among equal values.
+ * <p>
+ * The DP costs (affordable items per category, summed) x budget cells, where the budget is first
+ * capped at the price of all candidates together, and takes about 4 bytes per cell. Above
+ * {@code max-cells} prices are counted in coarser units, rounded up, so the basket is still within
+ * budget but may not be optimal. If the time cap runs out, the cheapest-first greedy basket is returned.
+ */
+@Slf4j
+@Service
+public class BudgetSolverService {
+
+    private final long maxCells;
+    private final long timeCapNanos;
+
+    public BudgetSolverService(@Value("${pricecomparator.basket.budget-max-cells:2000000}") long maxCells,
+                               @Value("${pricecomparator.basket.budget-time-cap-ms:100}") long timeCapMillis) {
+        this.maxCells = maxCells;
+        this.timeCapNanos = timeCapMillis * 1_000_000;
+    }
+
+    /**
+     * @param offersByProduct the offers of each distinct product (one list per product); only the
+     *                        cheapest offer of a product is ever bought
+     * @param budget          the budget in cents
+     */
+    public BasketResponse solve(Collection<List<EffectivePrice>> offersByProduct, long budget, BudgetObjective objective) {
+        long deadline = System.nanoTime() + timeCapNanos;
+
+        // cea mai ieftina oferta a fiecarui produs, grupate pe categorii si sortate crescator
+        Map<String, List<EffectivePrice>> byCategory = new TreeMap<>();
+        for (List<EffectivePrice> offers : offersByProduct) {
+            EffectivePrice cheapest = null;
+            for (EffectivePrice offer : offers) {
+                if (cheapest == null || offer.getFinalPrice() < cheapest.getFinalPrice()) cheapest = offer;
+            }
+            if (cheapest != null && cheapest.getFinalPrice() <= budget) {
+                byCategory.computeIfAbsent(cheapest.getProduct().getProductCategory(), c -> new ArrayList<>()).add(cheapest);
+            }
+        }
+        Comparator<EffectivePrice> cheapestFirst = Comparator.comparingLong(EffectivePrice::getFinalPrice)
+                .thenComparing(o -> o.getProduct().getProductName());
+        List<List<EffectivePrice>> groups = new ArrayList<>();
+        // cel mult cat costa toti candidatii impreuna; peste atat bugetul nu mai conteaza
+        long spendable = 0;
+        for (List<EffectivePrice> group : byCategory.values()) {
+            group.sort(cheapestFirst);
+            // dintr-o categorie se pot cumpara cel mult produsele ale caror sume prefix incap in buget
+            long prefix = 0;
+            int usable = 0;
+            while (usable < group.size() && prefix + group.get(usable).getFinalPrice() <= budget) {
+                prefix += group.get(usable++).getFinalPrice();
+            }
+            groups.add(group.subList(0, usable));
+            spendable += prefix;
+        }
+
+        int candidates = groups.stream().mapToInt(List::size).sum();
+        if (candidates == 0 || budget <= 0) {
+            return response(List.of());
+        }
+
+        List<EffectivePrice> selected = knapsack(groups, candidates, Math.min(budget, spendable),
+                objective == null ? BudgetObjective.ITEM_COUNT : objective, deadline);
+        if (selected == null) {
+            log.warn("Budget solver hit its time cap with {} candidates, returning the greedy basket", candidates);
+            selected = greedy(groups, budget, cheapestFirst);
+        }
+        return response(selected);
+    }
+
+    private List<EffectivePrice> knapsack(List<List<EffectivePrice>> groups, int candidates, long budgetCents,
+                                          BudgetObjective objective, long deadline) {
+        long unit = costUnit(candidates, budgetCents);
+        if (unit > 1) {
+            log.info("Budget solver counting prices in units of {} cents for {} candidates", unit, candidates);
+        }
+        int capacity = (int) (budgetCents / unit);
+        int groupCount = groups.size();
+
+        // best[b] = valoarea maxima cu costul exact b (in unitati), -1 daca nu se poate
+        long[] best = new long[capacity + 1];
+        Arrays.fill(best, -1);
+        best[0] = 0;
+        int[][] taken = new int[groupCount][];
+
+        for (int g = 0; g < groupCount; g++) {
+            if (System.nanoTime() > deadline) return null;
+
+            List<EffectivePrice> group = groups.get(g);
+            long[] next = best.clone();
+            int[] count = new int[capacity + 1];
+            long cost = 0;
+            for (int m = 1; m <= group.size(); m++) {
+                if (System.nanoTime() > deadline) return null;
+                cost += (group.get(m - 1).getFinalPrice() + unit - 1) / unit;
+                if (cost > capacity) break;
+                long value = objective == BudgetObjective.ITEM_COUNT
+                        ? (long) m * (groupCount + 1) + 1
+                        : (long) (candidates + 1) + m;
+                int c = (int) cost;
+                for (int b = capacity; b >= c; b--) {
+                    if (best[b - c] >= 0 && best[b - c] + value > next[b]) {
+                        next[b] = best[b - c] + value;
+                        count[b] = m;
+                    }
+                }
+            }
+            best = next;
+            taken[g] = count;
+        }
+
+        // valoarea maxima, iar la egalitate costul minim
+        int end = 0;
+        for (int b = 1; b <= capacity; b++) {
+            if (best[b] > best[end]) end = b;
+        }
+
+        List<EffectivePrice> selected = new ArrayList<>();
+        int b = end;
+        for (int g = groupCount - 1; g >= 0; g--) {
+            int m = taken[g][b];
+            List<EffectivePrice> group = groups.get(g);
+            for (int k = 0; k < m; k++) {
+                selected.add(group.get(k));
+                b -= (int) ((group.get(k).getFinalPrice() + unit - 1) / unit);
+            }
+        }
+        return selected;
+    }
+
+    // unitatea de cost: 1 ban, sau mai mult daca numarul de celule DP ar depasi max-cells; pe langa
+    // candidati x buget se numara si cele doua randuri long (best, next), ca memoria sa fie ~4 octeti/celula
+    long costUnit(int candidates, long budgetCents) {
+        return Math.max(1, (long) Math.ceil((double) (candidates + 4) * (budgetCents + 1) / maxCells));
+    }
+
+    private static List<EffectivePrice> greedy(List<List<EffectivePrice>> groups, long budgetCents,
+                                               Comparator<EffectivePrice> cheapestFirst) {
+        List<EffectivePrice> all = new ArrayList<>();
+        groups.forEach(all::addAll);
+        all.sort(cheapestFirst);
+
+        List<EffectivePrice> selected = new ArrayList<>();
+        long spent = 0;
+        for (EffectivePrice offer : all) {
+            if (spent + offer.getFinalPrice() > budgetCents) break;
+            selected.add(offer);
+            spent += offer.getFinalPrice();
+        }
+        return selected;
+    }
+
+    private static BasketResponse response(List<EffectivePrice> selected) {
+        List<EffectivePrice> sorted = new ArrayList<>(selected);
+        sorted.sort(Comparator.comparingLong(EffectivePrice::getFinalPrice));
+
+        List<BasketItemResponse> items = new ArrayList<>();
+        long totalCents = 0;
+        for (EffectivePrice offer : sorted) {
+            items.add(new BasketItemResponse(offer.getProduct().getProductName(), offer.getProduct().getStore(), offer.getFinalPrice()));
+            totalCents += offer.getFinalPrice();
+        }
+        return new BasketResponse(items, totalCents, List.of());
+    }
+}
@@ -0,0 +1,36 @@
+package com.accesa.pricecomparator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+/**
+ * Polls the CSV directory and publishes store files dropped after startup, without a restart.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "pricecomparator.ingestion.watch", havingValue = "true")
+public class CsvDirectoryWatcher {
+
+    private final DataLoaderService dataLoader;
+
+    public CsvDirectoryWatcher(DataLoaderService dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
+    @Scheduled(fixedDelayString = "${pricecomparator.ingestion.poll-interval-ms:5000}",
+            initialDelayString = "${pricecomparator.ingestion.poll-interval-ms:5000}")
+    public void poll() {
+        try {
+            int loaded = dataLoader.loadNewFiles();
+            if (loaded > 0) {
+                log.info("Published {} new CSV files", loaded);
+            }
+        } catch (IOException e) {
+            log.error("Failed to scan the CSV directory", e);
+        }
+    }
+}
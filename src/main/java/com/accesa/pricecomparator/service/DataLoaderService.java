@@ -1,64 +1,383 @@
 package com.accesa.pricecomparator.service;
 
-import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
-import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
+import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.repository.BinarySnapshot;
+import com.accesa.pricecomparator.repository.BinarySnapshot.SourceFile;
+import com.accesa.pricecomparator.repository.ProductRepository;
+import com.accesa.pricecomparator.repository.DiscountRepository;
+import com.accesa.pricecomparator.repository.SourceFileRepository;
 import com.accesa.pricecomparator.util.CsvProductLoader;
 import com.accesa.pricecomparator.util.CsvDiscountLoader;
-import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+@Slf4j
 @Service
-public class DataLoaderService {
+public class DataLoaderService implements SmartInitializingSingleton {
+
+    // magazinul e orice nume din litere mici si cifre (lidl, profi, store12...)
+    private static final Pattern PRODUCT_PATTERN =
+            Pattern.compile("([a-z0-9]+)_(\\d{4}-\\d{2}-\\d{2})\\.csv");
+    private static final Pattern DISCOUNT_PATTERN =
+            Pattern.compile("([a-z0-9]+)_discounts?_(\\d{4}-\\d{2}-\\d{2})\\.csv");
 
     private final CsvProductLoader productLoader;
     private final CsvDiscountLoader discountLoader;
-    private final ProductRepositoryInMemory productRepo;
-    private final DiscountRepositoryInMemory discountRepo;
+    private final ProductRepository productRepo;
+    private final DiscountRepository discountRepo;
+    private final SourceFileRepository fileRepo;
+    private final EffectivePriceService priceService;
+    private final PriceAlertService alertService;
+    private final PriceEventService eventService;
+    private final int threads;
+    private final String dataDir;
+    private final long quietPeriodMillis;
+    private final String snapshotPath;
+    private final long snapshotDelayMillis;
+
+    // fisierele esuate (cu data modificarii la care au esuat); cele publicate sunt in fileRepo
+    private final Map<String, Long> failedFiles = new HashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
+    // suma amprentelor fisierelor publicate; nu depinde de ordinea incarcarii si nici de repornire
+    private final AtomicLong dataFingerprint = new AtomicLong();
+    private volatile Path csvDir;
+    // versiunea datelor din snapshot-ul de pe disc si momentul ultimei publicari din loadNewFiles
+    private final Object snapshotLock = new Object();
+    private volatile long snapshotVersion;
+    private volatile long lastPublishMillis;
 
     public DataLoaderService(CsvProductLoader productLoader,
                              CsvDiscountLoader discountLoader,
-                             ProductRepositoryInMemory productRepo,
-                             DiscountRepositoryInMemory discountRepo) {
+                             ProductRepository productRepo,
+                             DiscountRepository discountRepo,
+                             SourceFileRepository fileRepo,
+                             EffectivePriceService priceService,
+                             PriceAlertService alertService,
+                             PriceEventService eventService,
+                             @Value("${pricecomparator.ingestion.threads:0}") int threads,
+                             @Value("${pricecomparator.data.dir:}") String dataDir,
+                             @Value("${pricecomparator.ingestion.quiet-period-ms:2000}") long quietPeriodMillis,
+                             @Value("${pricecomparator.snapshot.path:}") String snapshotPath,
+                             @Value("${pricecomparator.snapshot.write-delay-ms:60000}") long snapshotDelayMillis) {
         this.productLoader = productLoader;
         this.discountLoader = discountLoader;
         this.productRepo = productRepo;
         this.discountRepo = discountRepo;
+        this.fileRepo = fileRepo;
+        this.priceService = priceService;
+        this.alertService = alertService;
+        this.eventService = eventService;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.dataDir = dataDir;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.snapshotPath = snapshotPath;
+        this.snapshotDelayMillis = snapshotDelayMillis;
+    }
+
+    // dupa crearea tuturor bean-urilor: thread-urile de incarcare apeleaza servicii cu proxy-uri AOP,
+    // ale caror aspecte se creeaza la primul apel, sub lock-ul pe care @PostConstruct l-ar tine ocupat
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            loadAllData();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid CSV data directory", e);
+        }
     }
 
-    @PostConstruct
     public void loadAllData() throws IOException, URISyntaxException {
-        Path csvDir = Paths.get(getClass().getResource("/data/csv").toURI());
+        long start = System.nanoTime();
+        csvDir = resolveCsvDir();
+        restoreSnapshot();
+        // fisierele restaurate din snapshot sau deja inregistrate in baza de date
+        dataFingerprint.set(fileRepo.findAll().stream().mapToLong(DataLoaderService::fingerprint).sum());
 
-        Pattern productPattern = Pattern.compile("(lidl|profi|kaufland)_(\\d{4}-\\d{2}-\\d{2})\\.csv");
-        Pattern discountPattern = Pattern.compile("(lidl|profi|kaufland)_discounts?_(\\d{4}-\\d{2}-\\d{2})\\.csv");
+        Set<String> loaded = fileRepo.findAll().stream().map(SourceFile::name).collect(Collectors.toSet());
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(csvDir)) {
+            for (Path file : stream) {
+                if (!loaded.contains(file.getFileName().toString())) files.add(file);
+            }
+        }
+        int restored = loaded.size();
+
+        // un task per fisier; repository-urile accepta adaugari concurente
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Path file : files) {
+                tasks.add(executor.submit(() -> loadFile(file)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to load CSV data from " + csvDir, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading CSV data from " + csvDir, e);
+        }
+
+        if (fileRepo.size() > restored) {
+            writeSnapshot();
+        } else {
+            snapshotVersion = dataVersion.get();
+        }
+
+        log.info("Loaded {} files from {} in {} ms using {} threads ({} already loaded)",
+                fileRepo.size(), csvDir, (System.nanoTime() - start) / 1_000_000, threads, restored);
+    }
+
+    /**
+     * Loads the matching files that appeared in the data directory since the last call. A file is
+     * only picked up once it has not been modified for the quiet period, so a drop that is still
+     * being copied is left for the next call. Each file is published on its own, atomically. The
+     * snapshot is not rewritten here but by {@link #writeSnapshotIfStale()}, once ingestion is quiet.
+     */
+    public synchronized int loadNewFiles() throws IOException {
+        long cutoff = System.currentTimeMillis() - quietPeriodMillis;
+        int loaded = 0;
 
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(csvDir)) {
             for (Path file : stream) {
                 String fileName = file.getFileName().toString();
+                if (!isDataFile(fileName) || fileRepo.contains(fileName)) continue;
 
-                Matcher productMatcher = productPattern.matcher(fileName);
-                Matcher discountMatcher = discountPattern.matcher(fileName);
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                if (modified > cutoff || Long.valueOf(modified).equals(failedFiles.get(fileName))) continue;
 
-                if (productMatcher.matches()) {
-                    String store = productMatcher.group(1);
-                    LocalDate date = LocalDate.parse(productMatcher.group(2));
-                    var products = productLoader.loadProductsFromCsv(fileName, store, date);
-                    productRepo.addProducts(store, products);
+                try {
+                    loadFile(file);
+                    failedFiles.remove(fileName);
+                    loaded++;
+                } catch (RuntimeException e) {
+                    // reincercam doar daca fisierul se schimba
+                    failedFiles.put(fileName, modified);
+                    log.error("Failed to load new file {}", fileName, e);
                 }
+            }
+        }
+
+        if (loaded > 0) {
+            lastPublishMillis = System.currentTimeMillis();
+        }
+        return loaded;
+    }
+
+    /**
+     * Counter bumped after every published file (or restored snapshot), once the derived caches
+     * have been invalidated: a result computed after reading version {@code v} reflects at least
+     * everything published up to {@code v}.
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
 
-                if (discountMatcher.matches()) {
-                    String store = discountMatcher.group(1);
-                    var discounts = discountLoader.loadDiscountsFromCsv(fileName, store);
-                    discountRepo.addDiscounts(store, discounts);
+    /**
+     * Identifies the loaded dataset by the stamps (name, size, modification time) of its source
+     * files: the same files give the same value whatever the load order, across restarts and
+     * snapshot restores, and a file replaced under the same name gives a different one. Updated
+     * together with {@link #getDataVersion}.
+     */
+    public long getDataFingerprint() {
+        return dataFingerprint.get();
+    }
+
+    /**
+     * Publishes the rows of the configured snapshot and marks the files it covers as loaded. The
+     * snapshot is ignored as a whole when any of those files was changed or removed since it was
+     * written, because its rows can then no longer be told apart from the fresh ones, and when the
+     * repositories already hold data (a persistent store), which it would duplicate.
+     */
+    private void restoreSnapshot() {
+        if (snapshotPath.isBlank() || !Files.exists(Paths.get(snapshotPath))) return;
+        if (fileRepo.size() > 0 || productRepo.getRowCount() > 0 || discountRepo.getCount() > 0) {
+            log.info("Ignoring snapshot {}: the repositories already hold data", snapshotPath);
+            return;
+        }
+
+        long start = System.nanoTime();
+        BinarySnapshot snapshot;
+        try {
+            snapshot = BinarySnapshot.read(Paths.get(snapshotPath));
+            for (SourceFile file : snapshot.getFiles()) {
+                if (!file.equals(stamp(csvDir.resolve(file.name())))) {
+                    log.warn("Ignoring snapshot {}: {} changed since it was written", snapshotPath, file.name());
+                    return;
                 }
             }
+        } catch (IOException | RuntimeException e) {
+            // orice fisier care nu se poate decoda e tratat ca lipsa; datele se reincarca din CSV
+            log.warn("Ignoring snapshot {}: {}", snapshotPath, e.toString());
+            return;
+        }
+
+        Map<String, List<Product>> productsByStore = new LinkedHashMap<>();
+        for (Product p : snapshot.getProducts()) {
+            productsByStore.computeIfAbsent(p.getStore(), k -> new ArrayList<>()).add(p);
+        }
+        productsByStore.forEach(productRepo::addProducts);
+
+        Map<String, List<Discount>> discountsByStore = new LinkedHashMap<>();
+        for (Discount d : snapshot.getDiscounts()) {
+            discountsByStore.computeIfAbsent(d.getStore(), k -> new ArrayList<>()).add(d);
+        }
+        discountsByStore.forEach(discountRepo::addDiscounts);
+
+        snapshot.getFiles().forEach(fileRepo::save);
+        dataVersion.incrementAndGet();
+        log.info("Restored {} products and {} discounts from snapshot {} in {} ms",
+                snapshot.getProducts().size(), snapshot.getDiscounts().size(), snapshotPath,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rewrites the snapshot when files were published since it was written and none for the
+     * configured delay, so a burst of drops costs one write instead of one per batch.
+     */
+    @Scheduled(fixedDelayString = "${pricecomparator.snapshot.write-delay-ms:60000}",
+            initialDelayString = "${pricecomparator.snapshot.write-delay-ms:60000}")
+    public void writeSnapshotIfStale() {
+        if (System.currentTimeMillis() - lastPublishMillis < snapshotDelayMillis) return;
+        writeSnapshot();
+    }
+
+    @PreDestroy
+    public void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+
+    private void writeSnapshot() {
+        if (snapshotPath.isBlank() || snapshotVersion == dataVersion.get()) return;
+
+        synchronized (snapshotLock) {
+            // vederea e luata sub lock-ul incarcarilor, ca fisierele si randurile sa corespunda;
+            // codarea si scrierea pe disc se fac dupa, fara sa blocheze loadNewFiles
+            long version;
+            BinarySnapshot snapshot;
+            synchronized (this) {
+                version = dataVersion.get();
+                if (version == snapshotVersion) return;
+                snapshot = new BinarySnapshot(List.copyOf(fileRepo.findAll()), productRepo.getAll(), discountRepo.getAll());
+            }
+
+            long start = System.nanoTime();
+            try {
+                snapshot.write(Paths.get(snapshotPath));
+                snapshotVersion = version;
+                log.info("Wrote snapshot {} in {} ms", snapshotPath, (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                log.warn("Failed to write snapshot {}", snapshotPath, e);
+            }
+        }
+    }
+
+    private static SourceFile stamp(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        return new SourceFile(file.getFileName().toString(), Files.size(file), Files.getLastModifiedTime(file).toMillis());
+    }
+
+    // primii 8 octeti din SHA-256 peste amprenta fisierului; adunate, nu depind de ordine
+    private static long fingerprint(SourceFile file) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(
+                    (file.name() + '\u0000' + file.size() + '\u0000' + file.lastModified()).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(hash).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Path resolveCsvDir() throws URISyntaxException {
+        if (dataDir != null && !dataDir.isBlank()) {
+            return Paths.get(dataDir);
+        }
+        return Paths.get(getClass().getResource("/data/csv").toURI());
+    }
+
+    private static boolean isDataFile(String fileName) {
+        return PRODUCT_PATTERN.matcher(fileName).matches() || DISCOUNT_PATTERN.matcher(fileName).matches();
+    }
+
+    private void loadFile(Path file) {
+        long start = System.nanoTime();
+        String fileName = file.getFileName().toString();
+        SourceFile source;
+        try {
+            // luat inainte de parsare: daca fisierul se schimba intre timp, snapshot-ul va fi refuzat
+            source = stamp(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int rows;
+
+        Matcher productMatcher = PRODUCT_PATTERN.matcher(fileName);
+        Matcher discountMatcher = DISCOUNT_PATTERN.matcher(fileName);
+
+        if (productMatcher.matches()) {
+            String store = productMatcher.group(1);
+            LocalDate date = LocalDate.parse(productMatcher.group(2));
+            var products = productLoader.loadProductsFromCsv(file, store, date);
+            boolean newDate = !productRepo.getDates().contains(date);
+            productRepo.addProducts(store, products, fileName);
+            priceService.invalidate(date);
+            eventService.publishTriggeredAlerts(alertService.onProductsLoaded(date, products));
+            if (newDate) {
+                eventService.publishExpiringDiscounts(date);
+            }
+            rows = products.size();
+        } else if (discountMatcher.matches()) {
+            String store = discountMatcher.group(1);
+            var discounts = discountLoader.loadDiscountsFromCsv(file, store);
+            discountRepo.addDiscounts(store, discounts, fileName);
+            invalidateDiscountedDates(discounts);
+            eventService.publishNewDiscounts(discounts);
+            eventService.publishTriggeredAlerts(alertService.onDiscountsLoaded(discounts));
+            rows = discounts.size();
+        } else {
+            return;
+        }
+
+        fileRepo.save(source);
+        dataFingerprint.addAndGet(fingerprint(source));
+        dataVersion.incrementAndGet();
+        log.info("Loaded {} rows from {} in {} ms", rows, fileName, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // tabelele de preturi efective pentru zilele acoperite de reducerile noi nu mai sunt valide
+    private void invalidateDiscountedDates(List<Discount> discounts) {
+        for (Discount d : discounts) {
+            priceService.invalidate(d.getFromDate(), d.getToDate());
         }
     }
 }
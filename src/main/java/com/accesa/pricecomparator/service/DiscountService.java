@@ -1,23 +1,30 @@
 package com.accesa.pricecomparator.service;
 
+import com.accesa.pricecomparator.dto.PageResponse;
 import com.accesa.pricecomparator.exception.ResourceNotFoundException;
 import com.accesa.pricecomparator.model.Discount;
-import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
+import com.accesa.pricecomparator.repository.DiscountRepository;
+import com.accesa.pricecomparator.repository.DiscountRepository.RowPosition;
 import com.accesa.pricecomparator.util.CsvDiscountLoader;
+import com.accesa.pricecomparator.util.PageCursor;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 
 @Service
+@Timed(value = "pricecomparator.service", histogram = true)
 public class DiscountService {
 
-    private final DiscountRepositoryInMemory discountRepo;
+    private final DiscountRepository discountRepo;
     private final CsvDiscountLoader discountLoader;
 
-    public DiscountService(DiscountRepositoryInMemory discountRepo, CsvDiscountLoader discountLoader) {
+    public DiscountService(DiscountRepository discountRepo, CsvDiscountLoader discountLoader) {
         this.discountRepo = discountRepo;
         this.discountLoader = discountLoader;
     }
@@ -30,8 +37,30 @@ public class DiscountService {
         return discountRepo.getAll();
     }
 
+    /**
+     * One page of every discount, ordered by store and load order. Pass the returned cursor to get
+     * the next page.
+     */
+    public PageResponse<Discount> getPage(String cursor, int limit) {
+        RowPosition from = RowPosition.START;
+        if (cursor != null) {
+            String[] fields = PageCursor.decode(cursor, 2);
+            from = new RowPosition(fields[0], PageCursor.decodeOffset(fields[1]));
+        }
+
+        List<Discount> rows = new ArrayList<>(limit);
+        RowPosition next = discountRepo.readPage(from, limit, rows);
+        return new PageResponse<>(rows, next == null ? null
+                : PageCursor.encode(next.store(), Integer.toString(next.offset())));
+    }
+
+    // toate reducerile, in ordinea paginilor, citite pe masura ce sunt scrise
+    public Iterator<Discount> iterateAll() {
+        return discountRepo.iterator();
+    }
+
     public List<Discount> getByStore(String store) {
-        return discountRepo.getByStore(store.toLowerCase());
+        return discountRepo.getByStore(store);
     }
 
     public List<Discount> getBestActive() {
@@ -48,17 +77,14 @@ public class DiscountService {
 
     public List<Discount> getAbovePercentage(String date, double percent) {
         LocalDate parsedDate = parseDate(date);
-        return discountRepo.getAll().stream()
-                .filter(d -> !parsedDate.isBefore(d.getFromDate()) && !parsedDate.isAfter(d.getToDate()))
+        return discountRepo.getActiveOn(parsedDate).stream()
                 .filter(d -> d.getPercentageOfDiscount() > percent)
                 .toList();
     }
 
     public List<Discount> getExpiring(String date) {
         LocalDate parsedDate = parseDate(date);
-        return discountRepo.getAll().stream()
-                .filter(d -> d.getToDate().isEqual(parsedDate))
-                .toList();
+        return discountRepo.getExpiringOn(parsedDate);
     }
 
     private LocalDate parseDate(String dateStr) {
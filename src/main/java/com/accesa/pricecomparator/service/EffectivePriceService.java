@@ -0,0 +1,92 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.EffectivePrice;
+import com.accesa.pricecomparator.model.EffectivePriceTable;
+import com.accesa.pricecomparator.model.EffectivePriceTable.StorePartition;
+import com.accesa.pricecomparator.model.Money;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepository;
+import com.accesa.pricecomparator.repository.ProductRepository;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+@Service
+public class EffectivePriceService {
+
+    private final ProductRepository productRepo;
+    private final DiscountRepository discountRepo;
+    private final SymbolTable symbols;
+    private final StorePartitionExecutor partitionExecutor;
+
+    private final Map<LocalDate, EffectivePriceTable> tables = new ConcurrentHashMap<>();
+
+    public EffectivePriceService(ProductRepository productRepo,
+                                 DiscountRepository discountRepo,
+                                 SymbolTable symbols,
+                                 StorePartitionExecutor partitionExecutor) {
+        this.productRepo = productRepo;
+        this.discountRepo = discountRepo;
+        this.symbols = symbols;
+        this.partitionExecutor = partitionExecutor;
+    }
+
+    /**
+     * The table of a date, cached until {@link #invalidate}. Only the loaded dates are cached: any
+     * other date has no rows, so its (empty) table is built on every call rather than letting
+     * arbitrary request dates grow the cache.
+     */
+    public EffectivePriceTable getTable(LocalDate date) {
+        if (!isLoaded(date)) return buildTable(date);
+        return tables.computeIfAbsent(date, this::buildTable);
+    }
+
+    /**
+     * Whether the date has product rows, i.e. whether its table is cached by {@link #getTable}.
+     */
+    public boolean isLoaded(LocalDate date) {
+        return productRepo.getDates().contains(date);
+    }
+
+    public int getCachedTableCount() {
+        return tables.size();
+    }
+
+    public void invalidate(LocalDate date) {
+        tables.remove(date);
+    }
+
+    public void invalidate(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) return;
+        // remove() asteapta un calcul in curs pentru aceeasi data, deci nu ramane un tabel vechi in cache
+        for (LocalDate date : productRepo.getDates().subSet(from, true, to, true)) {
+            tables.remove(date);
+        }
+    }
+
+    // fiecare magazin e evaluat separat (reduceri + cel mai ieftin per nume), apoi partitiile sunt unite in ordine
+    private EffectivePriceTable buildTable(LocalDate date) {
+        List<StorePartition> partitions = partitionExecutor.map(productRepo.getStorePartitions(date),
+                products -> StorePartition.of(products.stream().map(p -> toEffectivePrice(p, date)).toList(), symbols));
+        return new EffectivePriceTable(date, partitions, symbols);
+    }
+
+    /**
+     * The price of a single product row on the given date with its active discount applied,
+     * without building the table of that date.
+     */
+    public EffectivePrice toEffectivePrice(Product p, LocalDate date) {
+        int percentage = discountRepo.findActiveDiscount(p.getProductName(), p.getStore(), date)
+                .map(Discount::getPercentageOfDiscount)
+                .orElse(0);
+
+        return new EffectivePrice(p, p.getPrice(), percentage, Money.discounted(p.getPrice(), percentage));
+    }
+}
@@ -1,62 +1,126 @@
 package com.accesa.pricecomparator.service;
 
+import com.accesa.pricecomparator.dto.TriggeredAlert;
 import com.accesa.pricecomparator.model.Discount;
 import com.accesa.pricecomparator.model.PriceAlert;
 import com.accesa.pricecomparator.model.Product;
-import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
-import com.accesa.pricecomparator.repository.PriceAlertRepositoryInMemory;
-import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.PriceAlertRepository;
+import com.accesa.pricecomparator.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.List;
-
+import java.util.*;
 
+/**
+ * Price alerts, evaluated incrementally: the lowest final price of every alerted product is
+ * recorded per date when an alert is saved for a new product and again whenever an ingested file
+ * touches that product, so reading the triggered alerts of a date is a lookup.
+ * <p>
+ * Evaluation and alert saving share one lock, and the ingestion hooks run after the rows are
+ * published, so an alert saved while a file is loading is evaluated either by its own scan or by
+ * the hook, never by neither.
+ */
+@Slf4j
 @Service
+@Timed(value = "pricecomparator.service", histogram = true)
 public class PriceAlertService {
 
-    private final PriceAlertRepositoryInMemory alertRepo;
-    private final ProductRepositoryInMemory productRepo;
-    private final DiscountRepositoryInMemory discountRepo;
+    private final PriceAlertRepository alertRepo;
+    private final ProductRepository productRepo;
+    private final EffectivePriceService priceService;
+    private final SymbolTable symbols;
 
-    public PriceAlertService(PriceAlertRepositoryInMemory alertRepo,
-                             ProductRepositoryInMemory productRepo,
-                             DiscountRepositoryInMemory discountRepo) {
+    public PriceAlertService(PriceAlertRepository alertRepo,
+                             ProductRepository productRepo,
+                             EffectivePriceService priceService,
+                             SymbolTable symbols) {
         this.alertRepo = alertRepo;
         this.productRepo = productRepo;
-        this.discountRepo = discountRepo;
+        this.priceService = priceService;
+        this.symbols = symbols;
     }
 
-    public void saveAlert(PriceAlert alert) {
+    public synchronized void saveAlert(PriceAlert alert) {
+        // produsul poate sa nu fi aparut inca in niciun fisier; atunci nu are ce evalua pana la incarcarea lui
+        Symbol name = symbols.find(alert.getProductName());
+        boolean evaluated = name == null || alertRepo.hasAlerts(name);
         alertRepo.addAlert(alert);
+        if (evaluated) return;
+
+        // primul alert pentru produsul asta: ii calculam pretul minim pe toate zilele incarcate
+        for (LocalDate date : productRepo.getDates()) {
+            refresh(name, date);
+        }
     }
 
     public List<PriceAlert> getTriggeredAlerts(String dateStr) {
-        LocalDate date = LocalDate.parse(dateStr);
+        return alertRepo.findTriggered(LocalDate.parse(dateStr));
+    }
 
-        List<Product> products = productRepo.getAll().stream()
-                .filter(p -> p.getDate().isEqual(date))
-                .toList();
+    /**
+     * Re-evaluates the alerted products among the rows just published for the given date.
+     *
+     * @return the alerts triggered on that date by these rows
+     */
+    public synchronized List<TriggeredAlert> onProductsLoaded(LocalDate date, List<Product> products) {
+        Set<Symbol> names = new HashSet<>();
+        for (Product p : products) {
+            Symbol name = symbols.intern(p.getProductName());
+            if (alertRepo.hasAlerts(name)) names.add(name);
+        }
 
-        List<Discount> discounts = discountRepo.getAll().stream()
-                .filter(d -> !date.isBefore(d.getFromDate()) && !date.isAfter(d.getToDate()))
-                .toList();
+        List<TriggeredAlert> triggered = new ArrayList<>();
+        for (Symbol name : names) {
+            triggered.addAll(refresh(name, date));
+        }
+        logTriggered(triggered);
+        return triggered;
+    }
 
-        return alertRepo.getAll().stream()
-                .filter(alert -> products.stream().anyMatch(p -> {
-                    if (!p.getProductName().equalsIgnoreCase(alert.getProductName())) return false;
-
-                    double finalPrice = p.getPrice();
-                    for (Discount d : discounts) {
-                        if (d.getProductName().equalsIgnoreCase(p.getProductName()) &&
-                                d.getStore().equalsIgnoreCase(p.getStore())) {
-                            finalPrice -= finalPrice * d.getPercentageOfDiscount() / 100.0;
-                            break;
-                        }
-                    }
-
-                    return finalPrice <= alert.getTargetPrice();
-                }))
+    /**
+     * Re-evaluates the alerted products of the discounts just published, on every loaded date
+     * the discounts cover.
+     *
+     * @return the alerts triggered by these discounts
+     */
+    public synchronized List<TriggeredAlert> onDiscountsLoaded(List<Discount> discounts) {
+        Map<Symbol, Set<LocalDate>> touched = new HashMap<>();
+        for (Discount d : discounts) {
+            Symbol name = symbols.intern(d.getProductName());
+            if (!alertRepo.hasAlerts(name) || d.getFromDate().isAfter(d.getToDate())) continue;
+            touched.computeIfAbsent(name, k -> new HashSet<>())
+                    .addAll(productRepo.getDates().subSet(d.getFromDate(), true, d.getToDate(), true));
+        }
+
+        List<TriggeredAlert> triggered = new ArrayList<>();
+        touched.forEach((name, dates) -> dates.forEach(date -> triggered.addAll(refresh(name, date))));
+        logTriggered(triggered);
+        return triggered;
+    }
+
+    // recalculeaza pretul final minim al produsului in ziua data, din randurile lui si reducerile active
+    private List<TriggeredAlert> refresh(Symbol productName, LocalDate date) {
+        Long lowest = null;
+        for (Product p : productRepo.findByNameAndDate(productName, date)) {
+            long price = priceService.toEffectivePrice(p, date).getFinalPrice();
+            if (lowest == null || price < lowest) lowest = price;
+        }
+        List<PriceAlert> triggered = alertRepo.updateLowestPrice(productName, date, lowest);
+        if (triggered.isEmpty()) return List.of();
+
+        long price = lowest;
+        return triggered.stream()
+                .map(a -> new TriggeredAlert(date, a.getProductName(), a.getTargetPrice(), a.getUserEmail(), price))
                 .toList();
     }
+
+    private static void logTriggered(List<TriggeredAlert> triggered) {
+        if (!triggered.isEmpty()) {
+            log.info("{} price alerts triggered by the new data", triggered.size());
+        }
+    }
 }
@@ -0,0 +1,212 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.dto.TriggeredAlert;
+import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepository;
+import com.accesa.pricecomparator.util.TextNormalizer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-Sent Events pushed to the subscribers of {@code /api/alerts/stream} as files are ingested:
+ * {@code alert-triggered} ({@link TriggeredAlert}), {@code discount-new} for every discount of a
+ * loaded discount file and {@code discount-expiring} for the discounts ending on a date whose
+ * first product file was just loaded.
+ * <p>
+ * Every subscriber is an async {@link SseEmitter}, so an idle one holds a connection but no thread.
+ * Events go to a bounded per-subscriber buffer and are written by a virtual thread that only runs
+ * while that buffer is not empty. When a slow subscriber's buffer is full the oldest events are
+ * dropped, and the subscriber is told how many with an {@code overflow} event before the next one.
+ */
+@Slf4j
+@Service
+public class PriceEventService {
+
+    private final DiscountRepository discountRepo;
+    private final SymbolTable symbols;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PriceEventService(DiscountRepository discountRepo,
+                             SymbolTable symbols,
+                             @Value("${pricecomparator.events.buffer-size:256}") int bufferSize,
+                             @Value("${pricecomparator.events.timeout-ms:0}") long timeoutMillis) {
+        this.discountRepo = discountRepo;
+        this.symbols = symbols;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Opens a stream. Alert events can be narrowed to one user and both kinds to one product;
+     * a {@code null} or blank filter matches everything.
+     */
+    public SseEmitter subscribe(String userEmail, String productName) {
+        // 0 = conexiunea nu expira niciodata din partea serverului
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, blankToNull(userEmail), keyOrNull(blankToNull(productName)));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public void publishTriggeredAlerts(List<TriggeredAlert> alerts) {
+        if (subscribers.isEmpty()) return;
+        for (TriggeredAlert alert : alerts) {
+            String name = keyOrNull(alert.getProductName());
+            for (Subscriber s : subscribers) {
+                if (s.matches(alert.getUserEmail(), name)) s.offer(new Event("alert-triggered", alert));
+            }
+        }
+    }
+
+    public void publishNewDiscounts(List<Discount> discounts) {
+        publishDiscounts("discount-new", discounts);
+    }
+
+    public void publishExpiringDiscounts(LocalDate date) {
+        if (subscribers.isEmpty()) return;
+        publishDiscounts("discount-expiring", discountRepo.getExpiringOn(date));
+    }
+
+    // tine conexiunile inactive deschise prin proxy-uri si le detecteaza pe cele inchise de client
+    @Scheduled(fixedDelayString = "${pricecomparator.events.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscriber s : subscribers) {
+            s.offerIfIdle(Event.HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private void publishDiscounts(String name, List<Discount> discounts) {
+        if (subscribers.isEmpty()) return;
+        for (Discount d : discounts) {
+            String product = keyOrNull(d.getProductName());
+            for (Subscriber s : subscribers) {
+                if (s.matches(null, product)) s.offer(new Event(name, d));
+            }
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // cheia normalizata a unui nume; numele cunoscute iau instanta din simbol, iar cele care nu au aparut
+    // inca in vreun fisier (abonari, alerte) raman simple string-uri, fara sa creasca tabela de simboluri
+    private String keyOrNull(String value) {
+        if (value == null) return null;
+        Symbol symbol = symbols.find(value);
+        return symbol != null ? symbol.key() : TextNormalizer.normalize(value);
+    }
+
+    private record Event(String name, Object data) {
+        static final Event HEARTBEAT = new Event(null, null);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final String userEmail;
+        private final String productKey;
+
+        // protejate de monitorul subscriber-ului
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private long dropped;
+        private boolean sending;
+
+        Subscriber(SseEmitter emitter, String userEmail, String productKey) {
+            this.emitter = emitter;
+            this.userEmail = userEmail;
+            this.productKey = productKey;
+        }
+
+        // userEmail null = eveniment fara utilizator (reducere), trece de filtrul pe email
+        boolean matches(String eventUserEmail, String product) {
+            if (productKey != null && !productKey.equals(product)) return false;
+            return userEmail == null || eventUserEmail == null || userEmail.equalsIgnoreCase(eventUserEmail);
+        }
+
+        void offer(Event event) {
+            synchronized (this) {
+                if (buffer.size() == bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(event);
+                if (sending) return;
+                sending = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        void offerIfIdle(Event event) {
+            synchronized (this) {
+                if (sending || !buffer.isEmpty()) return;
+            }
+            offer(event);
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                long lost;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                    lost = dropped;
+                    dropped = 0;
+                }
+                try {
+                    if (lost > 0) {
+                        emitter.send(SseEmitter.event().name("overflow").data(lost));
+                    }
+                    if (event == Event.HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // clientul a inchis conexiunea; nu mai trimitem nimic
+                    log.debug("Dropping event subscriber: {}", e.getMessage());
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    synchronized (this) {
+                        buffer.clear();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,32 +1,49 @@
 package com.accesa.pricecomparator.service;
 
+import com.accesa.pricecomparator.dto.PageResponse;
 import com.accesa.pricecomparator.dto.ProductComparisonResult;
-import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.EffectivePrice;
+import com.accesa.pricecomparator.model.Money;
 import com.accesa.pricecomparator.model.Product;
-import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
-import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.ProductRepository;
+import com.accesa.pricecomparator.repository.ProductRepository.RowPosition;
 import com.accesa.pricecomparator.util.CsvProductLoader;
+import com.accesa.pricecomparator.util.PageCursor;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 
 @Service
+@Timed(value = "pricecomparator.service", histogram = true)
 public class ProductService {
 
-    private final ProductRepositoryInMemory productRepo;
-    private final DiscountRepositoryInMemory discountRepo;
+    private final ProductRepository productRepo;
+    private final EffectivePriceService priceService;
     private final CsvProductLoader csvLoader;
-
-    public ProductService(ProductRepositoryInMemory productRepo,
-                          DiscountRepositoryInMemory discountRepo,
-                          CsvProductLoader csvLoader) {
+    private final SymbolTable symbols;
+    private final StorePartitionExecutor partitionExecutor;
+
+    public ProductService(ProductRepository productRepo,
+                          EffectivePriceService priceService,
+                          CsvProductLoader csvLoader,
+                          SymbolTable symbols,
+                          StorePartitionExecutor partitionExecutor) {
         this.productRepo = productRepo;
-        this.discountRepo = discountRepo;
+        this.priceService = priceService;
         this.csvLoader = csvLoader;
+        this.symbols = symbols;
+        this.partitionExecutor = partitionExecutor;
     }
 
     public List<Product> loadProductsFromCsv() {
@@ -37,59 +54,70 @@ public class ProductService {
         return productRepo.getAll();
     }
 
+    /**
+     * One page of every product, ordered by date, store and load order. Pass the returned cursor
+     * to get the next page; rows loaded meanwhile for an earlier position are not revisited.
+     */
+    public PageResponse<Product> getPage(String cursor, int limit) {
+        RowPosition from = RowPosition.START;
+        if (cursor != null) {
+            String[] fields = PageCursor.decode(cursor, 3);
+            try {
+                from = new RowPosition(LocalDate.parse(fields[0]), fields[1], PageCursor.decodeOffset(fields[2]));
+            } catch (DateTimeParseException e) {
+                throw PageCursor.invalid();
+            }
+        }
+
+        List<Product> rows = new ArrayList<>(limit);
+        RowPosition next = productRepo.readPage(from, limit, rows);
+        return new PageResponse<>(rows, next == null ? null
+                : PageCursor.encode(next.date().toString(), next.store(), Integer.toString(next.offset())));
+    }
+
+    // toate produsele, in ordinea paginilor, citite pe masura ce sunt scrise
+    public Iterator<Product> iterateAll() {
+        return productRepo.iterator();
+    }
+
     public List<Product> getByStore(String store) {
-        return productRepo.getByStore(store.toLowerCase());
+        return productRepo.getByStore(store);
     }
 
     public Set<String> getAllBrands() {
         return productRepo.getAllBrands();
     }
 
-    public List<Product> searchByName(String query) {
-        return productRepo.searchByName(query);
+    public List<Product> searchByName(String query, int limit) {
+        return productRepo.searchByName(query, limit);
     }
 
     public List<Product> getByCategory(String category, String dateStr) {
         LocalDate date = LocalDate.parse(dateStr);
-        return productRepo.getAll().stream()
-                .filter(p -> p.getProductCategory().equalsIgnoreCase(category))
-                .filter(p -> p.getDate().isEqual(date))
-                .toList();
+        Symbol key = symbols.find(category);
+        if (key == null) return List.of();
+        return productsOn(date, r -> symbols.find(r.getProduct().getProductCategory()) == key);
     }
 
-    public List<Product> getUnderPrice(double maxPrice, String dateStr) {
+    public List<Product> getUnderPrice(long maxPrice, String dateStr) {
         LocalDate date = LocalDate.parse(dateStr);
-        return productRepo.getAll().stream()
-                .filter(p -> p.getDate().isEqual(date))
-                .filter(p -> p.getPrice() <= maxPrice)
-                .toList();
+        return productsOn(date, r -> r.getBasePrice() <= maxPrice);
     }
 
     public List<Product> getSortedByUnitPrice(String dateStr) {
         LocalDate date = LocalDate.parse(dateStr);
-        return productRepo.getAll().stream()
-                .filter(p -> p.getDate().isEqual(date))
-                .sorted(Comparator.comparingDouble(p -> p.getPrice() / p.getPackageQuantity()))
+        return productsOn(date)
+                .sorted(Comparator.comparingDouble(p -> Money.perUnit(p.getPrice(), p.getPackageQuantity())))
                 .toList();
     }
 
     public List<Product> getProductsWithoutDiscount(String dateStr) {
         LocalDate date = LocalDate.parse(dateStr);
-        List<Discount> discounts = discountRepo.getAll().stream()
-                .filter(d -> !date.isBefore(d.getFromDate()) && !date.isAfter(d.getToDate()))
-                .toList();
-
-        return productRepo.getAll().stream()
-                .filter(p -> p.getDate().isEqual(date))
-                .filter(p -> discounts.stream().noneMatch(d ->
-                        d.getProductName().equalsIgnoreCase(p.getProductName())
-                                && d.getStore().equalsIgnoreCase(p.getStore())))
-                .toList();
+        return productsOn(date, r -> !r.isDiscounted());
     }
 
     public Set<String> getStoresWithProduct(String productName) {
-        return productRepo.getAll().stream()
-                .filter(p -> p.getProductName().equalsIgnoreCase(productName))
+        return productRepo.findByName(productName).stream()
                 .map(Product::getStore)
                 .collect(Collectors.toSet());
     }
@@ -97,20 +125,16 @@ public class ProductService {
     public ProductComparisonResult compareProducts(String name1, String name2, String dateStr) {
         LocalDate date = LocalDate.parse(dateStr);
 
-        Optional<Product> p1 = productRepo.getAll().stream()
-                .filter(p -> p.getProductName().equalsIgnoreCase(name1) && p.getDate().isEqual(date))
-                .findFirst();
-        Optional<Product> p2 = productRepo.getAll().stream()
-                .filter(p -> p.getProductName().equalsIgnoreCase(name2) && p.getDate().isEqual(date))
-                .findFirst();
+        Optional<Product> p1 = productRepo.findByNameAndDate(name1, date).stream().findFirst();
+        Optional<Product> p2 = productRepo.findByNameAndDate(name2, date).stream().findFirst();
 
         if (p1.isEmpty() || p2.isEmpty()) return null;
 
         Product prod1 = p1.get();
         Product prod2 = p2.get();
 
-        double ppu1 = prod1.getPrice() / prod1.getPackageQuantity();
-        double ppu2 = prod2.getPrice() / prod2.getPackageQuantity();
+        double ppu1 = Money.perUnit(prod1.getPrice(), prod1.getPackageQuantity());
+        double ppu2 = Money.perUnit(prod2.getPrice(), prod2.getPackageQuantity());
 
         String cheaper = ppu1 < ppu2 ? name1 : (ppu1 > ppu2 ? name2 : "equal");
 
@@ -120,4 +144,16 @@ public class ProductService {
                 cheaper
         );
     }
+
+    private Stream<Product> productsOn(LocalDate date) {
+        return priceService.getTable(date).getRows().stream()
+                .map(EffectivePrice::getProduct);
+    }
+
+    // filtrul ruleaza pe magazine in paralel; randurile raman in ordinea din tabel
+    private List<Product> productsOn(LocalDate date, Predicate<EffectivePrice> filter) {
+        return partitionExecutor.filter(priceService.getTable(date).getStoreRows(), filter).stream()
+                .map(EffectivePrice::getProduct)
+                .toList();
+    }
 }
@@ -1,42 +1,69 @@
 package com.accesa.pricecomparator.service;
 
-import com.accesa.pricecomparator.model.Product;
-import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.dto.StatsGranularity;
+import com.accesa.pricecomparator.model.PriceAggregate;
+import com.accesa.pricecomparator.repository.PriceStatsCube;
+import com.accesa.pricecomparator.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.TreeMap;
-import java.util.stream.Collectors;
-
 
 
+/**
+ * Price statistics answered from the daily aggregates of the product repository (the
+ * {@link PriceStatsCube} in memory, a grouped query in PostgreSQL), so a call costs one entry per
+ * day of history instead of one per product row.
+ */
 @Service
+@Timed(value = "pricecomparator.service", histogram = true)
 public class StatsService {
 
-    private final ProductRepositoryInMemory productRepo;
+    private final ProductRepository productRepo;
 
-    public StatsService(ProductRepositoryInMemory productRepo) {
+    public StatsService(ProductRepository productRepo) {
         this.productRepo = productRepo;
     }
 
     public Map<LocalDate, Double> getCategoryPriceTrend(String category, String store) {
-        return productRepo.getAll().stream()
-                .filter(p -> p.getProductCategory().equalsIgnoreCase(category))
-                .filter(p -> p.getStore().equalsIgnoreCase(store))
-                .collect(Collectors.groupingBy(
-                        Product::getDate,
-                        TreeMap::new,
-                        Collectors.averagingDouble(Product::getPrice)
-                ));
+        return averages(productRepo.getDailyStats(store, category));
     }
 
     public Map<LocalDate, Double> getStoreDailyIndex(String store) {
-        return productRepo.getByStore(store).stream()
-                .collect(Collectors.groupingBy(
-                        Product::getDate,
-                        TreeMap::new,
-                        Collectors.averagingDouble(Product::getPrice)
-                ));
+        return averages(productRepo.getDailyStats(store, null));
+    }
+
+    /**
+     * Count, average, min and max price per period, for one store and/or category ({@code null}
+     * for all of them), optionally limited to the days between {@code from} and {@code to}.
+     */
+    public Map<String, PriceAggregate> getRollup(String store, String category, StatsGranularity granularity,
+                                                 LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, PriceAggregate> daily = productRepo.getDailyStats(store, category);
+        if (from != null) daily = daily.tailMap(from, true);
+        if (to != null) daily = daily.headMap(to, true);
+
+        Map<String, PriceAggregate> result = new TreeMap<>();
+        daily.forEach((date, aggregate) -> result.merge(period(date, granularity), aggregate, PriceAggregate::plus));
+        return result;
+    }
+
+    private static Map<LocalDate, Double> averages(NavigableMap<LocalDate, PriceAggregate> daily) {
+        Map<LocalDate, Double> result = new TreeMap<>();
+        daily.forEach((date, aggregate) -> result.put(date, aggregate.getAverage()));
+        return result;
+    }
+
+    private static String period(LocalDate date, StatsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> date.toString();
+            case WEEK -> String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> YearMonth.from(date).toString();
+        };
     }
 }
@@ -1,12 +1,10 @@
 package com.accesa.pricecomparator.util;
 
 import com.accesa.pricecomparator.model.Discount;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,40 +12,64 @@ import java.util.List;
 @Service
 public class CsvDiscountLoader {
 
-    public List<Discount> loadDiscountsFromCsv(String filename, String storeName) {
-        List<Discount> discounts = new ArrayList<>();
+    private final IngestionMetrics metrics;
 
-        try (
-                CSVReader reader = new CSVReaderBuilder(
-                        new InputStreamReader(getClass().getResourceAsStream("/data/csv/" + filename)))
-                        .withCSVParser(new CSVParserBuilder().withSeparator(';').build())
-                        .build()
-        ) {
-            String[] line;
-            reader.readNext(); // skip header
-
-            while ((line = reader.readNext()) != null) {
-                if (line.length < 9) continue;
-
-                Discount discount = new Discount(
-                        line[0], // productId
-                        line[1], // productName
-                        line[2], // brand
-                        Double.parseDouble(line[3]), // packageQuantity
-                        line[4], // packageUnit
-                        line[5], // productCategory
-                        LocalDate.parse(line[6]),    // fromDate
-                        LocalDate.parse(line[7]),    // toDate
-                        Integer.parseInt(line[8]),   // percentage
-                        storeName                    // store
-                );
-
-                discounts.add(discount);
-            }
+    public CsvDiscountLoader(IngestionMetrics metrics) {
+        this.metrics = metrics;
+    }
 
+    public List<Discount> loadDiscountsFromCsv(String filename, String storeName) {
+        try {
+            return parse(SemicolonCsvParser.read(getClass().getResource("/data/csv/" + filename)), storeName, new int[1]);
         } catch (Exception e) {
             throw new RuntimeException("Failed to read discount CSV file: " + filename, e);
         }
+    }
+
+    public List<Discount> loadDiscountsFromCsv(Path file, String storeName) {
+        try {
+            long start = System.nanoTime();
+            int[] skipped = new int[1];
+            List<Discount> discounts = parse(SemicolonCsvParser.read(file), storeName, skipped);
+            metrics.recordFile("discounts", storeName, System.nanoTime() - start, discounts.size(), skipped[0]);
+            return discounts;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read discount CSV file: " + file, e);
+        }
+    }
+
+    private List<Discount> parse(ByteBuffer content, String storeName, int[] skipped) {
+        List<Discount> discounts = new ArrayList<>();
+
+        new SemicolonCsvParser(content).parse(line -> {
+            if (line.fieldCount() < 9) {
+                skipped[0]++;
+                return;
+            }
+
+            LocalDate fromDate = line.getDate(6);
+            LocalDate toDate = line.getDate(7);
+            // un interval inversat nu acopera nicio zi; nu e publicat
+            if (fromDate.isAfter(toDate)) {
+                skipped[0]++;
+                return;
+            }
+
+            Discount discount = new Discount(
+                    line.getString(0), // productId
+                    line.getString(1), // productName
+                    line.getString(2), // brand
+                    line.getDouble(3), // packageQuantity
+                    line.getString(4), // packageUnit
+                    line.getString(5), // productCategory
+                    fromDate,
+                    toDate,
+                    line.getInt(8),    // percentage
+                    storeName          // store
+            );
+
+            discounts.add(discount);
+        });
 
         return discounts;
     }
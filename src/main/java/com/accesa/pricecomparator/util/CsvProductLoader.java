@@ -1,12 +1,10 @@
 package com.accesa.pricecomparator.util;
 
 import com.accesa.pricecomparator.model.Product;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,42 +12,56 @@ import java.util.List;
 @Service
 public class CsvProductLoader {
 
-    public List<Product> loadProductsFromCsv(String filename, String storeName, LocalDate date) {
-        List<Product> products = new ArrayList<>();
+    private final IngestionMetrics metrics;
 
-        try (
-                CSVReader reader = new CSVReaderBuilder(
-                        new InputStreamReader(getClass().getResourceAsStream("/data/csv/" + filename)))
-                        .withCSVParser(new CSVParserBuilder().withSeparator(';').build())
-                        .build()
-        ) {
-            String[] line;
-            reader.readNext(); // skip header
-
-            while ((line = reader.readNext()) != null) {
-                if (line.length < 8) {
-                    System.err.println("Invalid line (too short), skipping: " + String.join(";", line));
-                    continue;
-                }
-
-                Product product = new Product(
-                        line[0],
-                        line[1],
-                        line[2],
-                        line[3],
-                        Double.parseDouble(line[4]),
-                        line[5],
-                        Double.parseDouble(line[6]),
-                        line[7],
-                        date,
-                        storeName
-                );
-                products.add(product);
-            }
+    public CsvProductLoader(IngestionMetrics metrics) {
+        this.metrics = metrics;
+    }
 
+    public List<Product> loadProductsFromCsv(String filename, String storeName, LocalDate date) {
+        try {
+            return parse(SemicolonCsvParser.read(getClass().getResource("/data/csv/" + filename)), storeName, date, new int[1]);
         } catch (Exception e) {
             throw new RuntimeException("Failed to read CSV file: " + filename, e);
         }
+    }
+
+    public List<Product> loadProductsFromCsv(Path file, String storeName, LocalDate date) {
+        try {
+            long start = System.nanoTime();
+            int[] skipped = new int[1];
+            List<Product> products = parse(SemicolonCsvParser.read(file), storeName, date, skipped);
+            metrics.recordFile("products", storeName, System.nanoTime() - start, products.size(), skipped[0]);
+            return products;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read CSV file: " + file, e);
+        }
+    }
+
+    private List<Product> parse(ByteBuffer content, String storeName, LocalDate date, int[] skipped) {
+        List<Product> products = new ArrayList<>();
+
+        new SemicolonCsvParser(content).parse(line -> {
+            if (line.fieldCount() < 8) {
+                System.err.println("Invalid line (too short), skipping: " + line.line());
+                skipped[0]++;
+                return;
+            }
+
+            Product product = new Product(
+                    line.getString(0),
+                    line.getString(1),
+                    line.getString(2),
+                    line.getString(3),
+                    line.getDouble(4),
+                    line.getString(5),
+                    line.getCents(6),
+                    line.getString(7),
+                    date,
+                    storeName
+            );
+            products.add(product);
+        });
 
         return products;
     }
@@ -0,0 +1,50 @@
+package com.accesa.pricecomparator.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-file parse metrics of the CSV loaders, tagged with the kind of file (products or
+ * discounts) and the store: parse duration, rows parsed, rows skipped, and the parse rate in
+ * rows per second.
+ */
+@Component
+public class IngestionMetrics {
+
+    private final MeterRegistry registry;
+
+    public IngestionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordFile(String kind, String store, long elapsedNanos, int rows, int skipped) {
+        Timer.builder("pricecomparator.ingestion.parse")
+                .description("Time to read and parse one CSV file")
+                .tags("kind", kind, "store", store)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("pricecomparator.ingestion.rows")
+                .description("Rows parsed from CSV files")
+                .tags("kind", kind, "store", store)
+                .register(registry)
+                .increment(rows);
+        Counter.builder("pricecomparator.ingestion.rows.skipped")
+                .description("CSV lines skipped because they had too few fields")
+                .tags("kind", kind, "store", store)
+                .register(registry)
+                .increment(skipped);
+        if (elapsedNanos > 0) {
+            DistributionSummary.builder("pricecomparator.ingestion.rows.per.second")
+                    .description("Parse rate of one CSV file")
+                    .tags("kind", kind, "store", store)
+                    .register(registry)
+                    .record(rows * 1e9 / elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.accesa.pricecomparator.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Writes rows as newline-delimited JSON, one object per line, straight to the response stream.
+ * Only the current row is ever serialized in memory; flushing is left to the output buffer.
+ */
+public class NdjsonWriter {
+
+    public static void write(Iterator<?> rows, OutputStream out, ObjectMapper mapper) throws IOException {
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            // separatorul implicit dintre valorile de la radacina e un spatiu; punem noi newline-ul
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                writer.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
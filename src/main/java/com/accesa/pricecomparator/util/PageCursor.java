@@ -0,0 +1,46 @@
+package com.accesa.pricecomparator.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors: the fields of a position, joined and Base64url encoded. Clients only
+ * hand back what they were given, so the format can change without breaking them beyond an
+ * in-flight walk.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = "\u0000";
+
+    public static String encode(String... fields) {
+        byte[] bytes = String.join(SEPARATOR, fields).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static String[] decode(String cursor, int fieldCount) {
+        try {
+            String[] fields = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            if (fields.length == fieldCount) return fields;
+        } catch (IllegalArgumentException e) {
+            // tratat mai jos
+        }
+        throw invalid();
+    }
+
+    public static int decodeOffset(String field) {
+        try {
+            int offset = Integer.parseInt(field);
+            if (offset >= 0) return offset;
+        } catch (NumberFormatException e) {
+            // tratat mai jos
+        }
+        throw invalid();
+    }
+
+    public static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -0,0 +1,328 @@
+package com.accesa.pricecomparator.util;
+
+import com.accesa.pricecomparator.model.Money;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Streaming parser for the semicolon separated price and discount files.
+ * <p>
+ * The whole file is read through one {@link ByteBuffer} (memory-mapped when the file lives on
+ * disk) and every line is handed to a {@link RowHandler} as the same reusable {@link Row} cursor,
+ * which only records field offsets. Numbers and ISO dates are parsed straight from the bytes and a
+ * String is only created for the fields a caller asks for. The first line is treated as a header.
+ * Fields may be wrapped in double quotes, with {@code ""} as an escaped quote.
+ */
+public class SemicolonCsvParser {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    // sub acest numar de cifre mantisa si puterea lui 10 sunt exacte, deci impartirea e corect rotunjita
+    private static final int MAX_FAST_DIGITS = 15;
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void onRow(Row row);
+    }
+
+    private final ByteBuffer buffer;
+    private final Row row = new Row();
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+    private byte[] scratch = new byte[256];
+
+    private int lastDateKey = -1;
+    private LocalDate lastDate;
+
+    public SemicolonCsvParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the resource when it is a plain file and reads it fully into a heap buffer otherwise
+     * (for example when it is packaged inside a jar).
+     */
+    public static ByteBuffer read(URL resource) throws IOException {
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return read(Path.of(resource.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid file URL: " + resource, e);
+            }
+        }
+        try (InputStream in = resource.openStream()) {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
+
+    public static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    public void parse(RowHandler handler) {
+        int limit = buffer.limit();
+        int pos = skipByteOrderMark(buffer.position());
+        boolean header = true;
+
+        while (pos < limit) {
+            int lineStart = pos;
+            int count = 0;
+
+            while (true) {
+                ensureFieldCapacity(count + 1);
+                if (pos < limit && buffer.get(pos) == '"') {
+                    int start = ++pos;
+                    while (pos < limit) {
+                        if (buffer.get(pos) == '"') {
+                            if (pos + 1 < limit && buffer.get(pos + 1) == '"') {
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        pos++;
+                    }
+                    starts[count] = start;
+                    ends[count] = pos;
+                    quoted[count] = true;
+                    // orice urmeaza dupa ghilimeaua de inchidere pana la separator e ignorat
+                    while (pos < limit && !isFieldEnd(buffer.get(pos))) pos++;
+                } else {
+                    int start = pos;
+                    while (pos < limit && !isFieldEnd(buffer.get(pos))) pos++;
+                    starts[count] = start;
+                    ends[count] = pos;
+                    quoted[count] = false;
+                }
+                count++;
+
+                if (pos < limit && buffer.get(pos) == ';') {
+                    pos++;
+                    continue;
+                }
+                break;
+            }
+
+            int lineEnd = pos;
+            if (pos < limit && buffer.get(pos) == '\r') pos++;
+            if (pos < limit && buffer.get(pos) == '\n') pos++;
+
+            if (header) {
+                header = false;
+                continue;
+            }
+
+            row.reset(lineStart, lineEnd, count);
+            handler.onRow(row);
+        }
+    }
+
+    private int skipByteOrderMark(int pos) {
+        if (buffer.limit() - pos >= 3
+                && buffer.get(pos) == (byte) 0xEF
+                && buffer.get(pos + 1) == (byte) 0xBB
+                && buffer.get(pos + 2) == (byte) 0xBF) {
+            return pos + 3;
+        }
+        return pos;
+    }
+
+    private static boolean isFieldEnd(byte b) {
+        return b == ';' || b == '\n' || b == '\r';
+    }
+
+    private void ensureFieldCapacity(int capacity) {
+        if (capacity > starts.length) {
+            int newCapacity = starts.length * 2;
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+            quoted = Arrays.copyOf(quoted, newCapacity);
+        }
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Cursor over the current line. Only valid inside {@link RowHandler#onRow(Row)}.
+     */
+    public final class Row {
+        private int lineStart;
+        private int lineEnd;
+        private int fieldCount;
+
+        private void reset(int lineStart, int lineEnd, int fieldCount) {
+            this.lineStart = lineStart;
+            this.lineEnd = lineEnd;
+            this.fieldCount = fieldCount;
+        }
+
+        public int fieldCount() {
+            return fieldCount;
+        }
+
+        public String line() {
+            return decode(lineStart, lineEnd);
+        }
+
+        public String getString(int field) {
+            checkField(field);
+            String value = decode(starts[field], ends[field]);
+            return quoted[field] ? value.replace("\"\"", "\"") : value;
+        }
+
+        public double getDouble(int field) {
+            checkField(field);
+            int pos = starts[field];
+            int end = ends[field];
+
+            boolean negative = pos < end && buffer.get(pos) == '-';
+            if (negative) pos++;
+
+            long mantissa = 0;
+            int digits = 0;
+            int scale = -1;
+            for (; pos < end; pos++) {
+                byte b = buffer.get(pos);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (scale >= 0) scale++;
+                } else if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    digits = -1;
+                    break;
+                }
+            }
+
+            if (digits <= 0 || digits > MAX_FAST_DIGITS) {
+                return Double.parseDouble(getString(field));
+            }
+            double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+            return negative ? -value : value;
+        }
+
+        /**
+         * A decimal money amount as cents ({@link Money}), parsed without going through a double.
+         */
+        public long getCents(int field) {
+            checkField(field);
+            int pos = starts[field];
+            int end = ends[field];
+
+            boolean negative = pos < end && buffer.get(pos) == '-';
+            if (negative) pos++;
+
+            long unscaled = 0;
+            int digits = 0;
+            int scale = -1;
+            for (; pos < end; pos++) {
+                byte b = buffer.get(pos);
+                if (b >= '0' && b <= '9') {
+                    unscaled = unscaled * 10 + (b - '0');
+                    digits++;
+                    if (scale >= 0) scale++;
+                } else if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    digits = -1;
+                    break;
+                }
+            }
+
+            // pana la 18 cifre nu exista overflow
+            if (digits <= 0 || digits > 18) {
+                return Money.of(new BigDecimal(getString(field).trim()));
+            }
+            return Money.ofScaled(negative ? -unscaled : unscaled, Math.max(scale, 0));
+        }
+
+        public int getInt(int field) {
+            checkField(field);
+            int pos = starts[field];
+            int end = ends[field];
+
+            boolean negative = pos < end && buffer.get(pos) == '-';
+            if (negative) pos++;
+
+            // pana la 9 cifre nu exista overflow
+            if (pos == end || end - pos > 9) {
+                return Integer.parseInt(getString(field));
+            }
+            int value = 0;
+            for (; pos < end; pos++) {
+                byte b = buffer.get(pos);
+                if (b < '0' || b > '9') {
+                    return Integer.parseInt(getString(field));
+                }
+                value = value * 10 + (b - '0');
+            }
+            return negative ? -value : value;
+        }
+
+        public LocalDate getDate(int field) {
+            checkField(field);
+            int pos = starts[field];
+            if (ends[field] - pos != 10 || buffer.get(pos + 4) != '-' || buffer.get(pos + 7) != '-') {
+                return LocalDate.parse(getString(field));
+            }
+
+            int year = digits(pos, 4);
+            int month = digits(pos + 5, 2);
+            int day = digits(pos + 8, 2);
+            if (year < 0 || month < 0 || day < 0) {
+                return LocalDate.parse(getString(field));
+            }
+
+            // datele se repeta pe randuri consecutive, refolosim ultima instanta
+            int key = year * 10000 + month * 100 + day;
+            if (key != lastDateKey) {
+                lastDate = LocalDate.of(year, month, day);
+                lastDateKey = key;
+            }
+            return lastDate;
+        }
+
+        private int digits(int pos, int count) {
+            int value = 0;
+            for (int i = pos; i < pos + count; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') return -1;
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private void checkField(int field) {
+            if (field < 0 || field >= fieldCount) {
+                throw new IndexOutOfBoundsException("Field " + field + " out of " + fieldCount);
+            }
+        }
+    }
+}
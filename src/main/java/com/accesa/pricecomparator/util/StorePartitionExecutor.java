@@ -0,0 +1,106 @@
+package com.accesa.pricecomparator.util;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Runs the per-store part of a query on every store partition in parallel, on a dedicated bounded
+ * pool, and hands back the partial results in partition order so the caller's merge is the same
+ * as a sequential pass. A task only sees its own partition, which is what a later split of the
+ * stores across nodes needs.
+ * <p>
+ * Queries over fewer rows than the threshold run on the calling thread, where a handoff would
+ * cost more than it saves.
+ */
+@Component
+public class StorePartitionExecutor {
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int minRows;
+
+    public StorePartitionExecutor(@Value("${pricecomparator.query.parallelism:0}") int parallelism,
+                                  @Value("${pricecomparator.query.parallel-min-rows:20000}") int minRows) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(this.parallelism);
+        this.minRows = minRows;
+    }
+
+    /**
+     * Applies the task to every partition.
+     *
+     * @return one result per partition, in the iteration order of {@code partitions}
+     */
+    public <T, R> List<R> map(Collection<? extends List<T>> partitions, Function<List<T>, R> task) {
+        List<List<T>> parts = List.copyOf(partitions);
+        if (!isParallel(parts)) {
+            List<R> results = new ArrayList<>(parts.size());
+            for (List<T> part : parts) results.add(task.apply(part));
+            return results;
+        }
+        // apelat dintr-un task al aceluiasi pool: stream-ul paralel ruleaza direct pe el
+        if (ForkJoinTask.getPool() == pool) {
+            return parts.parallelStream().map(task).toList();
+        }
+
+        try {
+            return pool.submit(() -> parts.parallelStream().map(task).toList()).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new RuntimeException("Store partition query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running a store partition query", e);
+        }
+    }
+
+    /**
+     * The rows of every partition matching the predicate, concatenated in partition order.
+     */
+    public <T> List<T> filter(Collection<? extends List<T>> partitions, Predicate<? super T> predicate) {
+        List<List<T>> matches = map(partitions, part -> {
+            List<T> out = new ArrayList<>();
+            for (T row : part) {
+                if (predicate.test(row)) out.add(row);
+            }
+            return out;
+        });
+        return concat(matches);
+    }
+
+    public static <T> List<T> concat(List<? extends List<T>> parts) {
+        int size = 0;
+        for (List<T> part : parts) size += part.size();
+        List<T> all = new ArrayList<>(size);
+        for (List<T> part : parts) all.addAll(part);
+        return Collections.unmodifiableList(all);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    private boolean isParallel(List<? extends List<?>> parts) {
+        if (parallelism < 2 || parts.size() < 2) return false;
+        long rows = 0;
+        for (List<?> part : parts) rows += part.size();
+        return rows >= minRows;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,273 @@
+package com.accesa.pricecomparator.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Writes a synthetic multi-store, multi-day dataset in the exact CSV format and file naming the
+ * {@code DataLoaderService} expects, for benchmarks, load tests and ingestion measurements.
+ * <p>
+ * The output depends only on the {@link Settings}: the same seed always gives the same files.
+ * Every store sells a subset of one shared catalogue (so products can be compared across stores),
+ * prices follow a per-store level plus a small daily drift, and the catalogue repeats a limited
+ * set of categories, brands and units the way the real files do. Every {@code discountWindowDays}
+ * days each store publishes a discount file covering {@code discountDensity} of its products.
+ * <p>
+ * Command line: {@code java -cp target/classes com.accesa.pricecomparator.util.SyntheticDataGenerator
+ * --out=data --stores=10 --days=30 --products-per-store=2000 --discount-density=0.15
+ * --discount-window-days=7 --start=2025-05-01 --seed=42}. Every option is optional.
+ */
+public class SyntheticDataGenerator {
+
+    private static final String PRODUCT_HEADER =
+            "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency";
+    private static final String DISCOUNT_HEADER =
+            "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount";
+
+    private static final String[] STORE_NAMES = {
+            "lidl", "kaufland", "profi", "carrefour", "mega", "penny", "auchan", "cora", "selgros", "metro"
+    };
+    private static final int[] DISCOUNT_PERCENTAGES = {5, 10, 10, 15, 15, 15, 20, 20, 25, 30, 35, 40};
+    private static final String[] VARIANTS = {"clasic", "bio", "extra", "light", "premium", "family"};
+
+    // categorie -> produse tip: nume, cantitati posibile, unitate, pret de referinta pe pachet
+    private static final Category[] CATEGORIES = {
+            new Category("lactate", new String[]{"Zuzu", "Napolact", "Olympus", "Pilos", "Danone"},
+                    new Item("lapte", "l", 9.5, "1", "1.5"),
+                    new Item("iaurt grecesc", "kg", 11.0, "0.4", "1"),
+                    new Item("brânză telemea", "kg", 13.0, "0.3", "0.5"),
+                    new Item("smântână", "kg", 8.0, "0.2", "0.4"),
+                    new Item("unt", "g", 10.5, "200", "250")),
+            new Category("ouă", new String[]{"Agricola", "Ferma Dacilor"},
+                    new Item("ouă mărimea M", "buc", 13.0, "10", "6"),
+                    new Item("ouă mărimea L", "buc", 15.0, "10", "30")),
+            new Category("panificație", new String[]{"Vel Pitar", "Boromir", "Dobrogea"},
+                    new Item("pâine albă", "g", 3.5, "500", "800"),
+                    new Item("pâine integrală", "g", 5.0, "400", "500"),
+                    new Item("chifle", "buc", 4.5, "6", "4")),
+            new Category("legume și fructe", new String[]{"Generic", "Fresh Garden"},
+                    new Item("roșii cherry", "g", 6.8, "250", "500"),
+                    new Item("banane", "kg", 6.0, "1"),
+                    new Item("mere", "kg", 4.5, "1", "2"),
+                    new Item("cartofi", "kg", 3.0, "2", "5"),
+                    new Item("castraveți", "kg", 7.0, "1")),
+            new Category("carne", new String[]{"Agricola", "Transavia", "Cris-Tim"},
+                    new Item("piept pui", "kg", 28.0, "1", "0.5"),
+                    new Item("pulpe pui", "kg", 16.0, "1"),
+                    new Item("carne tocată", "g", 15.0, "500")),
+            new Category("paste făinoase", new String[]{"Barilla", "Baneasa", "Panzani"},
+                    new Item("spaghetti nr.5", "g", 5.8, "500", "1000"),
+                    new Item("penne", "g", 6.0, "500"),
+                    new Item("fusilli", "g", 6.2, "500")),
+            new Category("alimente de bază", new String[]{"Bunica", "Margaritar", "Unirea"},
+                    new Item("zahăr tos", "kg", 4.4, "1"),
+                    new Item("ulei floarea-soarelui", "l", 9.2, "1", "2"),
+                    new Item("făină albă", "kg", 3.6, "1"),
+                    new Item("orez", "kg", 7.5, "1", "0.5")),
+            new Category("băuturi", new String[]{"Aqua Carpatica", "Borsec", "Coca-Cola", "Jidvei"},
+                    new Item("apă plată", "l", 5.2, "2", "0.5"),
+                    new Item("apă minerală", "l", 5.0, "2", "1.5"),
+                    new Item("suc portocale", "l", 8.5, "1", "2"),
+                    new Item("vin alb demisec", "l", 23.5, "0.75")),
+            new Category("gustări", new String[]{"Deluxe", "Fin Carre", "Milka", "Chio"},
+                    new Item("biscuiți cu unt", "kg", 7.1, "0.2"),
+                    new Item("ciocolată neagră 70%", "g", 3.9, "100"),
+                    new Item("chipsuri", "g", 6.5, "140", "200")),
+            new Category("cafea", new String[]{"Davidoff", "Jacobs", "Lavazza", "Doncafe"},
+                    new Item("cafea măcinată", "kg", 22.4, "0.25", "0.5"),
+                    new Item("cafea boabe", "kg", 45.0, "1")),
+            new Category("produse de menaj", new String[]{"Persil", "Ariel", "Zewa", "Domestos"},
+                    new Item("detergent lichid", "l", 49.9, "2.5", "1.5"),
+                    new Item("hârtie igienică 3 straturi", "role", 18.9, "10", "8"),
+                    new Item("soluție vase", "ml", 9.0, "500", "900")),
+            new Category("îngrijire personală", new String[]{"Head & Shoulders", "Dove", "Colgate"},
+                    new Item("șampon păr gras", "ml", 17.8, "400", "250"),
+                    new Item("gel de duș", "ml", 12.0, "250"),
+                    new Item("pastă de dinți", "ml", 8.5, "75")),
+            new Category("condimente", new String[]{"Kotanyi", "Fuchs"},
+                    new Item("piper negru măcinat", "g", 6.0, "50"),
+                    new Item("boia dulce", "g", 4.5, "50"))
+    };
+
+    private record Item(String stem, String unit, double referencePrice, String... quantities) {
+    }
+
+    private record Category(String name, String[] brands, Item... items) {
+    }
+
+    private record CatalogueEntry(String id, String name, String category, String brand,
+                                  String quantity, String unit, double price, boolean houseBrand) {
+    }
+
+    /**
+     * Generator settings. {@code discountDensity} is the share of a store's products on discount in
+     * each window, {@code discountWindowDays} both how often a store publishes discounts and how long
+     * they last.
+     */
+    public record Settings(long seed, int stores, int days, int productsPerStore,
+                           double discountDensity, int discountWindowDays, LocalDate startDate) {
+
+        public static Settings defaults() {
+            return new Settings(42, 3, 14, 200, 0.15, 7, LocalDate.of(2025, 5, 1));
+        }
+
+        public long productRows() {
+            return (long) stores * days * productsPerStore;
+        }
+    }
+
+    private final Settings settings;
+
+    public SyntheticDataGenerator(Settings settings) {
+        if (settings.stores() < 1 || settings.days() < 1 || settings.productsPerStore() < 1
+                || settings.discountWindowDays() < 1
+                || settings.discountDensity() < 0 || settings.discountDensity() > 1) {
+            throw new IllegalArgumentException("Invalid generator settings: " + settings);
+        }
+        this.settings = settings;
+    }
+
+    public static String storeName(int store) {
+        return store < STORE_NAMES.length ? STORE_NAMES[store] : "store" + (store + 1);
+    }
+
+    /**
+     * Writes all product and discount files into {@code directory} (created if missing) and
+     * returns them in the order they were written.
+     */
+    public List<Path> writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Random random = new Random(settings.seed());
+
+        // catalogul comun e mai mare decat oferta unui magazin, ca magazinele sa se suprapuna partial
+        List<CatalogueEntry> catalogue = buildCatalogue(random, settings.productsPerStore() * 3 / 2 + 1);
+        List<Path> files = new ArrayList<>();
+
+        for (int s = 0; s < settings.stores(); s++) {
+            String store = storeName(s);
+            String houseBrand = Character.toUpperCase(store.charAt(0)) + store.substring(1);
+            double storeLevel = 0.9 + random.nextDouble() * 0.25;
+
+            List<CatalogueEntry> assortment = new ArrayList<>(catalogue);
+            Collections.shuffle(assortment, random);
+            assortment = assortment.subList(0, settings.productsPerStore());
+            assortment.sort(Comparator.comparing(CatalogueEntry::id));
+
+            double[] prices = new double[assortment.size()];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = assortment.get(i).price() * storeLevel * (0.9 + random.nextDouble() * 0.2);
+            }
+
+            for (int d = 0; d < settings.days(); d++) {
+                LocalDate date = settings.startDate().plusDays(d);
+                Path file = directory.resolve(store + "_" + date + ".csv");
+                try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    out.write(PRODUCT_HEADER);
+                    out.newLine();
+                    for (int i = 0; i < assortment.size(); i++) {
+                        // aproximativ un produs din cinci isi schimba usor pretul de la o zi la alta
+                        if (d > 0 && random.nextInt(5) == 0) {
+                            prices[i] *= 0.97 + random.nextDouble() * 0.06;
+                        }
+                        CatalogueEntry p = assortment.get(i);
+                        out.write(String.join(";", p.id(), p.name(), p.category(),
+                                p.houseBrand() ? houseBrand : p.brand(), p.quantity(), p.unit(),
+                                formatPrice(prices[i]), "RON"));
+                        out.newLine();
+                    }
+                }
+                files.add(file);
+            }
+
+            for (int d = 0; d < settings.days(); d += settings.discountWindowDays()) {
+                LocalDate published = settings.startDate().plusDays(d);
+                Path file = directory.resolve(store + "_discounts_" + published + ".csv");
+                try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    out.write(DISCOUNT_HEADER);
+                    out.newLine();
+                    for (CatalogueEntry p : assortment) {
+                        if (random.nextDouble() >= settings.discountDensity()) continue;
+                        // unele reduceri incep cu 1-2 zile dupa publicare, ca in fisierele reale
+                        LocalDate from = published.plusDays(random.nextInt(3) == 0 ? 1 + random.nextInt(2) : 0);
+                        LocalDate to = from.plusDays(settings.discountWindowDays() - 1);
+                        int percentage = DISCOUNT_PERCENTAGES[random.nextInt(DISCOUNT_PERCENTAGES.length)];
+                        out.write(String.join(";", p.id(), p.name(), p.houseBrand() ? houseBrand : p.brand(),
+                                p.quantity(), p.unit(), p.category(), from.toString(), to.toString(),
+                                Integer.toString(percentage)));
+                        out.newLine();
+                    }
+                }
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private static List<CatalogueEntry> buildCatalogue(Random random, int size) {
+        List<CatalogueEntry> catalogue = new ArrayList<>(size);
+        Set<String> names = new HashSet<>();
+
+        for (int i = 0; i < size; i++) {
+            Category category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            Item item = category.items()[random.nextInt(category.items().length)];
+            // cam un sfert din produse sunt marca magazinului
+            boolean houseBrand = random.nextInt(4) == 0;
+            String brand = category.brands()[random.nextInt(category.brands().length)];
+            String quantity = item.quantities()[random.nextInt(item.quantities().length)];
+
+            String name = item.stem() + (houseBrand ? "" : " " + brand.toLowerCase(Locale.ROOT));
+            if (!names.add(name)) {
+                String base = name + " " + VARIANTS[random.nextInt(VARIANTS.length)];
+                name = base;
+                for (int n = 2; !names.add(name); n++) {
+                    name = base + " " + n;
+                }
+            }
+
+            double price = item.referencePrice()
+                    * Double.parseDouble(quantity) / Double.parseDouble(item.quantities()[0])
+                    * (0.8 + random.nextDouble() * 0.4);
+            catalogue.add(new CatalogueEntry(String.format(Locale.ROOT, "P%06d", i + 1), name,
+                    category.name(), brand, quantity, item.unit(), price, houseBrand));
+        }
+        return catalogue;
+    }
+
+    private static String formatPrice(double price) {
+        long cents = Math.max(10, Math.round(price * 100));
+        long fraction = cents % 100;
+        return cents / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Settings d = Settings.defaults();
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --option=value, got: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        Settings settings = new Settings(
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(d.seed()))),
+                Integer.parseInt(options.getOrDefault("stores", String.valueOf(d.stores()))),
+                Integer.parseInt(options.getOrDefault("days", String.valueOf(d.days()))),
+                Integer.parseInt(options.getOrDefault("products-per-store", String.valueOf(d.productsPerStore()))),
+                Double.parseDouble(options.getOrDefault("discount-density", String.valueOf(d.discountDensity()))),
+                Integer.parseInt(options.getOrDefault("discount-window-days", String.valueOf(d.discountWindowDays()))),
+                LocalDate.parse(options.getOrDefault("start", d.startDate().toString())));
+        Path out = Path.of(options.getOrDefault("out", "synthetic-data"));
+
+        long start = System.nanoTime();
+        List<Path> files = new SyntheticDataGenerator(settings).writeTo(out);
+        System.out.printf("Wrote %d files (%d product rows) to %s in %d ms%n",
+                files.size(), settings.productRows(), out.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
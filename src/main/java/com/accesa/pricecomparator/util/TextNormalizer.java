@@ -0,0 +1,45 @@
+package com.accesa.pricecomparator.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+public class TextNormalizer {
+
+    // cheia folosita de indexuri pentru nume de produse si magazine
+    public static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Lowercases and strips diacritics ("Brânză" -> "branza"), for matching user typed text. Every
+     * char maps to exactly one char, so offsets in the result match offsets in the input.
+     */
+    public static String fold(String value) {
+        String lower = normalize(value);
+        char[] chars = null;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c < 0x80) continue;
+            char folded = foldChar(c);
+            if (folded != c) {
+                if (chars == null) chars = lower.toCharArray();
+                chars[i] = folded;
+            }
+        }
+        return chars == null ? lower : new String(chars);
+    }
+
+    private static char foldChar(char c) {
+        switch (c) {
+            case 'ă', 'â': return 'a';
+            case 'î': return 'i';
+            case 'ș', 'ş': return 's';
+            case 'ț', 'ţ': return 't';
+            default:
+                // alte litere cu diacritice (é, ü...) se descompun in litera de baza + semn
+                String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                char base = decomposed.charAt(0);
+                return base < 0x80 && Character.isLetter(base) ? base : c;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+-- Schema pentru profilul postgres. Cheile (*_key) sunt calculate in Java cu TextNormalizer, ca sa
+-- corespunda exact cu cele ale SymbolTable; magazinele sunt comparate cu COLLATE "C", ca String.compareTo.
+
+CREATE TABLE IF NOT EXISTS product (
+    id               BIGSERIAL PRIMARY KEY,
+    product_id       TEXT,
+    product_name     TEXT             NOT NULL,
+    name_key         TEXT             NOT NULL,
+    name_folded      TEXT             NOT NULL,
+    product_category TEXT,
+    category_key     TEXT,
+    brand            TEXT,
+    package_quantity DOUBLE PRECISION NOT NULL,
+    package_unit     TEXT,
+    price            BIGINT           NOT NULL, -- bani
+    currency         TEXT,
+    date             DATE             NOT NULL,
+    store            TEXT             NOT NULL,
+    store_key        TEXT COLLATE "C" NOT NULL,
+    seq              INT              NOT NULL  -- pozitia in (date, store_key), in ordinea incarcarii
+);
+
+-- fisierul CSV din care vine randul: reincarcarea unui fisier ii inlocuieste randurile
+ALTER TABLE product ADD COLUMN IF NOT EXISTS source_file TEXT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS product_date_store_seq ON product (date, store_key, seq);
+CREATE INDEX IF NOT EXISTS product_name_date ON product (name_key, date);
+CREATE INDEX IF NOT EXISTS product_store_date ON product (store_key, date);
+CREATE INDEX IF NOT EXISTS product_category_date ON product (category_key, date);
+CREATE INDEX IF NOT EXISTS product_source_file ON product (source_file);
+
+CREATE TABLE IF NOT EXISTS discount (
+    id                     BIGSERIAL PRIMARY KEY,
+    product_id             TEXT,
+    product_name           TEXT             NOT NULL,
+    name_key               TEXT             NOT NULL,
+    brand                  TEXT,
+    package_quantity       DOUBLE PRECISION NOT NULL,
+    package_unit           TEXT,
+    product_category       TEXT,
+    from_date              DATE             NOT NULL,
+    to_date                DATE             NOT NULL,
+    percentage_of_discount INT              NOT NULL,
+    store                  TEXT             NOT NULL,
+    store_key              TEXT COLLATE "C" NOT NULL,
+    seq                    INT              NOT NULL -- pozitia in magazin, in ordinea incarcarii
+);
+
+ALTER TABLE discount ADD COLUMN IF NOT EXISTS source_file TEXT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS discount_store_seq ON discount (store_key, seq);
+CREATE INDEX IF NOT EXISTS discount_product_store_from ON discount (name_key, store_key, from_date);
+CREATE INDEX IF NOT EXISTS discount_active ON discount USING gist (daterange(from_date, to_date, '[]'));
+CREATE INDEX IF NOT EXISTS discount_from_date ON discount (from_date);
+CREATE INDEX IF NOT EXISTS discount_to_date ON discount (to_date);
+CREATE INDEX IF NOT EXISTS discount_source_file ON discount (source_file);
+
+CREATE TABLE IF NOT EXISTS price_alert (
+    id           BIGSERIAL PRIMARY KEY,
+    product_name TEXT   NOT NULL,
+    name_key     TEXT   NOT NULL,
+    target_price BIGINT NOT NULL, -- bani
+    user_email   TEXT
+);
+
+CREATE INDEX IF NOT EXISTS price_alert_name_target ON price_alert (name_key, target_price);
+
+-- pretul final minim al fiecarui produs cu alerte, pe fiecare data incarcata
+CREATE TABLE IF NOT EXISTS alert_lowest_price (
+    date     DATE   NOT NULL,
+    name_key TEXT   NOT NULL,
+    price    BIGINT NOT NULL,
+    PRIMARY KEY (date, name_key)
+);
+
+CREATE TABLE IF NOT EXISTS source_file (
+    name          TEXT PRIMARY KEY,
+    size          BIGINT NOT NULL,
+    last_modified BIGINT NOT NULL
+);
@@ -0,0 +1,69 @@
+package com.accesa.pricecomparator.controller;
+
+import com.accesa.pricecomparator.model.PriceAlert;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
+import com.accesa.pricecomparator.repository.PriceAlertRepositoryInMemory;
+import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.repository.StorageLayout;
+import com.accesa.pricecomparator.service.EffectivePriceService;
+import com.accesa.pricecomparator.service.PriceAlertService;
+import com.accesa.pricecomparator.service.PriceEventService;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link PriceAlertController} on the in-memory repositories.
+ */
+class PriceAlertControllerTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+
+    private StorePartitionExecutor executor;
+    private PriceAlertController controller;
+
+    @BeforeEach
+    void createController() {
+        executor = new StorePartitionExecutor(1, 0);
+        SymbolTable symbols = new SymbolTable();
+        ProductRepositoryInMemory productRepo = new ProductRepositoryInMemory(StorageLayout.ROWS, symbols);
+        DiscountRepositoryInMemory discountRepo = new DiscountRepositoryInMemory(symbols, executor);
+        productRepo.addProducts("lidl", List.of(
+                new Product("P1", "Lapte Zuzu", "lactate", "Zuzu", 1, "l", 899, "RON", MAY_1, "lidl")));
+        EffectivePriceService priceService = new EffectivePriceService(productRepo, discountRepo, symbols, executor);
+        PriceAlertService alertService = new PriceAlertService(new PriceAlertRepositoryInMemory(symbols), productRepo,
+                priceService, symbols);
+        controller = new PriceAlertController(alertService, new PriceEventService(discountRepo, symbols, 16, 0));
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void alertsWithoutAProductNameAreRejectedAsBadRequests() {
+        for (String name : new String[]{null, "", "   "}) {
+            assertThatThrownBy(() -> controller.createAlert(new PriceAlert(name, 900, "ana@example.com")))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        assertThat(controller.getTriggeredAlerts(MAY_1.toString())).isEmpty();
+
+        assertThat(controller.createAlert(new PriceAlert("Lapte Zuzu", 900, "ana@example.com")))
+                .isEqualTo("Alert saved for Lapte Zuzu");
+        assertThat(controller.getTriggeredAlerts(MAY_1.toString())).extracting(PriceAlert::getProductName)
+                .containsExactly("Lapte Zuzu");
+    }
+}
@@ -0,0 +1,210 @@
+package com.accesa.pricecomparator.controller;
+
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
+import com.accesa.pricecomparator.repository.PriceAlertRepositoryInMemory;
+import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.repository.SourceFileRepositoryInMemory;
+import com.accesa.pricecomparator.repository.StorageLayout;
+import com.accesa.pricecomparator.service.DataLoaderService;
+import com.accesa.pricecomparator.service.EffectivePriceService;
+import com.accesa.pricecomparator.service.PriceAlertService;
+import com.accesa.pricecomparator.service.PriceEventService;
+import com.accesa.pricecomparator.util.CsvDiscountLoader;
+import com.accesa.pricecomparator.util.CsvProductLoader;
+import com.accesa.pricecomparator.util.IngestionMetrics;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ResponseCacheFilter} in front of an endpoint that counts its calls, with the data version
+ * driven by a {@link DataLoaderService} loading CSV files from a temporary directory.
+ */
+class ResponseCacheFilterTest {
+
+    private static final String PRODUCT_HEADER =
+            "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n";
+
+    @TempDir
+    Path dataDir;
+
+    private StorePartitionExecutor executor;
+    private DataLoaderService loader;
+    private int calls;
+
+    // raspunde cu un corp de "size" octeti si statusul "status" (implicit 200)
+    private final HttpServlet endpoint = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            calls++;
+            String status = request.getParameter("status");
+            if (status != null) response.setStatus(Integer.parseInt(status));
+            response.setContentType("application/json");
+            String size = request.getParameter("size");
+            response.getOutputStream().write(new byte[size == null ? 10 : Integer.parseInt(size)]);
+        }
+    };
+
+    @BeforeEach
+    void loadData() throws Exception {
+        executor = new StorePartitionExecutor(1, 0);
+        SymbolTable symbols = new SymbolTable();
+        ProductRepositoryInMemory productRepo = new ProductRepositoryInMemory(StorageLayout.ROWS, symbols);
+        DiscountRepositoryInMemory discountRepo = new DiscountRepositoryInMemory(symbols, executor);
+        EffectivePriceService priceService = new EffectivePriceService(productRepo, discountRepo, symbols, executor);
+        IngestionMetrics metrics = new IngestionMetrics(new SimpleMeterRegistry());
+        loader = new DataLoaderService(new CsvProductLoader(metrics), new CsvDiscountLoader(metrics),
+                productRepo, discountRepo, new SourceFileRepositoryInMemory(), priceService,
+                new PriceAlertService(new PriceAlertRepositoryInMemory(symbols), productRepo, priceService, symbols),
+                new PriceEventService(discountRepo, symbols, 16, 0),
+                1, dataDir.toString(), 0, "", 0);
+        Files.writeString(dataDir.resolve("lidl_2025-05-01.csv"), PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;8.99;RON\n");
+        loader.loadAllData();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void cachedResponsesAreServedUntilTheDataChanges() throws Exception {
+        ResponseCacheFilter filter = new ResponseCacheFilter(loader, true, 1 << 20, 1 << 10);
+
+        MockHttpServletResponse first = get(filter, "/api/products/search", Map.of("query", "lapte"), null);
+        MockHttpServletResponse second = get(filter, "/api/products/search", Map.of("query", "lapte"), null);
+
+        assertThat(calls).isEqualTo(1);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(second.getContentType()).isEqualTo("application/json");
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+
+        Files.writeString(dataDir.resolve("profi_2025-05-01.csv"), PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;9.50;RON\n");
+        assertThat(loader.loadNewFiles()).isEqualTo(1);
+
+        MockHttpServletResponse third = get(filter, "/api/products/search", Map.of("query", "lapte"), null);
+        assertThat(calls).isEqualTo(2);
+        assertThat(third.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        get(filter, "/api/products/search", Map.of("query", "lapte"), null);
+        assertThat(calls).isEqualTo(2);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnswered304WithoutRunningTheEndpoint() throws Exception {
+        ResponseCacheFilter filter = new ResponseCacheFilter(loader, true, 1 << 20, 1 << 10);
+        String etag = get(filter, "/api/products/all", Map.of(), null).getHeader(HttpHeaders.ETAG);
+        assertThat(calls).isEqualTo(1);
+
+        MockHttpServletResponse notModified = get(filter, "/api/products/all", Map.of(), "\"x\", W/" + etag);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+        assertThat(calls).isEqualTo(1);
+        // /all nu e pastrat in cache, doar primeste ETag
+        assertThat(filter.getCachedEntries()).isZero();
+        assertThat(get(filter, "/api/products/all", Map.of(), "\"x\"").getStatus()).isEqualTo(200);
+        assertThat(calls).isEqualTo(2);
+
+        Files.writeString(dataDir.resolve("profi_2025-05-01.csv"), PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;9.50;RON\n");
+        loader.loadNewFiles();
+        MockHttpServletResponse changed = get(filter, "/api/products/all", Map.of(), etag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(calls).isEqualTo(3);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedBeyondTheByteBudget() throws Exception {
+        ResponseCacheFilter filter = new ResponseCacheFilter(loader, true, 250, 200);
+
+        get(filter, "/api/products/search", Map.of("query", "a", "size", "100"), null);
+        get(filter, "/api/products/search", Map.of("query", "b", "size", "100"), null);
+        assertThat(filter.getCachedBytes()).isEqualTo(200);
+        // "a" devine cel mai recent folosit, deci "b" iese primul
+        get(filter, "/api/products/search", Map.of("query", "a", "size", "100"), null);
+        get(filter, "/api/products/search", Map.of("query", "c", "size", "100"), null);
+        assertThat(calls).isEqualTo(3);
+        assertThat(filter.getCachedEntries()).isEqualTo(2);
+        assertThat(filter.getCachedBytes()).isEqualTo(200);
+
+        get(filter, "/api/products/search", Map.of("query", "a", "size", "100"), null);
+        get(filter, "/api/products/search", Map.of("query", "c", "size", "100"), null);
+        assertThat(calls).isEqualTo(3);
+        get(filter, "/api/products/search", Map.of("query", "b", "size", "100"), null);
+        assertThat(calls).isEqualTo(4);
+    }
+
+    @Test
+    void oversizedAndFailedResponsesAreNotCached() throws Exception {
+        ResponseCacheFilter filter = new ResponseCacheFilter(loader, true, 1 << 20, 200);
+
+        for (int i = 0; i < 2; i++) {
+            get(filter, "/api/products/search", Map.of("query", "a", "size", "201"), null);
+            get(filter, "/api/discounts/best", Map.of("status", "404"), null);
+        }
+
+        assertThat(calls).isEqualTo(4);
+        assertThat(filter.getCachedEntries()).isZero();
+        assertThat(filter.getCachedBytes()).isZero();
+    }
+
+    @Test
+    void etagsDependOnParameterValuesButNotTheirOrder() throws Exception {
+        ResponseCacheFilter filter = new ResponseCacheFilter(loader, true, 1 << 20, 1 << 10);
+
+        MockHttpServletRequest ab = request("/api/products/search", Map.of());
+        ab.addParameter("query", "lapte");
+        ab.addParameter("limit", "5");
+        MockHttpServletRequest ba = request("/api/products/search", Map.of());
+        ba.addParameter("limit", "5");
+        ba.addParameter("query", "lapte");
+
+        String etag = run(filter, ab).getHeader(HttpHeaders.ETAG);
+        assertThat(run(filter, ba).getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(calls).isEqualTo(1);
+        assertThat(get(filter, "/api/products/search", Map.of("query", "Lapte", "limit", "5"), null)
+                .getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(calls).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse get(ResponseCacheFilter filter, String path, Map<String, String> parameters,
+                                        String ifNoneMatch) throws ServletException, IOException {
+        MockHttpServletRequest request = request(path, parameters);
+        if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return run(filter, request);
+    }
+
+    private MockHttpServletResponse run(ResponseCacheFilter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(endpoint));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, Map<String, String> parameters) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        parameters.forEach(request::addParameter);
+        return request;
+    }
+}
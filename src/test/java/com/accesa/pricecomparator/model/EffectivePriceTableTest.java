@@ -0,0 +1,54 @@
+package com.accesa.pricecomparator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The category and unit index of {@link EffectivePriceTable} against a filter over the table rows,
+ * on random tables.
+ */
+class EffectivePriceTableTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 1);
+    private static final String[] CATEGORIES = {"lactate", "Lactate", "panificatie"};
+    private static final String[] UNITS = {"l", "kg", "buc"};
+
+    @Test
+    void nearbyPricesPerUnitComeBackInTableOrder() {
+        Random random = new Random(23);
+        for (int instance = 0; instance < 200; instance++) {
+            SymbolTable symbols = new SymbolTable();
+            List<EffectivePrice> rows = new ArrayList<>();
+            for (int i = 0, n = random.nextInt(60); i < n; i++) {
+                // preturi din putine valori, ca sa existe egalitati si capete exacte de interval
+                long price = 90 + 5L * random.nextInt(8);
+                long finalPrice = random.nextBoolean() ? price : price - 10;
+                Product p = new Product("P" + i, "Produs " + i, CATEGORIES[random.nextInt(CATEGORIES.length)], null,
+                        1 + random.nextInt(2), UNITS[random.nextInt(UNITS.length)], price, "RON", DATE, "store" + random.nextInt(3));
+                symbols.canonicalize(p);
+                rows.add(new EffectivePrice(p, price, (int) (100 - finalPrice * 100 / price), finalPrice));
+            }
+            EffectivePriceTable table = new EffectivePriceTable(DATE, rows, symbols);
+
+            for (String category : CATEGORIES) {
+                for (String unit : UNITS) {
+                    double pricePerUnit = Money.perUnit(80 + 5L * random.nextInt(8), 1 + random.nextInt(2));
+                    List<EffectivePrice> expected = rows.stream()
+                            .filter(r -> r.getProduct().getProductCategory().equalsIgnoreCase(category))
+                            .filter(r -> r.getProduct().getPackageUnit().equalsIgnoreCase(unit))
+                            .filter(r -> Math.abs(r.getFinalPricePerUnit() - pricePerUnit) / pricePerUnit <= 0.10)
+                            .toList();
+                    assertThat(table.findByCategoryAndUnitNear(category, unit, pricePerUnit, 0.10))
+                            .as("instance %d, %s/%s around %s", instance, category, unit, pricePerUnit)
+                            .containsExactlyElementsOf(expected);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.accesa.pricecomparator.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The cents conversions of {@link Money}, against {@link BigDecimal} rounding, and the JSON form
+ * of {@link Cents} fields.
+ */
+class MoneyTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void decimalsAreRoundedHalfUpToTheCent() {
+        assertThat(Money.of(new BigDecimal("0.1").add(new BigDecimal("0.2")))).isEqualTo(30);
+        // suma in double nu e exact 0.3, dar se rotunjeste tot la 30 de bani
+        assertThat(Money.of(new BigDecimal(Double.toString(0.1 + 0.2)))).isEqualTo(30);
+        assertThat(Money.of(new BigDecimal("12.345"))).isEqualTo(1235);
+        assertThat(Money.of(new BigDecimal("12.3449999"))).isEqualTo(1234);
+        assertThat(Money.of(new BigDecimal("12.3450001"))).isEqualTo(1235);
+        // la jumatate se rotunjeste in sus si pentru sume negative
+        assertThat(Money.of(new BigDecimal("-12.345"))).isEqualTo(-1234);
+        assertThat(Money.of(new BigDecimal("-12.3451"))).isEqualTo(-1235);
+        assertThat(Money.of(new BigDecimal("7.2"))).isEqualTo(720);
+        assertThat(Money.of(new BigDecimal("1E+3"))).isEqualTo(100_000);
+    }
+
+    @Test
+    void ofMatchesBigDecimalRounding() {
+        Random random = new Random(17);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = new BigDecimal(BigInteger.valueOf(random.nextLong(-10_000_000_000L, 10_000_000_000L)),
+                    random.nextInt(9));
+            long expected = amount.add(new BigDecimal("0.005")).setScale(2, RoundingMode.FLOOR)
+                    .movePointRight(2).longValueExact();
+            assertThat(Money.of(amount)).as("%s", amount).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void scaledAmounts() {
+        assertThat(Money.ofScaled(1299, 2)).isEqualTo(1299);
+        assertThat(Money.ofScaled(72, 1)).isEqualTo(720);
+        assertThat(Money.ofScaled(5, 0)).isEqualTo(500);
+        assertThat(Money.ofScaled(12345, 3)).isEqualTo(1235);
+        assertThat(Money.ofScaled(3, -2)).isEqualTo(30_000);
+        assertThatThrownBy(() -> Money.ofScaled(1, -17)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofScaled(Long.MAX_VALUE / 10, 0)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void discountsAndUnitPrices() {
+        assertThat(Money.discounted(999, 0)).isEqualTo(999);
+        assertThat(Money.discounted(999, 15)).isEqualTo(849);   // 849.15
+        assertThat(Money.discounted(1250, 10)).isEqualTo(1125);
+        assertThat(Money.discounted(5, 50)).isEqualTo(3);       // 2.5
+        assertThat(Money.discounted(899, 100)).isZero();
+        assertThat(Money.toDouble(1235)).isEqualTo(12.35);
+        assertThat(Money.toDouble(-5)).isEqualTo(-0.05);
+        assertThat(Money.perUnit(1250, 0.25)).isEqualTo(50.0);
+    }
+
+    @Test
+    void centsFieldsAreDecimalNumbersInJson() throws JsonProcessingException {
+        String json = mapper.writeValueAsString(new PriceAlert("Lapte Zuzu", 1235, "a@b.ro"));
+
+        assertThat(json).contains("\"targetPrice\":12.35");
+        assertThat(mapper.readValue(json, PriceAlert.class).getTargetPrice()).isEqualTo(1235);
+        assertThat(targetPrice("7")).isEqualTo(700);
+        assertThat(targetPrice("12.345")).isEqualTo(1235);
+        assertThat(targetPrice("0.30000000000000004")).isEqualTo(30);
+        assertThat(targetPrice("\" 9.99 \"")).isEqualTo(999);
+        assertThat(targetPrice("-0.5")).isEqualTo(-50);
+    }
+
+    @Test
+    void invalidAmountsAreRejected() {
+        assertThatThrownBy(() -> targetPrice("\"noua lei\"")).isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> targetPrice("\"1E+30\"")).isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> targetPrice("true")).isInstanceOf(MismatchedInputException.class);
+    }
+
+    @Test
+    void jsonRoundTripKeepsEveryAmount() throws JsonProcessingException {
+        Random random = new Random(23);
+        for (int i = 0; i < 100_000; i++) {
+            // sub 2^53 / 100 fiecare suma in bani are o reprezentare double care se citeste inapoi exact
+            long cents = random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L);
+            String json = mapper.writeValueAsString(new PriceAlert("Lapte", cents, null));
+            assertThat(mapper.readValue(json, PriceAlert.class).getTargetPrice()).as(json).isEqualTo(cents);
+        }
+    }
+
+    private long targetPrice(String amount) throws JsonProcessingException {
+        return mapper.readValue("{\"productName\":\"Lapte\",\"targetPrice\":" + amount + "}", PriceAlert.class).getTargetPrice();
+    }
+}
@@ -0,0 +1,55 @@
+package com.accesa.pricecomparator.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link AppendOnlyList}: every version keeps its own elements while later versions share and
+ * extend the backing array.
+ */
+class AppendOnlyListTest {
+
+    @Test
+    void olderVersionsNeverSeeLaterAppends() {
+        Random random = new Random(29);
+        AppendOnlyList<Integer> list = AppendOnlyList.empty();
+        List<Integer> expected = new ArrayList<>();
+        List<AppendOnlyList<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> expectedVersions = new ArrayList<>();
+
+        for (int append = 0; append < 500; append++) {
+            List<Integer> added = new ArrayList<>();
+            for (int i = 0, n = random.nextInt(5); i < n; i++) added.add(random.nextInt());
+            list = list.append(added);
+            expected.addAll(added);
+            versions.add(list);
+            expectedVersions.add(List.copyOf(expected));
+        }
+
+        for (int v = 0; v < versions.size(); v++) {
+            assertThat(versions.get(v)).as("version %d", v).containsExactlyElementsOf(expectedVersions.get(v));
+        }
+    }
+
+    @Test
+    void appendingToAnOlderVersionCopiesInsteadOfOverwriting() {
+        AppendOnlyList<String> base = AppendOnlyList.<String>empty().append(List.of("a", "b"));
+        AppendOnlyList<String> newer = base.append(List.of("c"));
+        AppendOnlyList<String> branch = base.append(List.of("x", "y"));
+        AppendOnlyList<String> newest = newer.append(List.of("d"));
+
+        assertThat(base).containsExactly("a", "b");
+        assertThat(newer).containsExactly("a", "b", "c");
+        assertThat(branch).containsExactly("a", "b", "x", "y");
+        assertThat(newest).containsExactly("a", "b", "c", "d");
+        assertThat(base.append(List.of())).isSameAs(base);
+        assertThatThrownBy(() -> newer.get(3)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> newer.add("e")).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+
+class InMemoryRepositoryTest extends RepositoryContractTest {
+
+    @Override
+    ProductRepository newProductRepository(SymbolTable symbols) {
+        return new ProductRepositoryInMemory(StorageLayout.ROWS, symbols);
+    }
+
+    @Override
+    DiscountRepository newDiscountRepository(SymbolTable symbols) {
+        return new DiscountRepositoryInMemory(symbols, new StorePartitionExecutor(1, 0));
+    }
+
+    @Override
+    PriceAlertRepository newPriceAlertRepository(SymbolTable symbols) {
+        return new PriceAlertRepositoryInMemory(symbols);
+    }
+
+    @Override
+    SourceFileRepository newSourceFileRepository() {
+        return new SourceFileRepositoryInMemory();
+    }
+}
@@ -0,0 +1,129 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.SymbolTable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The repositories of the {@code postgres} profile, on the schema that profile creates. The
+ * database is a Testcontainers PostgreSQL, or the one given by the system properties
+ * {@code pricecomparator.test.postgres.url}, {@code .username} and {@code .password}; without either
+ * the tests are skipped. Every table is emptied before each test.
+ */
+class JdbcRepositoryTest extends RepositoryContractTest {
+
+    private static PostgreSQLContainer<?> container;
+    private static JdbcTemplate jdbc;
+    private static DataSourceTransactionManager transactionManager;
+
+    @BeforeAll
+    static void startDatabase() {
+        String url = System.getProperty("pricecomparator.test.postgres.url");
+        DriverManagerDataSource dataSource;
+        if (url != null) {
+            dataSource = new DriverManagerDataSource(url,
+                    System.getProperty("pricecomparator.test.postgres.username", "postgres"),
+                    System.getProperty("pricecomparator.test.postgres.password", ""));
+        } else {
+            Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                    "needs Docker or -Dpricecomparator.test.postgres.url");
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+            dataSource = new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        }
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/postgres/schema.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (container != null) container.stop();
+    }
+
+    @BeforeEach
+    void emptyTables() {
+        jdbc.execute("TRUNCATE product, discount, price_alert, alert_lowest_price, source_file RESTART IDENTITY");
+    }
+
+    @Override
+    ProductRepository newProductRepository(SymbolTable symbols) {
+        // buffer mic, ca un fisier sa fie trimis in mai multe bucati
+        return new ProductRepositoryJdbc(jdbc, transactionManager, symbols, 64);
+    }
+
+    @Override
+    DiscountRepository newDiscountRepository(SymbolTable symbols) {
+        return new DiscountRepositoryJdbc(jdbc, transactionManager, symbols, 64);
+    }
+
+    @Override
+    PriceAlertRepository newPriceAlertRepository(SymbolTable symbols) {
+        return new PriceAlertRepositoryJdbc(jdbc, transactionManager);
+    }
+
+    @Override
+    SourceFileRepository newSourceFileRepository() {
+        return new SourceFileRepositoryJdbc(jdbc);
+    }
+
+    @Test
+    void copySplitsLargeFilesIntoChunks() {
+        List<Product> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(product("P" + i, "Produs \"" + i + "\", ăîșț", "lactate", "Brand " + (i % 7), 1, i, MAY_1, "Lidl"));
+        }
+        products.addProducts("Lidl", rows, "lidl_2025-05-01.csv");
+
+        assertThat(products.getRowCount()).isEqualTo(5_000);
+        assertThat(products.getByDate(MAY_1)).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    void reloadingAFileReplacesTheRowsItLeftBehind() {
+        List<Product> rows = List.of(
+                product("P1", "Lapte Zuzu", "lactate", "Zuzu", 1, 899, MAY_1, "Lidl"),
+                product("P2", "Iaurt", "lactate", "Danone", 0.4, 450, MAY_1, "Lidl"));
+        products.addProducts("Lidl", rows, "lidl_2025-05-01.csv");
+        products.addProducts("Lidl", List.of(product("P3", "Paine", null, null, 0.5, 399, MAY_1, "Lidl")), null);
+        // incarcarea a fost intrerupta inainte ca fisierul sa fie inregistrat; la repornire e citit din nou
+        products.addProducts("Lidl", rows, "lidl_2025-05-01.csv");
+
+        assertThat(products.getRowCount()).isEqualTo(3);
+        assertThat(products.getByDate(MAY_1)).extracting(Product::getProductName)
+                .containsExactly("Paine", "Lapte Zuzu", "Iaurt");
+
+        var discountRows = List.of(discount("Lapte Zuzu", MAY_1, MAY_2, 10, "Lidl"));
+        discounts.addDiscounts("Lidl", discountRows, "lidl_discounts_2025-05-01.csv");
+        discounts.addDiscounts("Lidl", discountRows, "lidl_discounts_2025-05-01.csv");
+        assertThat(discounts.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void aFailedCopyLeavesNoRows() {
+        List<Product> rows = new ArrayList<>();
+        rows.add(product("P1", "Lapte Zuzu", "lactate", "Zuzu", 1, 899, MAY_1, "Lidl"));
+        rows.add(product("P2", "Fara data", "lactate", "Zuzu", 1, 899, null, "Lidl"));
+
+        assertThatThrownBy(() -> products.addProducts("Lidl", rows, "lidl_x.csv"));
+        assertThat(products.getRowCount()).isZero();
+    }
+}
@@ -0,0 +1,139 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.Symbol;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.util.TextNormalizer;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link NameSearchIndex} against a {@code contains} scan over the distinct folded names, in the
+ * order they were first loaded.
+ */
+class NameSearchIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 1);
+
+    private final SymbolTable symbols = new SymbolTable();
+
+    @Test
+    void queriesShorterThanATrigramScanTheNames() {
+        NameSearchIndex index = NameSearchIndex.EMPTY.with(rows("Lapte Zuzu", "Brânză telemea", "Ouă", "Iaurt"), symbols);
+
+        assertThat(keys(index.search("ou", 10))).containsExactly("ouă");
+        assertThat(keys(index.search("a", 10))).containsExactly("lapte zuzu", "brânză telemea", "ouă", "iaurt");
+        assertThat(keys(index.search("Ă", 10))).containsExactly("lapte zuzu", "brânză telemea", "ouă", "iaurt");
+        assertThat(keys(index.search("ua", 10))).containsExactly("ouă");
+        assertThat(keys(index.search("zz", 10))).isEmpty();
+        // interogarea goala se potriveste cu toate numele
+        assertThat(index.search("", 10)).hasSize(4);
+    }
+
+    @Test
+    void caseAndDiacriticsAreFoldedOnBothSides() {
+        NameSearchIndex index = NameSearchIndex.EMPTY.with(
+                rows("Brânză telemea", "BRANZA DE VACI", "Șnițel de pui", "Şniţel vegetal", "Crème brûlée"), symbols);
+
+        assertThat(keys(index.search("branza", 10))).containsExactly("brânză telemea", "branza de vaci");
+        assertThat(keys(index.search("BRÂNZĂ", 10))).containsExactly("brânză telemea", "branza de vaci");
+        // sedila si virgula de sub s/t sunt aceeasi litera
+        assertThat(keys(index.search("snitel", 10))).containsExactly("șnițel de pui", "şniţel vegetal");
+        assertThat(keys(index.search("ŞNIȚEL", 10))).containsExactly("șnițel de pui", "şniţel vegetal");
+        assertThat(keys(index.search("creme brulee", 10))).containsExactly("crème brûlée");
+    }
+
+    @Test
+    void trigramsMustAppearTogether() {
+        // ambele nume au trigramele "lap", "apt" si "pte", doar unul contine "lapte"
+        NameSearchIndex index = NameSearchIndex.EMPTY.with(rows("Lapte", "Lap apt pte"), symbols);
+
+        assertThat(keys(index.search("lapte", 10))).containsExactly("lapte");
+        assertThat(index.search("lapteee", 10)).isEmpty();
+        assertThat(index.search("ciocolata", 10)).isEmpty();
+    }
+
+    @Test
+    void limitKeepsTheFirstLoadedNames() {
+        NameSearchIndex index = NameSearchIndex.EMPTY.with(
+                rows("Lapte 1", "Iaurt", "Lapte 2", "Lapte 3", "Lapte 4"), symbols);
+
+        assertThat(keys(index.search("lapte", 2))).containsExactly("lapte 1", "lapte 2");
+        assertThat(keys(index.search("la", 3))).containsExactly("lapte 1", "lapte 2", "lapte 3");
+        assertThat(index.search("lapte", 0)).isEmpty();
+        assertThat(index.search("lapte", 100)).hasSize(4);
+    }
+
+    @Test
+    void laterAppendsAddOnlyNewNames() {
+        NameSearchIndex first = NameSearchIndex.EMPTY.with(rows("Lapte Zuzu", "Iaurt"), symbols);
+        NameSearchIndex second = first.with(rows("LAPTE ZUZU", "Lapte de capra", "Iaurt cu lapte"), symbols);
+
+        assertThat(second.size()).isEqualTo(4);
+        assertThat(keys(second.search("lapte", 10))).containsExactly("lapte zuzu", "lapte de capra", "iaurt cu lapte");
+        assertThat(keys(second.search("iaurt", 10))).containsExactly("iaurt", "iaurt cu lapte");
+        // indexul vechi ramane neschimbat
+        assertThat(first.size()).isEqualTo(2);
+        assertThat(keys(first.search("lapte", 10))).containsExactly("lapte zuzu");
+        // randuri fara nume nou: acelasi index
+        assertThat(second.with(rows("Iaurt", "lapte zuzu"), symbols)).isSameAs(second);
+    }
+
+    @Test
+    void matchesAScanOnRandomAppends() {
+        Random random = new Random(5);
+        String[] words = {"lapte", "Brânză", "ouă", "pâine", "iaurt", "Șnițel", "apă", "de", "cu", "la", "ZUZU"};
+        String[] queries = {"a", "la", "lap", "LAPTE", "branza", "ua", "snit", "apa", "de la", "zuzu", "te cu", "a de", "xyz", "ă"};
+        for (int run = 0; run < 50; run++) {
+            NameSearchIndex index = NameSearchIndex.EMPTY;
+            Set<String> loaded = new LinkedHashSet<>();
+            for (int append = 0, appends = 1 + random.nextInt(5); append < appends; append++) {
+                List<Product> batch = new ArrayList<>();
+                for (int r = 0, count = random.nextInt(20); r < count; r++) {
+                    StringBuilder name = new StringBuilder(words[random.nextInt(words.length)]);
+                    for (int w = 0, extra = random.nextInt(3); w < extra; w++) {
+                        name.append(' ').append(words[random.nextInt(words.length)]);
+                    }
+                    batch.add(product(name.toString()));
+                    loaded.add(TextNormalizer.normalize(name.toString()));
+                }
+                index = index.with(batch, symbols);
+                assertThat(index.size()).isEqualTo(loaded.size());
+
+                for (String query : queries) {
+                    int limit = 1 + random.nextInt(10);
+                    String folded = TextNormalizer.fold(query);
+                    List<String> expected = loaded.stream()
+                            .filter(name -> TextNormalizer.fold(name).contains(folded))
+                            .limit(limit)
+                            .toList();
+                    assertThat(keys(index.search(query, limit)))
+                            .as("run %d append %d query %s limit %d", run, append, query, limit)
+                            .containsExactlyElementsOf(expected);
+                }
+            }
+        }
+    }
+
+    private static List<Product> rows(String... names) {
+        List<Product> rows = new ArrayList<>();
+        for (String name : names) rows.add(product(name));
+        return rows;
+    }
+
+    private static Product product(String name) {
+        return new Product("P", name, "diverse", null, 1, "buc", 100, "RON", DATE, "Lidl");
+    }
+
+    private static List<String> keys(List<Symbol> symbols) {
+        return symbols.stream().map(Symbol::key).toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.accesa.pricecomparator.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link PersistentHashMap} against a {@link HashMap} given the same updates, with every older
+ * version checked to be left unchanged.
+ */
+class PersistentHashMapTest {
+
+    @Test
+    void matchesAHashMapAndKeepsOlderVersions() {
+        Random random = new Random(13);
+        for (int run = 0; run < 20; run++) {
+            PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+            Map<Key, Integer> expected = new HashMap<>();
+            List<PersistentHashMap<Key, Integer>> versions = new ArrayList<>();
+            List<Map<Key, Integer>> expectedVersions = new ArrayList<>();
+
+            // hash-uri din putini biti, ca sa apara si coliziuni complete si prefixe comune
+            int mask = (int) ((1L << (1 + random.nextInt(32))) - 1);
+            for (int i = 0; i < 2_000; i++) {
+                int id = random.nextInt(3_000);
+                Key key = new Key(id, (id * 0x9E3779B9) & mask);
+                int value = random.nextInt(1_000);
+                if (random.nextBoolean()) {
+                    map = map.with(key, value);
+                    expected.put(key, value);
+                } else {
+                    map = map.merge(key, value, Integer::sum);
+                    expected.merge(key, value, Integer::sum);
+                }
+                if (i % 200 == 0) {
+                    versions.add(map);
+                    expectedVersions.add(new HashMap<>(expected));
+                }
+            }
+
+            for (int v = 0; v < versions.size(); v++) {
+                check(versions.get(v), expectedVersions.get(v));
+            }
+            check(map, expected);
+        }
+    }
+
+    @Test
+    void keysWithTheSameHashAreKeptApart() {
+        PersistentHashMap<Key, String> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100; i++) map = map.with(new Key(i, 42), "v" + i);
+        PersistentHashMap<Key, String> replaced = map.with(new Key(7, 42), "w");
+
+        assertThat(map.size()).isEqualTo(100);
+        assertThat(replaced.size()).isEqualTo(100);
+        assertThat(map.get(new Key(7, 42))).isEqualTo("v7");
+        assertThat(replaced.get(new Key(7, 42))).isEqualTo("w");
+        assertThat(replaced.get(new Key(99, 42))).isEqualTo("v99");
+        assertThat(replaced.get(new Key(100, 42))).isNull();
+        assertThat(replaced.getOrDefault(new Key(100, 43), "none")).isEqualTo("none");
+    }
+
+    private static void check(PersistentHashMap<Key, Integer> map, Map<Key, Integer> expected) {
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).as("%s", key).isEqualTo(value));
+        for (int id = 3_000; id < 3_050; id++) {
+            assertThat(map.get(new Key(id, 0))).isNull();
+            assertThat(map.get(new Key(id, id * 0x9E3779B9))).isNull();
+        }
+    }
+
+    // cheie cu hash ales de test; cheile egale au acelasi hash
+    private record Key(int id, int hash) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.accesa.pricecomparator.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link PersistentTreeMap} and its key views against a {@link TreeMap} given the same updates.
+ */
+class PersistentTreeMapTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void matchesATreeMapAndKeepsOlderVersions() {
+        Random random = new Random(19);
+        for (int run = 0; run < 10; run++) {
+            PersistentTreeMap<LocalDate, Integer> map = PersistentTreeMap.empty();
+            TreeMap<LocalDate, Integer> expected = new TreeMap<>();
+            List<PersistentTreeMap<LocalDate, Integer>> versions = new ArrayList<>();
+            List<TreeMap<LocalDate, Integer>> expectedVersions = new ArrayList<>();
+
+            int span = 1 + random.nextInt(400);
+            for (int i = 0; i < 300; i++) {
+                // de obicei o zi noua la capat, uneori o zi mai veche sau una deja incarcata
+                LocalDate date = random.nextInt(3) == 0
+                        ? START.plusDays(random.nextInt(span))
+                        : START.plusDays(span + i);
+                map = map.with(date, i);
+                expected.put(date, i);
+                if (i % 50 == 0) {
+                    versions.add(map);
+                    expectedVersions.add(new TreeMap<>(expected));
+                }
+            }
+
+            for (int v = 0; v < versions.size(); v++) {
+                check(versions.get(v), expectedVersions.get(v), random);
+            }
+            check(map, expected, random);
+        }
+    }
+
+    @Test
+    void emptyMapAndConsecutiveDates() {
+        PersistentTreeMap<LocalDate, Integer> map = PersistentTreeMap.empty();
+        assertThat(map.keySet()).isEmpty();
+        assertThat(map.keySet().ceiling(START)).isNull();
+        assertThat(map.get(START)).isNull();
+        assertThatThrownBy(() -> map.keySet().first()).isInstanceOf(NoSuchElementException.class);
+
+        // douazeci de ani de zile in ordine, cazul obisnuit al incarcarii
+        PersistentTreeMap<LocalDate, Integer> days = map;
+        for (int i = 0; i < 7_300; i++) days = days.with(START.plusDays(i), i);
+        assertThat(days.size()).isEqualTo(7_300);
+        assertThat(days.get(START.plusDays(5_000))).isEqualTo(5_000);
+        assertThat(days.keySet().last()).isEqualTo(START.plusDays(7_299));
+        assertThat(days.values()).hasSize(7_300).startsWith(0, 1, 2);
+    }
+
+    @Test
+    void invertedOrOutOfRangeBoundsAreRejectedLikeTreeSet() {
+        PersistentTreeMap<LocalDate, Integer> map = PersistentTreeMap.<LocalDate, Integer>empty()
+                .with(START, 1).with(START.plusDays(10), 2);
+        NavigableSet<LocalDate> keys = map.keySet();
+
+        assertThatThrownBy(() -> keys.subSet(START.plusDays(5), true, START, true))
+                .isInstanceOf(IllegalArgumentException.class);
+        NavigableSet<LocalDate> week = keys.subSet(START, true, START.plusDays(7), true);
+        assertThatThrownBy(() -> week.tailSet(START.plusDays(8), true)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> week.pollFirst()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(week).containsExactly(START);
+    }
+
+    private static void check(PersistentTreeMap<LocalDate, Integer> map, TreeMap<LocalDate, Integer> expected,
+                              Random random) {
+        assertThat(map.size()).isEqualTo(expected.size());
+        assertThat(map.keySet()).containsExactlyElementsOf(expected.navigableKeySet());
+        assertThat(map.values()).containsExactlyElementsOf(expected.values());
+        assertThat(descending(map.keySet())).containsExactlyElementsOf(expected.descendingKeySet());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+
+        LocalDate first = expected.firstKey().minusDays(3);
+        int span = (int) (expected.lastKey().toEpochDay() - first.toEpochDay()) + 6;
+        for (int i = 0; i < 30; i++) {
+            LocalDate from = first.plusDays(random.nextInt(span));
+            LocalDate to = from.plusDays(random.nextInt(span));
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            compare(map.keySet().subSet(from, fromInclusive, to, toInclusive),
+                    expected.navigableKeySet().subSet(from, fromInclusive, to, toInclusive), first, span, random);
+            compare(map.keySet().headSet(to, toInclusive), expected.navigableKeySet().headSet(to, toInclusive), first, span, random);
+            compare(map.keySet().tailSet(from, fromInclusive), expected.navigableKeySet().tailSet(from, fromInclusive), first, span, random);
+        }
+        compare(map.keySet(), expected.navigableKeySet(), first, span, random);
+    }
+
+    private static void compare(NavigableSet<LocalDate> actual, NavigableSet<LocalDate> expected, LocalDate first, int span,
+                                Random random) {
+        assertThat(actual).containsExactlyElementsOf(expected);
+        assertThat(actual.size()).isEqualTo(expected.size());
+        assertThat(descending(actual)).containsExactlyElementsOf(expected.descendingSet());
+        assertThat(actual.descendingSet()).containsExactlyElementsOf(expected.descendingSet());
+        if (!expected.isEmpty()) {
+            assertThat(actual.first()).isEqualTo(expected.first());
+            assertThat(actual.last()).isEqualTo(expected.last());
+        }
+        // capetele intervalului, unde se greseste cel mai usor, plus zile aleatoare
+        List<LocalDate> dates = new ArrayList<>();
+        if (!expected.isEmpty()) {
+            for (int d = -1; d <= 1; d++) {
+                dates.add(expected.first().plusDays(d));
+                dates.add(expected.last().plusDays(d));
+            }
+        }
+        for (int i = 0; i < 15; i++) dates.add(first.plusDays(random.nextInt(span)));
+
+        for (LocalDate date : dates) {
+            assertThat(actual.contains(date)).as("%s in %s", date, expected).isEqualTo(expected.contains(date));
+            assertThat(actual.lower(date)).as("%s in %s", date, expected).isEqualTo(expected.lower(date));
+            assertThat(actual.floor(date)).as("%s in %s", date, expected).isEqualTo(expected.floor(date));
+            assertThat(actual.ceiling(date)).as("%s in %s", date, expected).isEqualTo(expected.ceiling(date));
+            assertThat(actual.higher(date)).as("%s in %s", date, expected).isEqualTo(expected.higher(date));
+        }
+    }
+
+    private static List<LocalDate> descending(NavigableSet<LocalDate> set) {
+        List<LocalDate> result = new ArrayList<>();
+        for (Iterator<LocalDate> it = set.descendingIterator(); it.hasNext(); ) result.add(it.next());
+        return result;
+    }
+}
@@ -0,0 +1,334 @@
+package com.accesa.pricecomparator.repository;
+
+import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.PriceAggregate;
+import com.accesa.pricecomparator.model.PriceAlert;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.BinarySnapshot.SourceFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The behaviour every repository implementation shares; each subclass runs these assertions
+ * against one storage backend.
+ */
+abstract class RepositoryContractTest {
+
+    static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    static final LocalDate MAY_2 = LocalDate.of(2025, 5, 2);
+
+    SymbolTable symbols;
+    ProductRepository products;
+    DiscountRepository discounts;
+    PriceAlertRepository alerts;
+    SourceFileRepository files;
+
+    abstract ProductRepository newProductRepository(SymbolTable symbols);
+
+    abstract DiscountRepository newDiscountRepository(SymbolTable symbols);
+
+    abstract PriceAlertRepository newPriceAlertRepository(SymbolTable symbols);
+
+    abstract SourceFileRepository newSourceFileRepository();
+
+    @BeforeEach
+    void createRepositories() {
+        symbols = new SymbolTable();
+        products = newProductRepository(symbols);
+        discounts = newDiscountRepository(symbols);
+        alerts = newPriceAlertRepository(symbols);
+        files = newSourceFileRepository();
+    }
+
+    @Test
+    void ingestKeepsEveryField() {
+        List<Product> rows = List.of(
+                product("P1", "Lapte \"Zuzu\", 1,5%", "lactate", "Zuzu", 1.5, 899, MAY_1, "Lidl"),
+                product("P2", "Brânză telemea", "lactate", "", 0.25, 1250, MAY_1, "Lidl"),
+                product("P3", "Pâine albă", null, null, 0.5, 399, MAY_1, "Lidl"));
+        products.addProducts("Lidl", rows);
+
+        assertThat(products.getAll()).containsExactlyInAnyOrderElementsOf(rows);
+        assertThat(products.getRowCount()).isEqualTo(3);
+        assertThat(products.getDistinctNameCount()).isEqualTo(3);
+    }
+
+    @Test
+    void lookupsIgnoreCase() {
+        loadSampleProducts();
+
+        assertThat(products.getDates()).containsExactly(MAY_1, MAY_2);
+        assertThat(products.findByNameAndDate("LAPTE ZUZU", MAY_1)).extracting(Product::getStore)
+                .containsExactlyInAnyOrder("Lidl", "Profi");
+        assertThat(products.findByNameAndDate(symbols.find("lapte zuzu"), MAY_2)).hasSize(1);
+        assertThat(products.findByName("lapte zuzu")).hasSize(3);
+        assertThat(products.getByStore("PROFI")).extracting(Product::getProductName)
+                .containsExactly("Lapte Zuzu", "Iaurt cu lapte");
+        assertThat(products.getByStore("Auchan")).isEmpty();
+        assertThat(products.getByDate(LocalDate.of(2025, 4, 30))).isEmpty();
+    }
+
+    @Test
+    void storePartitionsSplitTheRowsOfADate() {
+        loadSampleProducts();
+
+        List<Product> flattened = new ArrayList<>();
+        for (List<Product> partition : products.getStorePartitions(MAY_1)) {
+            assertThat(partition).extracting(Product::getStore).containsOnly(partition.get(0).getStore());
+            flattened.addAll(partition);
+        }
+        assertThat(products.getStorePartitions(MAY_1)).hasSize(2);
+        assertThat(flattened).containsExactlyElementsOf(products.getByDate(MAY_1));
+        assertThat(products.getStorePartitions(LocalDate.of(2025, 4, 30))).isEmpty();
+    }
+
+    @Test
+    void pagesFollowDateStoreAndLoadOrder() {
+        loadSampleProducts();
+
+        List<Product> paged = new ArrayList<>();
+        ProductRepository.RowPosition next = ProductRepository.RowPosition.START;
+        while (next != null) {
+            List<Product> page = new ArrayList<>();
+            next = products.readPage(next, 2, page);
+            assertThat(page.size()).isLessThanOrEqualTo(2);
+            paged.addAll(page);
+        }
+
+        assertThat(paged).extracting(p -> p.getDate() + " " + p.getStore() + " " + p.getProductName()).containsExactly(
+                "2025-05-01 Lidl Lapte Zuzu",
+                "2025-05-01 Lidl Brânză telemea",
+                "2025-05-01 Profi Lapte Zuzu",
+                "2025-05-01 Profi Iaurt cu lapte",
+                "2025-05-02 Lidl Lapte Zuzu");
+        assertThat(toList(products.iterator())).containsExactlyElementsOf(paged);
+    }
+
+    @Test
+    void searchMatchesSubstringsIgnoringCaseAndDiacritics() {
+        loadSampleProducts();
+
+        // un rand per nume, cel de la ultima data, numele in ordinea in care au aparut
+        assertThat(products.searchByName("LAPTE", 10)).extracting(p -> p.getProductName() + " " + p.getDate())
+                .containsExactly("Lapte Zuzu 2025-05-02", "Iaurt cu lapte 2025-05-01");
+        assertThat(products.searchByName("branza", 10)).extracting(Product::getProductName)
+                .containsExactly("Brânză telemea");
+        assertThat(products.searchByName("lapte", 1)).hasSize(1);
+        assertThat(products.searchByName("ciocolata", 10)).isEmpty();
+    }
+
+    @Test
+    void dailyStatsFilterByStoreAndCategory() {
+        loadSampleProducts();
+
+        NavigableMap<LocalDate, PriceAggregate> all = products.getDailyStats(null, null);
+        assertThat(all.keySet()).containsExactly(MAY_1, MAY_2);
+        assertThat(all.get(MAY_1).getCount()).isEqualTo(4);
+        assertThat(all.get(MAY_1).getMin()).isEqualTo(450);
+        assertThat(all.get(MAY_1).getMax()).isEqualTo(1250);
+
+        PriceAggregate lidlDairy = products.getDailyStats("LIDL", "Lactate").get(MAY_1);
+        assertThat(lidlDairy.getCount()).isEqualTo(2);
+        assertThat(lidlDairy.getAverage()).isEqualTo((899 + 1250) / 2.0 / 100);
+        assertThat(products.getDailyStats("Auchan", null)).isEmpty();
+
+        assertThat(products.getAllBrands()).containsExactly("Danone", "Zuzu");
+    }
+
+    @Test
+    void activeDiscountPrefersTheMostRecentStart() {
+        Discount wide = discount("Lapte Zuzu", MAY_1, LocalDate.of(2025, 5, 10), 10, "Lidl");
+        Discount nested = discount("Lapte Zuzu", LocalDate.of(2025, 5, 5), LocalDate.of(2025, 5, 7), 20, "Lidl");
+        Discount other = discount("Lapte Zuzu", MAY_1, LocalDate.of(2025, 5, 7), 30, "Profi");
+        discounts.addDiscounts("Lidl", List.of(wide, nested));
+        discounts.addDiscounts("Profi", List.of(other));
+
+        assertThat(discounts.findActiveDiscount("LAPTE ZUZU", "lidl", LocalDate.of(2025, 5, 6))).contains(nested);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 8))).contains(wide);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 10))).contains(wide);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 11))).isEmpty();
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Profi", LocalDate.of(2025, 4, 30))).isEmpty();
+        assertThat(discounts.findActiveDiscount("paine", "Lidl", MAY_2)).isEmpty();
+    }
+
+    @Test
+    void activeDiscountBoundariesOverlapsAndTies() {
+        Discount first = discount("Lapte Zuzu", MAY_1, LocalDate.of(2025, 5, 5), 10, "Lidl");
+        Discount overlapping = discount("Lapte Zuzu", LocalDate.of(2025, 5, 3), LocalDate.of(2025, 5, 8), 15, "Lidl");
+        Discount oneDay = discount("Lapte Zuzu", LocalDate.of(2025, 5, 12), LocalDate.of(2025, 5, 12), 5, "Lidl");
+        Discount sameStart = discount("Lapte Zuzu", LocalDate.of(2025, 5, 3), LocalDate.of(2025, 5, 4), 40, "Lidl");
+        discounts.addDiscounts("Lidl", List.of(first, overlapping, oneDay));
+        // alt fisier, cu aceeasi data de inceput ca `overlapping`: castiga cea incarcata ultima
+        discounts.addDiscounts("Lidl", List.of(sameStart));
+
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 4, 30))).isEmpty();
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", MAY_1)).contains(first);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", MAY_2)).contains(first);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 3))).contains(sameStart);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 4))).contains(sameStart);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 5))).contains(overlapping);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 8))).contains(overlapping);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 9))).isEmpty();
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 11))).isEmpty();
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 12))).contains(oneDay);
+        assertThat(discounts.findActiveDiscount("lapte zuzu", "Lidl", LocalDate.of(2025, 5, 13))).isEmpty();
+    }
+
+    @Test
+    void activeDiscountMatchesALinearScan() {
+        Random random = new Random(5);
+        String[] names = {"Lapte Zuzu", "Iaurt"};
+        String[] stores = {"Lidl", "Profi"};
+        LocalDate start = LocalDate.of(2025, 5, 1);
+        List<Discount> loaded = new ArrayList<>();
+        int id = 0;
+
+        for (int file = 0; file < 8; file++) {
+            String store = stores[random.nextInt(stores.length)];
+            List<Discount> batch = new ArrayList<>();
+            for (int i = random.nextInt(6); i >= 0; i--) {
+                // intervale scurte si lungi, ca sa existe suprapuneri, incluziuni si capete comune
+                LocalDate from = start.plusDays(random.nextInt(20));
+                LocalDate to = from.plusDays(random.nextInt(4) == 0 ? random.nextInt(15) : random.nextInt(3));
+                batch.add(new Discount("D" + id++, names[random.nextInt(names.length)], "Zuzu", 1, "l", "lactate",
+                        from, to, 1 + random.nextInt(50), store));
+            }
+            discounts.addDiscounts(store, batch);
+            loaded.addAll(batch);
+
+            for (LocalDate date = start.minusDays(1); !date.isAfter(start.plusDays(36)); date = date.plusDays(1)) {
+                for (String name : names) {
+                    for (String store2 : stores) {
+                        assertThat(discounts.findActiveDiscount(name.toUpperCase(), store2, date))
+                                .as("%s at %s on %s after file %d", name, store2, date, file)
+                                .isEqualTo(activeByScan(loaded, name, store2, date));
+                    }
+                }
+                LocalDate day = date;
+                assertThat(discounts.getActiveOn(day)).containsExactlyInAnyOrderElementsOf(loaded.stream()
+                        .filter(d -> !day.isBefore(d.getFromDate()) && !day.isAfter(d.getToDate())).toList());
+                assertThat(discounts.getNewDiscounts(day)).containsExactlyInAnyOrderElementsOf(loaded.stream()
+                        .filter(d -> d.getFromDate().equals(day)).toList());
+                assertThat(discounts.getExpiringOn(day)).containsExactlyInAnyOrderElementsOf(loaded.stream()
+                        .filter(d -> d.getToDate().equals(day)).toList());
+            }
+        }
+    }
+
+    // reducerea activa dupa definitie: cea mai recenta data de inceput, iar la egalitate cea incarcata ultima
+    private static Optional<Discount> activeByScan(List<Discount> loaded, String name, String store, LocalDate date) {
+        Discount active = null;
+        for (Discount d : loaded) {
+            if (!d.getProductName().equalsIgnoreCase(name) || !d.getStore().equalsIgnoreCase(store)) continue;
+            if (date.isBefore(d.getFromDate()) || date.isAfter(d.getToDate())) continue;
+            if (active == null || !d.getFromDate().isBefore(active.getFromDate())) active = d;
+        }
+        return Optional.ofNullable(active);
+    }
+
+    @Test
+    void discountDateFilters() {
+        Discount wide = discount("Lapte Zuzu", MAY_1, LocalDate.of(2025, 5, 10), 10, "Lidl");
+        Discount nested = discount("Iaurt", LocalDate.of(2025, 5, 5), LocalDate.of(2025, 5, 7), 20, "Lidl");
+        Discount other = discount("Lapte Zuzu", MAY_1, LocalDate.of(2025, 5, 7), 30, "Profi");
+        discounts.addDiscounts("Lidl", List.of(wide, nested));
+        discounts.addDiscounts("Profi", List.of(other));
+
+        assertThat(discounts.getActiveOn(LocalDate.of(2025, 5, 7))).containsExactlyInAnyOrder(wide, nested, other);
+        assertThat(discounts.getActiveOn(LocalDate.of(2025, 5, 8))).containsExactly(wide);
+        assertThat(discounts.getNewDiscounts(MAY_1)).containsExactlyInAnyOrder(wide, other);
+        assertThat(discounts.getExpiringOn(LocalDate.of(2025, 5, 7))).containsExactlyInAnyOrder(nested, other);
+        assertThat(discounts.getByStore("LIDL")).containsExactly(wide, nested);
+        assertThat(discounts.getCount()).isEqualTo(3);
+        assertThat(discounts.getIndexSize()).isEqualTo(3);
+
+        List<Discount> paged = new ArrayList<>();
+        DiscountRepository.RowPosition next = DiscountRepository.RowPosition.START;
+        while (next != null) {
+            List<Discount> page = new ArrayList<>();
+            next = discounts.readPage(next, 2, page);
+            paged.addAll(page);
+        }
+        assertThat(paged).containsExactly(wide, nested, other);
+        assertThat(toList(discounts.iterator())).containsExactly(wide, nested, other);
+    }
+
+    @Test
+    void alertsTriggerOnceWhenTheLowestPriceCrossesTheirTarget() {
+        PriceAlert low = new PriceAlert("Lapte Zuzu", 500, "a@example.com");
+        PriceAlert high = new PriceAlert("lapte zuzu", 700, "b@example.com");
+        PriceAlert sameHigh = new PriceAlert("LAPTE ZUZU", 700, "c@example.com");
+        PriceAlert bread = new PriceAlert("Paine", 300, "a@example.com");
+        List.of(low, high, sameHigh, bread).forEach(alerts::addAlert);
+
+        assertThat(alerts.size()).isEqualTo(4);
+        assertThat(alerts.getAlertedProductCount()).isEqualTo(2);
+        assertThat(alerts.getAll()).containsExactly(low, high, sameHigh, bread);
+        assertThat(alerts.hasAlerts(symbols.intern("Lapte zuzu"))).isTrue();
+        assertThat(alerts.hasAlerts(symbols.intern("Iaurt"))).isFalse();
+
+        var milk = symbols.intern("lapte zuzu");
+        assertThat(alerts.updateLowestPrice(milk, MAY_1, 800L)).isEmpty();
+        assertThat(alerts.updateLowestPrice(milk, MAY_1, 650L)).containsExactly(high, sameHigh);
+        assertThat(alerts.updateLowestPrice(milk, MAY_1, 450L)).containsExactly(low);
+        assertThat(alerts.updateLowestPrice(milk, MAY_1, 450L)).isEmpty();
+        assertThat(alerts.updateLowestPrice(milk, MAY_1, 600L)).isEmpty();
+        assertThat(alerts.findTriggered(MAY_1)).containsExactly(high, sameHigh);
+        assertThat(alerts.findTriggered(MAY_2)).isEmpty();
+
+        assertThat(alerts.updateLowestPrice(symbols.intern("Iaurt"), MAY_1, 1L)).isEmpty();
+        assertThat(alerts.updateLowestPrice(milk, MAY_1, null)).isEmpty();
+        assertThat(alerts.findTriggered(MAY_1)).isEmpty();
+    }
+
+    @Test
+    void sourceFilesAreReplacedByName() {
+        files.save(new SourceFile("lidl_2025-05-01.csv", 100, 1));
+        files.save(new SourceFile("profi_2025-05-01.csv", 200, 2));
+        files.save(new SourceFile("lidl_2025-05-01.csv", 150, 3));
+
+        assertThat(files.size()).isEqualTo(2);
+        assertThat(files.contains("lidl_2025-05-01.csv")).isTrue();
+        assertThat(files.contains("auchan_2025-05-01.csv")).isFalse();
+        assertThat(files.findAll()).containsExactlyInAnyOrder(
+                new SourceFile("lidl_2025-05-01.csv", 150, 3),
+                new SourceFile("profi_2025-05-01.csv", 200, 2));
+    }
+
+    void loadSampleProducts() {
+        products.addProducts("Lidl", List.of(
+                product("P1", "Lapte Zuzu", "lactate", "Zuzu", 1, 899, MAY_1, "Lidl"),
+                product("P2", "Brânză telemea", "lactate", null, 0.25, 1250, MAY_1, "Lidl")), "lidl_2025-05-01.csv");
+        products.addProducts("Profi", List.of(
+                product("P1", "Lapte Zuzu", "lactate", "Zuzu", 1, 950, MAY_1, "Profi"),
+                product("P7", "Iaurt cu lapte", "lactate", "Danone", 0.4, 450, MAY_1, "Profi")), "profi_2025-05-01.csv");
+        products.addProducts("Lidl", List.of(
+                product("P1", "Lapte Zuzu", "lactate", "Zuzu", 1, 849, MAY_2, "Lidl")), "lidl_2025-05-02.csv");
+    }
+
+    static Product product(String id, String name, String category, String brand, double quantity, long price,
+                           LocalDate date, String store) {
+        return new Product(id, name, category, brand, quantity, "l", price, "RON", date, store);
+    }
+
+    static Discount discount(String name, LocalDate from, LocalDate to, int percentage, String store) {
+        return new Discount("P1", name, "Zuzu", 1, "l", "lactate", from, to, percentage, store);
+    }
+
+    static <T> List<T> toList(Iterator<T> iterator) {
+        List<T> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,139 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.dto.BasketItemResponse;
+import com.accesa.pricecomparator.dto.StoreLimitedBasketResponse;
+import com.accesa.pricecomparator.model.Product;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
+import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.repository.StorageLayout;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The branch and bound of {@link BasketSolverService} against an enumeration of every store subset,
+ * on small random instances.
+ */
+class BasketSolverServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 1);
+
+    private StorePartitionExecutor executor;
+    private ProductRepositoryInMemory productRepo;
+    private BasketSolverService solver;
+
+    @BeforeEach
+    void createExecutor() {
+        executor = new StorePartitionExecutor(1, 20_000);
+        createSolver();
+    }
+
+    // repository-uri goale pentru fiecare instanta
+    private void createSolver() {
+        SymbolTable symbols = new SymbolTable();
+        productRepo = new ProductRepositoryInMemory(StorageLayout.ROWS, symbols);
+        DiscountRepositoryInMemory discountRepo = new DiscountRepositoryInMemory(symbols, executor);
+        // buget de timp mare, ca fiecare solutie sa fie demonstrata optima
+        solver = new BasketSolverService(new EffectivePriceService(productRepo, discountRepo, symbols, executor), 10_000);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void matchesExhaustiveSearchOnRandomInstances() {
+        Random random = new Random(42);
+        for (int instance = 0; instance < 300; instance++) {
+            createSolver();
+            int storeCount = 1 + random.nextInt(6);
+            int itemCount = 1 + random.nextInt(6);
+            // null = magazinul nu are produsul
+            Long[][] prices = new Long[storeCount][itemCount];
+            for (int s = 0; s < storeCount; s++) {
+                List<Product> rows = new ArrayList<>();
+                for (int i = 0; i < itemCount; i++) {
+                    if (random.nextInt(10) < 7) {
+                        prices[s][i] = 100L + random.nextInt(1900);
+                        rows.add(new Product("P" + i, "Produs " + i, "diverse", null, 1, "buc", prices[s][i], "RON", DATE, "store" + s));
+                    }
+                }
+                productRepo.addProducts("store" + s, rows);
+            }
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < itemCount; i++) names.add("Produs " + i);
+            // un produs care nu exista in niciun magazin, oriunde in lista
+            if (random.nextBoolean()) names.add(random.nextInt(names.size() + 1), "Lipsa");
+            int maxStores = 1 + random.nextInt(4);
+            long visitCost = random.nextInt(4) == 0 ? 0 : random.nextInt(500);
+
+            StoreLimitedBasketResponse response = solver.solve(names, DATE, maxStores, visitCost);
+            long[] expected = bruteForce(prices, maxStores, visitCost);
+
+            String context = "instance " + instance;
+            assertThat(response.isOptimal()).as(context).isTrue();
+            // cate un rand per produs cerut, in ordinea cererii, gasit sau nu
+            assertThat(response.getItems()).extracting(BasketItemResponse::getProductName).as(context)
+                    .containsExactlyElementsOf(names);
+            assertThat(response.getStores().size()).as(context).isLessThanOrEqualTo(maxStores);
+            long missing = response.getItems().stream().filter(item -> item.getStore().equals("Not found")).count();
+            assertThat(missing).as(context).isEqualTo(expected[0] + (names.size() - itemCount));
+            assertThat(response.getTotalPrice()).as(context).isEqualTo(expected[1]);
+            assertThat(response.getItemsTotal() + response.getVisitCost()).as(context).isEqualTo(response.getTotalPrice());
+            assertThat(response.getVisitCost()).as(context).isEqualTo(visitCost * response.getStores().size());
+            for (BasketItemResponse item : response.getItems()) {
+                if (!item.getStore().equals("Not found")) assertThat(response.getStores()).as(context).contains(item.getStore());
+            }
+        }
+    }
+
+    @Test
+    void rejectsCostsThatWouldOverflow() {
+        productRepo.addProducts("lidl", List.of(
+                new Product("P1", "Lapte", "lactate", null, 1, "l", 899, "RON", DATE, "lidl")));
+        productRepo.addProducts("profi", List.of(
+                new Product("P1", "Lapte", "lactate", null, 1, "l", 950, "RON", DATE, "profi")));
+
+        assertThatThrownBy(() -> solver.solve(List.of("Lapte"), DATE, 2, Long.MAX_VALUE / 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(solver.solve(List.of("Lapte"), DATE, 2, 100).getTotalPrice()).isEqualTo(999);
+    }
+
+    // {produse lipsa, cost total} minim lexicografic peste toate submultimile de cel mult maxStores magazine
+    private static long[] bruteForce(Long[][] prices, int maxStores, long visitCost) {
+        int storeCount = prices.length;
+        int itemCount = prices[0].length;
+        long[] best = null;
+        for (int mask = 0; mask < 1 << storeCount; mask++) {
+            int size = Integer.bitCount(mask);
+            if (size > maxStores) continue;
+            long missing = 0;
+            long cost = visitCost * size;
+            for (int i = 0; i < itemCount; i++) {
+                Long cheapest = null;
+                for (int s = 0; s < storeCount; s++) {
+                    if ((mask & 1 << s) != 0 && prices[s][i] != null && (cheapest == null || prices[s][i] < cheapest)) {
+                        cheapest = prices[s][i];
+                    }
+                }
+                if (cheapest == null) missing++;
+                else cost += cheapest;
+            }
+            if (best == null || missing < best[0] || (missing == best[0] && cost < best[1])) {
+                best = new long[]{missing, cost};
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,206 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.dto.BasketItemResponse;
+import com.accesa.pricecomparator.dto.BasketResponse;
+import com.accesa.pricecomparator.dto.BudgetObjective;
+import com.accesa.pricecomparator.model.EffectivePrice;
+import com.accesa.pricecomparator.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The grouped knapsack of {@link BudgetSolverService} and the basket it reconstructs, against an
+ * enumeration of every product subset on small random instances, both in whole cents and with
+ * prices counted in coarser units.
+ */
+class BudgetSolverServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 1);
+
+    @Test
+    void matchesExhaustiveSearchInCents() {
+        BudgetSolverService solver = new BudgetSolverService(2_000_000, 10_000);
+        Random random = new Random(7);
+        for (int instance = 0; instance < 400; instance++) {
+            Instance in = Instance.random(random);
+            for (BudgetObjective objective : BudgetObjective.values()) {
+                String context = "instance " + instance + " " + objective;
+                long[] usable = in.usableWithin(in.budget);
+                assertThat(solver.costUnit((int) usable[0], usable[1])).as(context).isEqualTo(1);
+
+                BasketResponse response = solver.solve(in.offers, in.budget, objective);
+                long[] expected = in.bruteForce(objective, 1, in.budget);
+
+                long[] actual = in.check(response, objective, context);
+                assertThat(actual).as(context).containsExactly(expected);
+            }
+        }
+    }
+
+    @Test
+    void scaledPricesStayWithinBudgetAndMatchTheRoundedOptimum() {
+        // putine celule, ca preturile sa fie numarate in unitati mai mari de un ban
+        BudgetSolverService solver = new BudgetSolverService(300, 10_000);
+        Random random = new Random(11);
+        int scaled = 0;
+        for (int instance = 0; instance < 400; instance++) {
+            Instance in = Instance.random(random);
+            long[] usable = in.usableWithin(in.budget);
+            long budgetCents = usable[1];
+            long unit = solver.costUnit((int) usable[0], budgetCents);
+            if (unit > 1) scaled++;
+
+            for (BudgetObjective objective : BudgetObjective.values()) {
+                String context = "instance " + instance + " " + objective + " unit " + unit;
+                BasketResponse response = solver.solve(in.offers, in.budget, objective);
+                long[] actual = in.check(response, objective, context);
+                long[] expected = in.bruteForce(objective, unit, budgetCents / unit);
+
+                // aceeasi valoare ca optimul pe costurile rotunjite; totalul real nu depaseste bugetul
+                assertThat(actual[0]).as(context).isEqualTo(expected[0]);
+                assertThat(actual[1]).as(context).isEqualTo(expected[1]);
+                assertThat(actual[2]).as(context).isLessThanOrEqualTo(in.budget);
+                long units = 0;
+                for (BasketItemResponse item : response.getItems()) units += ceil(item.getFinalPrice(), unit);
+                assertThat(units).as(context).isLessThanOrEqualTo(budgetCents / unit);
+            }
+        }
+        assertThat(scaled).isGreaterThan(100);
+    }
+
+    @Test
+    void emptyBudgetOrNoAffordableProductGivesAnEmptyBasket() {
+        BudgetSolverService solver = new BudgetSolverService(2_000_000, 10_000);
+        List<List<EffectivePrice>> offers = List.of(List.of(offer("Lapte", "lactate", "lidl", 899)));
+
+        assertThat(solver.solve(offers, 0, BudgetObjective.ITEM_COUNT).getItems()).isEmpty();
+        assertThat(solver.solve(offers, 898, BudgetObjective.ITEM_COUNT).getItems()).isEmpty();
+        assertThat(solver.solve(offers, 899, BudgetObjective.ITEM_COUNT).getTotalPrice()).isEqualTo(899);
+    }
+
+    private static long ceil(long price, long unit) {
+        return (price + unit - 1) / unit;
+    }
+
+    private static EffectivePrice offer(String name, String category, String store, long price) {
+        Product product = new Product("P", name, category, null, 1, "buc", price, "RON", DATE, store);
+        return new EffectivePrice(product, price, 0, price);
+    }
+
+    private record Instance(List<List<EffectivePrice>> offers, Map<String, String> categoryOf,
+                            Map<String, Long> cheapestOf, long budget) {
+
+        static Instance random(Random random) {
+            int productCount = 1 + random.nextInt(10);
+            int categoryCount = 1 + random.nextInt(4);
+            List<List<EffectivePrice>> offers = new ArrayList<>();
+            Map<String, String> categoryOf = new HashMap<>();
+            Map<String, Long> cheapestOf = new HashMap<>();
+            long total = 0;
+            for (int p = 0; p < productCount; p++) {
+                String name = "Produs " + p;
+                String category = "categoria " + random.nextInt(categoryCount);
+                List<EffectivePrice> productOffers = new ArrayList<>();
+                long cheapest = Long.MAX_VALUE;
+                for (int s = 0, stores = 1 + random.nextInt(3); s < stores; s++) {
+                    // preturi apropiate, ca rotunjirea si egalitatile sa conteze
+                    long price = 1 + random.nextInt(random.nextBoolean() ? 40 : 3000);
+                    productOffers.add(offer(name, category, "store" + s, price));
+                    cheapest = Math.min(cheapest, price);
+                }
+                offers.add(productOffers);
+                categoryOf.put(name, category);
+                cheapestOf.put(name, cheapest);
+                total += cheapest;
+            }
+            return new Instance(offers, categoryOf, cheapestOf, random.nextLong(total + 2));
+        }
+
+        // {produsele care intra in buget, cele mai ieftine primele din fiecare categorie, bugetul plafonat la cat costa ele impreuna}
+        long[] usableWithin(long budget) {
+            Map<String, List<Long>> byCategory = new HashMap<>();
+            cheapestOf.forEach((name, price) -> {
+                if (price <= budget) byCategory.computeIfAbsent(categoryOf.get(name), c -> new ArrayList<>()).add(price);
+            });
+            long count = 0;
+            long spendable = 0;
+            for (List<Long> prices : byCategory.values()) {
+                prices.sort(null);
+                long prefix = 0;
+                for (long price : prices) {
+                    if (prefix + price > budget) break;
+                    prefix += price;
+                    count++;
+                }
+                spendable += prefix;
+            }
+            return new long[]{count, Math.min(budget, spendable)};
+        }
+
+        /**
+         * {primary, secondary, total} of the best subset whose prices, counted in units, fit the
+         * capacity: items then categories for ITEM_COUNT, categories then items for
+         * CATEGORY_COVERAGE, and the lowest total among equal values.
+         */
+        long[] bruteForce(BudgetObjective objective, long unit, long capacity) {
+            List<String> names = new ArrayList<>(cheapestOf.keySet());
+            long[] best = {0, 0, 0};
+            for (int mask = 1; mask < 1 << names.size(); mask++) {
+                long units = 0;
+                long total = 0;
+                Set<String> categories = new HashSet<>();
+                for (int p = 0; p < names.size(); p++) {
+                    if ((mask & 1 << p) == 0) continue;
+                    long price = cheapestOf.get(names.get(p));
+                    units += ceil(price, unit);
+                    total += price;
+                    categories.add(categoryOf.get(names.get(p)));
+                }
+                if (units > capacity) continue;
+                long[] candidate = value(objective, Integer.bitCount(mask), categories.size(), total);
+                if (better(candidate, best)) best = candidate;
+            }
+            return best;
+        }
+
+        /**
+         * Checks the reconstructed basket (distinct products, each at its cheapest offer) and
+         * returns its {primary, secondary, total}.
+         */
+        long[] check(BasketResponse response, BudgetObjective objective, String context) {
+            Set<String> names = new HashSet<>();
+            Set<String> categories = new HashSet<>();
+            long total = 0;
+            for (BasketItemResponse item : response.getItems()) {
+                assertThat(names.add(item.getProductName())).as(context).isTrue();
+                assertThat(item.getFinalPrice()).as(context).isEqualTo(cheapestOf.get(item.getProductName()));
+                categories.add(categoryOf.get(item.getProductName()));
+                total += item.getFinalPrice();
+            }
+            assertThat(response.getTotalPrice()).as(context).isEqualTo(total);
+            return value(objective, names.size(), categories.size(), total);
+        }
+
+        private static long[] value(BudgetObjective objective, int items, int categories, long total) {
+            return objective == BudgetObjective.ITEM_COUNT
+                    ? new long[]{items, categories, total}
+                    : new long[]{categories, items, total};
+        }
+
+        private static boolean better(long[] a, long[] b) {
+            if (a[0] != b[0]) return a[0] > b[0];
+            if (a[1] != b[1]) return a[1] > b[1];
+            return a[2] < b[2];
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.accesa.pricecomparator.service;
+
+import com.accesa.pricecomparator.model.PriceAggregate;
+import com.accesa.pricecomparator.model.SymbolTable;
+import com.accesa.pricecomparator.repository.DiscountRepositoryInMemory;
+import com.accesa.pricecomparator.repository.PriceAlertRepositoryInMemory;
+import com.accesa.pricecomparator.repository.ProductRepositoryInMemory;
+import com.accesa.pricecomparator.repository.SourceFileRepositoryInMemory;
+import com.accesa.pricecomparator.repository.StorageLayout;
+import com.accesa.pricecomparator.util.CsvDiscountLoader;
+import com.accesa.pricecomparator.util.CsvProductLoader;
+import com.accesa.pricecomparator.util.IngestionMetrics;
+import com.accesa.pricecomparator.util.StorePartitionExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link DataLoaderService} on the in-memory repositories, loading CSV files from a temporary data
+ * directory.
+ */
+class DataLoaderServiceTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    private static final String PRODUCT_HEADER =
+            "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n";
+    private static final String DISCOUNT_HEADER =
+            "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage\n";
+
+    @TempDir
+    Path dataDir;
+    @TempDir
+    Path snapshotDir;
+
+    private StorePartitionExecutor executor;
+    private ProductRepositoryInMemory productRepo;
+    private DiscountRepositoryInMemory discountRepo;
+    private SourceFileRepositoryInMemory fileRepo;
+    private EffectivePriceService priceService;
+    private DataLoaderService loader;
+
+    @BeforeEach
+    void createLoader() {
+        executor = new StorePartitionExecutor(1, 0);
+        createLoader("");
+    }
+
+    private void createLoader(String snapshotPath) {
+        createLoader(snapshotPath, 0);
+    }
+
+    // repository-uri goale, ca la o pornire noua a aplicatiei
+    private void createLoader(String snapshotPath, long quietPeriodMillis) {
+        SymbolTable symbols = new SymbolTable();
+        productRepo = new ProductRepositoryInMemory(StorageLayout.ROWS, symbols);
+        discountRepo = new DiscountRepositoryInMemory(symbols, executor);
+        fileRepo = new SourceFileRepositoryInMemory();
+        priceService = new EffectivePriceService(productRepo, discountRepo, symbols, executor);
+        PriceAlertService alertService = new PriceAlertService(new PriceAlertRepositoryInMemory(symbols), productRepo, priceService, symbols);
+        IngestionMetrics metrics = new IngestionMetrics(new SimpleMeterRegistry());
+        loader = new DataLoaderService(new CsvProductLoader(metrics), new CsvDiscountLoader(metrics),
+                productRepo, discountRepo, fileRepo, priceService, alertService,
+                new PriceEventService(discountRepo, symbols, 16, 0),
+                2, dataDir.toString(), quietPeriodMillis, snapshotPath, 0);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void invertedDiscountRangesDoNotFailTheLoad() throws Exception {
+        Files.writeString(dataDir.resolve("lidl_2025-05-01.csv"), PRODUCT_HEADER
+                + "P1;Lapte Zuzu;lactate;Zuzu;1;l;8.99;RON\n"
+                + "P2;Paine;panificatie;Vel Pitar;0.5;kg;3.99;RON\n");
+        Files.writeString(dataDir.resolve("lidl_discounts_2025-05-01.csv"), DISCOUNT_HEADER
+                + "P1;Lapte Zuzu;Zuzu;1;l;lactate;2025-05-01;2025-05-07;10\n"
+                + "P2;Paine;Vel Pitar;0.5;kg;panificatie;2025-05-07;2025-04-30;50\n");
+
+        loader.loadAllData();
+
+        assertThat(fileRepo.size()).isEqualTo(2);
+        assertThat(loader.getDataVersion()).isEqualTo(2);
+        assertThat(discountRepo.getCount()).isEqualTo(1);
+        assertThat(priceService.getTable(MAY_1).findCheapest("Paine").getFinalPrice()).isEqualTo(399);
+        assertThat(priceService.getTable(MAY_1).findCheapest("Lapte Zuzu").getFinalPrice()).isEqualTo(809);
+    }
+
+    @Test
+    void fingerprintNamesTheLoadedFilesAcrossRestarts() throws Exception {
+        String snapshot = snapshotDir.resolve("data.snapshot").toString();
+        Path lidl = dataDir.resolve("lidl_2025-05-01.csv");
+        Files.writeString(lidl, PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;8.99;RON\n");
+        Files.writeString(dataDir.resolve("profi_2025-05-01.csv"), PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;9.50;RON\n");
+        createLoader(snapshot);
+        loader.loadAllData();
+        long fingerprint = loader.getDataFingerprint();
+        assertThat(loader.getDataVersion()).isEqualTo(2);
+
+        // repornire: aceleasi fisiere, restaurate din snapshot, dau aceeasi amprenta, desi versiunea e alta
+        createLoader(snapshot);
+        loader.loadAllData();
+        assertThat(loader.getDataVersion()).isEqualTo(1);
+        assertThat(loader.getDataFingerprint()).isEqualTo(fingerprint);
+
+        // repornire fara snapshot: acelasi numar de fisiere, dar unul a fost inlocuit sub acelasi nume
+        Files.writeString(lidl, PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;12.99;RON\n");
+        createLoader("");
+        loader.loadAllData();
+        assertThat(loader.getDataVersion()).isEqualTo(2);
+        assertThat(loader.getDataFingerprint()).isNotEqualTo(fingerprint);
+        long replaced = loader.getDataFingerprint();
+
+        // un fisier nou schimba amprenta o data cu versiunea
+        Files.writeString(dataDir.resolve("lidl_2025-05-02.csv"), PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;8.49;RON\n");
+        assertThat(loader.loadNewFiles()).isEqualTo(1);
+        assertThat(loader.getDataVersion()).isEqualTo(3);
+        assertThat(loader.getDataFingerprint()).isNotIn(fingerprint, replaced);
+    }
+
+    @Test
+    void newFilesWaitForTheQuietPeriod() throws Exception {
+        createLoader("", 60_000);
+        loader.loadAllData();
+
+        Path lidl = Files.writeString(dataDir.resolve("lidl_2025-05-01.csv"), PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;8.99;RON\n");
+        // fisierul abia scris poate fi inca in curs de copiere
+        assertThat(loader.loadNewFiles()).isZero();
+        assertThat(productRepo.getRowCount()).isZero();
+
+        Files.setLastModifiedTime(lidl, FileTime.from(Instant.now().minusSeconds(120)));
+        assertThat(loader.loadNewFiles()).isEqualTo(1);
+        assertThat(productRepo.getRowCount()).isEqualTo(1);
+        assertThat(loader.loadNewFiles()).isZero();
+    }
+
+    @Test
+    void aFailedFileIsRetriedOnlyOnceItChanges() throws Exception {
+        loader.loadAllData();
+        Path lidl = Files.writeString(dataDir.resolve("lidl_2025-05-01.csv"), PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;abc;RON\n");
+        Instant written = Instant.now().minusSeconds(60);
+        Files.setLastModifiedTime(lidl, FileTime.from(written));
+
+        assertThat(loader.loadNewFiles()).isZero();
+        assertThat(loader.loadNewFiles()).isZero();
+        assertThat(fileRepo.size()).isZero();
+        assertThat(loader.getDataVersion()).isZero();
+
+        // continutul corectat, dar cu aceeasi data a modificarii, nu e citit din nou
+        Files.writeString(lidl, PRODUCT_HEADER + "P1;Lapte Zuzu;lactate;Zuzu;1;l;8.99;RON\n");
+        Files.setLastModifiedTime(lidl, FileTime.from(written));
+        assertThat(loader.loadNewFiles()).isZero();
+
+        Files.setLastModifiedTime(lidl, FileTime.from(written.plusSeconds(1)));
+        assertThat(loader.loadNewFiles()).isEqualTo(1);
+        assertThat(fileRepo.size()).isEqualTo(1);
+        assertThat(loader.getDataVersion()).isEqualTo(1);
+        assertThat(priceService.getTable(MAY_1).findCheapest("Lapte Zuzu").getFinalPrice()).isEqualTo(899);
+    }
+
+    @Test
+    void readersNeverSeeAPartlyPublishedFile() throws Exception {
+        int rowsPerFile = 200;
+        loader.loadAllData();
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && torn.get() == null) {
+                long rows = productRepo.getRowCount();
+                long version = loader.getDataVersion();
+                if (rows % rowsPerFile != 0) torn.set(rows + " rows");
+                // versiunea creste abia dupa publicare, deci nu poate depasi fisierele vizibile
+                else if (version > productRepo.getRowCount() / rowsPerFile) torn.set("version " + version + " with " + rows + " rows");
+                // agregatele de pret sunt publicate odata cu randurile, in toate celulele
+                long aggregated = productRepo.getDailyStats(null, null).values().stream().mapToLong(PriceAggregate::getCount).sum();
+                long lidl = productRepo.getDailyStats("lidl", "diverse").values().stream().mapToLong(PriceAggregate::getCount).sum();
+                if (aggregated % rowsPerFile != 0 || lidl % rowsPerFile != 0) torn.set(aggregated + " and " + lidl + " aggregated rows");
+                else if (aggregated < rows) torn.set(rows + " rows but " + aggregated + " aggregated");
+                else if (version > aggregated / rowsPerFile) torn.set("version " + version + " with " + aggregated + " aggregated rows");
+            }
+        });
+        reader.start();
+        try {
+            for (int day = 0; day < 20; day++) {
+                List<String> stores = List.of("lidl", "profi", "kaufland");
+                for (String store : stores) {
+                    StringBuilder csv = new StringBuilder(PRODUCT_HEADER);
+                    for (int i = 0; i < rowsPerFile; i++) {
+                        csv.append("P").append(i).append(";Produs ").append(i).append(";diverse;Marca;1;buc;")
+                                .append(1 + i).append(".99;RON\n");
+                    }
+                    Files.writeString(dataDir.resolve(store + "_" + MAY_1.plusDays(day) + ".csv"), csv);
+                }
+                assertThat(loader.loadNewFiles()).isEqualTo(stores.size());
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+
+        assertThat(torn.get()).isNull();
+        assertThat(productRepo.getRowCount()).isEqualTo(60L * rowsPerFile);
+        assertThat(productRepo.getDates()).hasSize(20);
+        assertThat(productRepo.getDailyStats("lidl", null)).hasSize(20);
+        assertThat(productRepo.getDailyStats(null, "diverse").get(MAY_1).getCount()).isEqualTo(3L * rowsPerFile);
+        assertThat(productRepo.searchByName("Produs 199", 10)).isNotEmpty();
+    }
+}
@@ -0,0 +1,246 @@
+package com.accesa.pricecomparator.util;
+
+import com.accesa.pricecomparator.model.Discount;
+import com.accesa.pricecomparator.model.Money;
+import com.accesa.pricecomparator.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link SemicolonCsvParser} against the {@code String.split} parsing it replaced: every field,
+ * number and date read from the bytes must equal what splitting the decoded line gives.
+ */
+class SemicolonCsvParserTest {
+
+    private static final String HEADER = "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n";
+
+    @Test
+    void negativeAndDecimalNumbers() {
+        String content = HEADER
+                + "P1;Lapte;lactate;Zuzu;1;l;9.90;RON\n"
+                + "P2;Retur;diverse;-;-0.5;kg;-3.50;RON\n"
+                + "P3;Cafea;cafea;Lavazza;0.25;kg;12;RON\n"
+                + "P4;Ulei;alimente;Floriol;1.125;l;-0.01;RON\n"
+                + "P5;Sare;alimente;Salrom;123456.789;kg;1234567.891;RON\n"
+                + "P6;Zahar;alimente;Margaritar;.5;kg;0.125;RON\n";
+
+        List<String[]> expected = split(content);
+        List<double[]> numbers = new ArrayList<>();
+        parse(content, row -> numbers.add(new double[]{row.getDouble(4), row.getCents(6)}));
+
+        assertThat(numbers).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(numbers.get(i)[0]).isEqualTo(Double.parseDouble(expected.get(i)[4]));
+            assertThat((long) numbers.get(i)[1]).isEqualTo(Money.of(new BigDecimal(expected.get(i)[6])));
+        }
+        assertThat((long) numbers.get(1)[1]).isEqualTo(-350);
+        assertThat((long) numbers.get(5)[1]).isEqualTo(13);
+    }
+
+    @Test
+    void intsAndDatesMatchTheJdkParsers() {
+        String content = "from;to;percentage\n"
+                + "2025-05-01;2025-05-07;10\n"
+                + "2025-05-01;2025-12-31;-5\n"
+                + "2024-02-29;2024-03-01;0\n"
+                + "2025-05-08;2025-05-14;2147483647\n";
+
+        List<String[]> expected = split(content);
+        List<Object[]> values = new ArrayList<>();
+        parse(content, row -> values.add(new Object[]{row.getDate(0), row.getDate(1), row.getInt(2)}));
+
+        assertThat(values).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(values.get(i)).containsExactly(
+                    LocalDate.parse(expected.get(i)[0]), LocalDate.parse(expected.get(i)[1]), Integer.parseInt(expected.get(i)[2]));
+        }
+    }
+
+    @Test
+    void missingTrailingNewlineKeepsTheLastRow() {
+        String content = HEADER + "P1;Lapte;lactate;Zuzu;1;l;9.90;RON\nP2;Paine;panificatie;Vel Pitar;0.5;kg;3.99;RON";
+
+        List<String[]> rows = fields(content);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(1)).containsExactly(split(content).get(1));
+        assertThat(rows.get(1)[7]).isEqualTo("RON");
+    }
+
+    @Test
+    void crlfLineEndingsAreNotPartOfTheLastField() {
+        String content = HEADER.replace("\n", "\r\n")
+                + "P1;Lapte;lactate;Zuzu;1;l;9.90;RON\r\n"
+                + "P2;Paine;panificatie;Vel Pitar;0.5;kg;3.99;RON\r\n";
+
+        List<String[]> rows = fields(content);
+
+        assertThat(rows).hasSize(2);
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(rows.get(i)).containsExactly(split(content).get(i));
+        }
+        assertThat(rows.get(0)[7]).isEqualTo("RON");
+        List<Long> cents = new ArrayList<>();
+        parse(content, row -> cents.add(row.getCents(6)));
+        assertThat(cents).containsExactly(990L, 399L);
+    }
+
+    @Test
+    void shortLinesReportTheirFieldCount() {
+        String content = HEADER
+                + "P1;Lapte;lactate\n"
+                + "\n"
+                + "P2;Paine;panificatie;Vel Pitar;0.5;kg;3.99;RON\n"
+                + "P3;;;;;;\n";
+
+        assertThat(fields(content)).containsExactlyElementsOf(split(content));
+        List<Integer> counts = new ArrayList<>();
+        parse(content, row -> counts.add(row.fieldCount()));
+        assertThat(counts).containsExactly(3, 1, 8, 7);
+    }
+
+    @Test
+    void shortLinesAreSkippedByTheProductLoader(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("lidl_2025-05-01.csv");
+        Files.writeString(file, HEADER
+                + "P1;Lapte;lactate\n"
+                + "P2;Paine;panificatie;Vel Pitar;0.5;kg;3.99;RON\n"
+                + "P3;Oua;oua;Avicola;10;buc;-1.5;RON");
+
+        List<Product> products = new CsvProductLoader(new IngestionMetrics(new SimpleMeterRegistry()))
+                .loadProductsFromCsv(file, "Lidl", LocalDate.of(2025, 5, 1));
+
+        assertThat(products).extracting(Product::getProductId).containsExactly("P2", "P3");
+        assertThat(products).extracting(Product::getPrice).containsExactly(399L, -150L);
+    }
+
+    @Test
+    void invertedDiscountRangesAreSkippedByTheDiscountLoader(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("lidl_discounts_2025-05-01.csv");
+        Files.writeString(file, "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage\n"
+                + "P1;Lapte;Zuzu;1;l;lactate;2025-05-01;2025-05-07;10\n"
+                + "P2;Paine;Vel Pitar;0.5;kg;panificatie;2025-05-07;2025-05-01;20\n"
+                + "P3;Oua;Avicola;10;buc;oua;2025-05-03;2025-05-03;5\n");
+
+        List<Discount> discounts = new CsvDiscountLoader(new IngestionMetrics(new SimpleMeterRegistry()))
+                .loadDiscountsFromCsv(file, "Lidl");
+
+        assertThat(discounts).extracting(Discount::getProductId).containsExactly("P1", "P3");
+    }
+
+    @Test
+    void utf8NamesFromHeapAndMappedBuffers(@TempDir Path dir) throws IOException {
+        String content = "\uFEFF" + HEADER
+                + "P1;Brânză telemea;lactate;Hochland;0.25;kg;12.50;RON\n"
+                + "P2;Ouă mărimea M;ouă;Avicola;10;buc;9.99;RON\n"
+                + "P3;Șnițel de pui, țărănesc;carne;Cocorico;0.5;kg;24.90;RON\n"
+                + "P4;Crème brûlée;desert;Ölker;0.1;kg;7.00;RON\n";
+        Path file = dir.resolve("utf8.csv");
+        Files.writeString(file, content);
+
+        List<String[]> expected = split(content);
+        assertThat(fields(content)).containsExactlyElementsOf(expected);
+
+        List<String[]> mapped = new ArrayList<>();
+        new SemicolonCsvParser(SemicolonCsvParser.read(file)).parse(row -> mapped.add(strings(row)));
+        assertThat(mapped).containsExactlyElementsOf(expected);
+        assertThat(mapped.get(0)[0]).isEqualTo("P1");
+    }
+
+    @Test
+    void quotedFieldsKeepSeparatorsAndEscapedQuotes() {
+        String content = HEADER + "P1;\"Lapte \"\"Zuzu\"\"; 1,5%\";lactate;Zuzu;1;l;9.90;RON\n";
+
+        List<String[]> rows = fields(content);
+
+        assertThat(rows.get(0)).hasSize(8);
+        assertThat(rows.get(0)[1]).isEqualTo("Lapte \"Zuzu\"; 1,5%");
+        assertThat(rows.get(0)[6]).isEqualTo("9.90");
+    }
+
+    @Test
+    void matchesStringSplitOnRandomFiles() {
+        Random random = new Random(3);
+        String[] names = {"Lapte Zuzu", "Brânză telemea", "Ouă mărimea M", "Șnițel", "Pâine albă", "Apă plată 2L", ""};
+        for (int file = 0; file < 200; file++) {
+            String newline = random.nextBoolean() ? "\n" : "\r\n";
+            StringBuilder content = new StringBuilder("id;name;quantity;price;date;percentage").append(newline);
+            int rows = random.nextInt(30);
+            for (int r = 0; r < rows; r++) {
+                content.append('P').append(random.nextInt(1000)).append(';')
+                        .append(names[random.nextInt(names.length)]).append(';')
+                        .append(decimal(random)).append(';')
+                        .append(decimal(random)).append(';')
+                        .append(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(3000))).append(';')
+                        .append(random.nextInt(201) - 100);
+                if (r < rows - 1 || random.nextBoolean()) content.append(newline);
+            }
+
+            String text = content.toString();
+            List<String[]> expected = split(text);
+            List<Object[]> actual = new ArrayList<>();
+            parse(text, row -> actual.add(new Object[]{row.getString(0), row.getString(1), row.getDouble(2),
+                    row.getCents(3), row.getDate(4), row.getInt(5)}));
+
+            assertThat(actual).as("file %d", file).hasSize(expected.size());
+            for (int i = 0; i < expected.size(); i++) {
+                String[] f = expected.get(i);
+                assertThat(actual.get(i)).as("file %d row %d", file, i).containsExactly(
+                        f[0], f[1], Double.parseDouble(f[2]), Money.of(new BigDecimal(f[3])),
+                        LocalDate.parse(f[4]), Integer.parseInt(f[5]));
+            }
+        }
+    }
+
+    // o zecimala aleatoare: semn, parte intreaga si 0-4 zecimale
+    private static String decimal(Random random) {
+        StringBuilder value = new StringBuilder();
+        if (random.nextInt(4) == 0) value.append('-');
+        value.append(random.nextInt(100_000));
+        int scale = random.nextInt(5);
+        if (scale > 0) {
+            value.append('.');
+            for (int i = 0; i < scale; i++) value.append(random.nextInt(10));
+        }
+        return value.toString();
+    }
+
+    // parsarea veche: liniile separate de \r?\n, fara antet si fara linia goala de dupa ultimul \n
+    private static List<String[]> split(String content) {
+        if (content.startsWith("\uFEFF")) content = content.substring(1);
+        List<String> lines = new ArrayList<>(Arrays.asList(content.split("\r?\n", -1)));
+        if (lines.get(lines.size() - 1).isEmpty()) lines.remove(lines.size() - 1);
+        return lines.stream().skip(1).map(line -> line.split(";", -1)).toList();
+    }
+
+    private static List<String[]> fields(String content) {
+        List<String[]> rows = new ArrayList<>();
+        parse(content, row -> rows.add(strings(row)));
+        return rows;
+    }
+
+    private static String[] strings(SemicolonCsvParser.Row row) {
+        String[] values = new String[row.fieldCount()];
+        for (int i = 0; i < values.length; i++) values[i] = row.getString(i);
+        return values;
+    }
+
+    private static void parse(String content, SemicolonCsvParser.RowHandler handler) {
+        new SemicolonCsvParser(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8))).parse(handler);
+    }
+}